@@ -0,0 +1,28 @@
+package com.image.imageapp.benchmarks;
+
+import com.image.imageapp.ArgbRaster;
+
+import java.util.SplittableRandom;
+
+final class BenchmarkImages {
+
+    private BenchmarkImages() {
+    }
+
+    static ArgbRaster synthetic(int size) {
+        ArgbRaster raster = new ArgbRaster(size, size);
+        int[] pixels = raster.getPixels();
+        SplittableRandom random = new SplittableRandom(size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int base = ((x * 255 / size) << 16) | ((y * 255 / size) << 8) | ((x + y) & 0xFF);
+                pixels[y * size + x] = 0xFF000000 | (base ^ random.nextInt(0x101010));
+            }
+        }
+        return raster;
+    }
+
+    static int parallelism(int threads) {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+}
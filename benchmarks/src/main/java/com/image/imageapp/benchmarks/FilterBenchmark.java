@@ -0,0 +1,65 @@
+package com.image.imageapp.benchmarks;
+
+import com.image.imageapp.ArgbRaster;
+import com.image.imageapp.OperationParser;
+import com.image.imageapp.Pipeline;
+import com.image.imageapp.ProcessingPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Convolution filters, given in the batch CLI syntax. Kernels that differ only in radius show how
+ * the direct, separable and sliding-window implementations scale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g", "--add-modules=jdk.incubator.vector"})
+public class FilterBenchmark {
+
+    @Param({"2048", "4096"})
+    public int size;
+
+    @Param({"1", "0"})
+    public int threads;
+
+    @Param({"contour", "sobel", "sharpen", "gauss=2", "gauss=8", "box=2", "box=8", "median=1", "median=3"})
+    public String filter;
+
+    private ArgbRaster source;
+    private ProcessingPool pool;
+    private Pipeline pipeline;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = BenchmarkImages.synthetic(size);
+        pool = new ProcessingPool(BenchmarkImages.parallelism(threads));
+        pipeline = OperationParser.parse(filter);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public ArgbRaster filter(Megapixels counter) {
+        counter.add((long) source.getWidth() * source.getHeight());
+        return pipeline.run(source, pool);
+    }
+}
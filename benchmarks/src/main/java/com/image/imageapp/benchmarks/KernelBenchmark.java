@@ -0,0 +1,90 @@
+package com.image.imageapp.benchmarks;
+
+import com.image.imageapp.ArgbRaster;
+import com.image.imageapp.ImageKernels;
+import com.image.imageapp.PixelKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded comparison of the scalar and Vector API kernels on a synthetic image; the
+ * contour gradient is measured on one row. The fork adds the incubator module, so both backends
+ * are available.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "--add-modules=jdk.incubator.vector"})
+public class KernelBenchmark {
+
+    @Param({"scalar", "vector"})
+    public String backend;
+
+    @Param({"2048"})
+    public int size;
+
+    private PixelKernels kernels;
+    private int[] pixels;
+    private int[] output;
+    private int[] current;
+    private int[] below;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernels = backend.equals("vector") ? PixelKernels.vector() : PixelKernels.scalar();
+        if (kernels == null) {
+            throw new IllegalStateException("Vector API is not available");
+        }
+        ArgbRaster source = BenchmarkImages.synthetic(size);
+        pixels = source.getPixels();
+        output = new int[pixels.length];
+        current = new int[size + 1];
+        below = new int[size];
+        for (int i = 0; i < size; i++) {
+            current[i] = ImageKernels.brightness(pixels[i]);
+            below[i] = ImageKernels.brightness(pixels[size + i]);
+        }
+    }
+
+    @Benchmark
+    public int[] negative(Megapixels counter) {
+        counter.add(pixels.length);
+        kernels.negative(pixels, 0, output, 0, pixels.length);
+        return output;
+    }
+
+    @Benchmark
+    public int[] threshold(Megapixels counter) {
+        counter.add(pixels.length);
+        kernels.threshold(pixels, 0, output, 0, pixels.length, 128);
+        return output;
+    }
+
+    @Benchmark
+    public int[] brightness(Megapixels counter) {
+        counter.add(pixels.length);
+        kernels.brightness(pixels, 0, output, 0, pixels.length);
+        return output;
+    }
+
+    @Benchmark
+    public int[] gradient(Megapixels counter) {
+        counter.add(size);
+        kernels.gradient(current, below, output, 0, size);
+        return output;
+    }
+}
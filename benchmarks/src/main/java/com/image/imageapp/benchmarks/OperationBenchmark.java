@@ -0,0 +1,127 @@
+package com.image.imageapp.benchmarks;
+
+import com.image.imageapp.ArgbRaster;
+import com.image.imageapp.ContourOperation;
+import com.image.imageapp.ImageOperation;
+import com.image.imageapp.NegativeOperation;
+import com.image.imageapp.OrientOperation;
+import com.image.imageapp.Orientation;
+import com.image.imageapp.Pipeline;
+import com.image.imageapp.ProcessingPool;
+import com.image.imageapp.RotateOperation;
+import com.image.imageapp.ScaleOperation;
+import com.image.imageapp.ThresholdOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every operation offered by ImageApp on a square synthetic image. {@code threads = 0} means one
+ * worker per available processor, as in the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g", "--add-modules=jdk.incubator.vector"})
+public class OperationBenchmark {
+
+    @Param({"512", "2048", "4096", "8000"})
+    public int size;
+
+    @Param({"1", "2", "4", "0"})
+    public int threads;
+
+    private ArgbRaster source;
+    private ProcessingPool pool;
+    private Pipeline negative;
+    private Pipeline contour;
+    private Pipeline rotateLeft;
+    private Pipeline rotateRight;
+    private Pipeline rotate180;
+    private Pipeline flipHorizontal;
+    private Pipeline scaleHalf;
+    private Pipeline fused;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = BenchmarkImages.synthetic(size);
+        pool = new ProcessingPool(BenchmarkImages.parallelism(threads));
+        negative = pipeline(new NegativeOperation());
+        contour = pipeline(new ContourOperation());
+        rotateLeft = pipeline(new RotateOperation(-90));
+        rotateRight = pipeline(new RotateOperation(90));
+        rotate180 = pipeline(new RotateOperation(180));
+        flipHorizontal = pipeline(new OrientOperation(Orientation.FLIP_HORIZONTAL));
+        scaleHalf = pipeline(new ScaleOperation(size / 2, size / 2));
+        fused = new Pipeline(List.of(new NegativeOperation(), new ThresholdOperation(128), new ContourOperation()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public ArgbRaster negative(Megapixels counter) {
+        return run(negative, counter);
+    }
+
+    @Benchmark
+    public ArgbRaster contour(Megapixels counter) {
+        return run(contour, counter);
+    }
+
+    @Benchmark
+    public ArgbRaster rotateLeft(Megapixels counter) {
+        return run(rotateLeft, counter);
+    }
+
+    @Benchmark
+    public ArgbRaster rotateRight(Megapixels counter) {
+        return run(rotateRight, counter);
+    }
+
+    @Benchmark
+    public ArgbRaster rotate180(Megapixels counter) {
+        return run(rotate180, counter);
+    }
+
+    @Benchmark
+    public ArgbRaster flipHorizontal(Megapixels counter) {
+        return run(flipHorizontal, counter);
+    }
+
+    @Benchmark
+    public ArgbRaster scaleNearestHalf(Megapixels counter) {
+        return run(scaleHalf, counter);
+    }
+
+    @Benchmark
+    public ArgbRaster negativeThresholdContourFused(Megapixels counter) {
+        return run(fused, counter);
+    }
+
+    private ArgbRaster run(Pipeline pipeline, Megapixels counter) {
+        counter.add((long) source.getWidth() * source.getHeight());
+        return pipeline.run(source, pool);
+    }
+
+    private static Pipeline pipeline(ImageOperation operation) {
+        return new Pipeline(List.of(operation));
+    }
+}
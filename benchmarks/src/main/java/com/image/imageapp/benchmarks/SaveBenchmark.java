@@ -0,0 +1,63 @@
+package com.image.imageapp.benchmarks;
+
+import com.image.imageapp.ArgbRaster;
+import com.image.imageapp.JpegWriter;
+import com.image.imageapp.ProgressListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JPEG encoding as done by the save dialog. Encoding is single-threaded, so there is no thread
+ * parameter; {@code size = 4899} is the 24-megapixel case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class SaveBenchmark {
+
+    @Param({"512", "2048", "4096", "4899", "8000"})
+    public int size;
+
+    @Param({"0.75", "0.95"})
+    public float quality;
+
+    private ArgbRaster source;
+    private Path target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        source = BenchmarkImages.synthetic(size);
+        target = Files.createTempFile("imageapp-bench", ".jpg");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public Path encodeJpeg(Megapixels counter) throws IOException {
+        counter.add((long) source.getWidth() * source.getHeight());
+        JpegWriter.write(source, target, quality, ProgressListener.NONE);
+        return target;
+    }
+}
@@ -0,0 +1,71 @@
+package com.image.imageapp.benchmarks;
+
+import com.image.imageapp.ArgbRaster;
+import com.image.imageapp.Pipeline;
+import com.image.imageapp.ProcessingPool;
+import com.image.imageapp.ResampleFilter;
+import com.image.imageapp.ScaleOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resampling with every filter. {@code factor} is the output edge relative to the input, so 0.125
+ * is the large downscale case and 2 an upscale; the counter reports source megapixels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class ScaleBenchmark {
+
+    @Param({"2048", "4096", "8000"})
+    public int size;
+
+    @Param({"1", "0"})
+    public int threads;
+
+    @Param({"NEAREST", "BOX", "BILINEAR", "BICUBIC", "LANCZOS3"})
+    public ResampleFilter filter;
+
+    @Param({"0.125", "0.5", "2"})
+    public double factor;
+
+    private ArgbRaster source;
+    private ProcessingPool pool;
+    private Pipeline pipeline;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = BenchmarkImages.synthetic(size);
+        pool = new ProcessingPool(BenchmarkImages.parallelism(threads));
+        int target = Math.max(1, (int) (size * factor));
+        pipeline = new Pipeline(List.of(new ScaleOperation(target, target, filter)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public ArgbRaster scale(Megapixels counter) {
+        counter.add((long) source.getWidth() * source.getHeight());
+        return pipeline.run(source, pool);
+    }
+}
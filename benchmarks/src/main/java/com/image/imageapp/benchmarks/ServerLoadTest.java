@@ -0,0 +1,186 @@
+package com.image.imageapp.benchmarks;
+
+import com.image.imageapp.JpegWriter;
+import com.image.imageapp.LatencyHistogram;
+import com.image.imageapp.ProcessingPool;
+import com.image.imageapp.ProcessingServer;
+import com.image.imageapp.ProgressListener;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of the {@code --serve} endpoint: {@code --clients} concurrent clients post the same
+ * synthetic JPEG until {@code --requests} requests are done, after {@code --warmup} unmeasured
+ * ones, and the latency percentiles and throughput are printed. Without {@code --url} the server
+ * is started in this process on a free port. Not a JMH benchmark, so it is run by class name:
+ * {@code java -cp benchmarks/target/benchmarks.jar com.image.imageapp.benchmarks.ServerLoadTest}.
+ */
+public final class ServerLoadTest {
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Użycie: ServerLoadTest [--url http://127.0.0.1:8080/process] [--clients N] [--requests N]",
+            "                       [--warmup N] [--size PIKSELE] [--ops LISTA] [--jobs N]",
+            "  --clients   liczba jednoczesnych klientów (domyślnie 16)",
+            "  --requests  liczba mierzonych żądań (domyślnie 400)",
+            "  --warmup    liczba żądań rozgrzewających (domyślnie 40)",
+            "  --size      bok przesyłanego obrazu (domyślnie 2048)",
+            "  --ops       operacje jak w trybie wsadowym (domyślnie negative)",
+            "  --jobs      obrazy przetwarzane jednocześnie przez serwer uruchomiony w teście");
+
+    private record Options(String url, int clients, int requests, int warmup, int size, String ops, int jobs) {
+    }
+
+    private ServerLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Błąd: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        byte[] image = encode(options.size());
+        ProcessingServer server = null;
+        String url = options.url();
+        if (url == null) {
+            server = ProcessingServer.start(0, options.jobs(), Long.MAX_VALUE);
+            url = "http://127.0.0.1:" + server.getPort() + ProcessingServer.PATH;
+        }
+        URI target = URI.create(url + "?ops=" + URLEncoder.encode(options.ops(), StandardCharsets.UTF_8));
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            System.out.printf("%s, obraz %d² (%d kB), %d klientów%n", target, options.size(), image.length >> 10,
+                    options.clients());
+            load(client, target, image, options.clients(), options.warmup(), null);
+            LatencyHistogram latency = new LatencyHistogram();
+            long start = System.nanoTime();
+            int failures = load(client, target, image, options.clients(), options.requests(), latency);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double megapixels = (double) options.size() * options.size() * latency.getCount() / 1e6;
+            System.out.printf("żądania: %d, błędy: %d, czas: %.2f s%n", latency.getCount(), failures, seconds);
+            System.out.printf("przepustowość: %.1f żądań/s, %.1f MP/s%n", latency.getCount() / seconds,
+                    megapixels / seconds);
+            System.out.printf("opóźnienie [ms]: p50 %.1f, p90 %.1f, p99 %.1f, maks. %.1f, średnio %.1f%n",
+                    millis(latency.valueAtPercentile(50)), millis(latency.valueAtPercentile(90)),
+                    millis(latency.valueAtPercentile(99)), millis(latency.getMax()), latency.getMean() / 1e6);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+            ProcessingPool.shutdown();
+        }
+    }
+
+    /** Sends {@code requests} requests from {@code clients} virtual threads and returns the number of failed ones. */
+    private static int load(HttpClient client, URI target, byte[] image, int clients, int requests,
+                            LatencyHistogram latency) throws Exception {
+        AtomicInteger remaining = new AtomicInteger(requests);
+        AtomicInteger failures = new AtomicInteger();
+        HttpRequest request = HttpRequest.newBuilder(target)
+                .header("Content-Type", "image/jpeg")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(image))
+                .build();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                failures.incrementAndGet();
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            failures.incrementAndGet();
+                            continue;
+                        }
+                        if (latency != null) {
+                            latency.record(System.nanoTime() - start);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return failures.get();
+    }
+
+    private static byte[] encode(int size) throws IOException {
+        Path file = Files.createTempFile("imageapp-load", ".jpg");
+        try {
+            JpegWriter.write(BenchmarkImages.synthetic(size), file, JpegWriter.DEFAULT_QUALITY, ProgressListener.NONE);
+            return Files.readAllBytes(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static Options parse(String[] args) {
+        String url = null;
+        int clients = 16;
+        int requests = 400;
+        int warmup = 40;
+        int size = 2048;
+        String ops = "negative";
+        int jobs = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--url" -> url = value(args, ++i, arg);
+                case "--clients" -> clients = number(args, ++i, arg, 1);
+                case "--requests" -> requests = number(args, ++i, arg, 1);
+                case "--warmup" -> warmup = number(args, ++i, arg, 0);
+                case "--size" -> size = number(args, ++i, arg, 1);
+                case "--ops" -> ops = value(args, ++i, arg);
+                case "--jobs" -> jobs = number(args, ++i, arg, 1);
+                default -> throw new IllegalArgumentException("Nieznany argument: " + arg);
+            }
+        }
+        return new Options(url, clients, requests, warmup, size, ops, jobs);
+    }
+
+    private static String value(String[] args, int index, String flag) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Brak wartości dla " + flag);
+        }
+        return args[index];
+    }
+
+    private static int number(String[] args, int index, String flag, int min) {
+        String value = value(args, index, flag);
+        try {
+            int number = Integer.parseInt(value);
+            if (number < min) {
+                throw new IllegalArgumentException("Wartość " + flag + " musi wynosić co najmniej " + min + ".");
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nieprawidłowa wartość dla " + flag + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.image.imageapp.benchmarks;
+
+import com.image.imageapp.ArgbRaster;
+import com.image.imageapp.BrightnessPlane;
+import com.image.imageapp.Pipeline;
+import com.image.imageapp.ProcessingPool;
+import com.image.imageapp.ThresholdOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g", "--add-modules=jdk.incubator.vector"})
+public class ThresholdBenchmark {
+
+    @Param({"512", "2048", "4096", "8000"})
+    public int size;
+
+    @Param({"1", "2", "4", "0"})
+    public int threads;
+
+    @Param({"0", "64", "128", "192", "255"})
+    public int threshold;
+
+    private ArgbRaster source;
+    private ProcessingPool pool;
+    private Pipeline pipeline;
+    private BrightnessPlane plane;
+    private int[] output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = BenchmarkImages.synthetic(size);
+        pool = new ProcessingPool(BenchmarkImages.parallelism(threads));
+        pipeline = new Pipeline(List.of(new ThresholdOperation(threshold)));
+        plane = BrightnessPlane.of(source, pool);
+        output = new int[source.getWidth() * source.getHeight()];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public ArgbRaster threshold(Megapixels counter) {
+        counter.add((long) source.getWidth() * source.getHeight());
+        return pipeline.run(source, pool);
+    }
+
+    @Benchmark
+    public int[] thresholdFromPlane(Megapixels counter) {
+        counter.add((long) source.getWidth() * source.getHeight());
+        plane.threshold(threshold, output, pool);
+        return output;
+    }
+}
@@ -0,0 +1,81 @@
+package com.image.imageapp.benchmarks;
+
+import com.image.imageapp.ArgbRaster;
+import com.image.imageapp.ImageOperation;
+import com.image.imageapp.OperationParser;
+import com.image.imageapp.Pipeline;
+import com.image.imageapp.ProcessingPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A chain of six tone operations, run as one pipeline, whose lookup tables are composed into a
+ * single pass, or as one pipeline per operation ({@code fused=false}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g", "--add-modules=jdk.incubator.vector"})
+public class ToneBenchmark {
+    private static final String CHAIN = "grayscale=709,gamma=2.2,levels=16:240,curves=0:0/128:150/255:255,brightness=-10,contrast=1.2";
+
+    @Param({"2048", "4096"})
+    public int size;
+
+    @Param({"1", "0"})
+    public int threads;
+
+    @Param({"true", "false"})
+    public boolean fused;
+
+    private ArgbRaster source;
+    private ProcessingPool pool;
+    private List<Pipeline> pipelines;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = BenchmarkImages.synthetic(size);
+        pool = new ProcessingPool(BenchmarkImages.parallelism(threads));
+        Pipeline chain = OperationParser.parse(CHAIN);
+        pipelines = new ArrayList<>();
+        if (fused) {
+            pipelines.add(chain);
+        } else {
+            for (ImageOperation stage : chain.getStages()) {
+                pipelines.add(new Pipeline(List.of(stage)));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public ArgbRaster tones(Megapixels counter) {
+        counter.add((long) source.getWidth() * source.getHeight());
+        ArgbRaster current = source;
+        for (Pipeline pipeline : pipelines) {
+            current = pipeline.run(current, pool);
+        }
+        return current;
+    }
+}
@@ -1,22 +1,270 @@
 package com.image.imageapp;
 import java.io.*;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Asynchronous application log. {@link #log} only stores the record in a lock-free ring buffer;
+ * a single writer thread formats the records and appends them in batches to {@code app.txt}
+ * through one open channel. The file is rolled over when it exceeds {@link #MAX_FILE_SIZE} or
+ * when the day changes, keeping the last {@link #MAX_ROLLED_FILES} rolled files.
+ * {@link #shutdown()} writes out everything still queued.
+ */
 public class AppLogger {
-    private static final String LOG_FILE = "app.txt";
-    private static final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private static final Path LOG_FILE = Paths.get("app.txt");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final long MAX_FILE_SIZE = 5L * 1024 * 1024;
+    private static final int MAX_ROLLED_FILES = 10;
+    private static final int BATCH_SIZE = 512;
+    private static final long IDLE_NANOS = 200_000_000L;
 
     public enum Level { INFO, ERROR, ACTION }
 
-    public static synchronized void log(Level level, String message) {
-        try (FileWriter fw = new FileWriter(LOG_FILE, true);
-             BufferedWriter bw = new BufferedWriter(fw)) {
-            String time = sdf.format(new Date());
-            bw.write("[" + time + "] [" + level + "] " + message);
-            bw.newLine();
+    private record Entry(long timeMillis, Level level, String message) {
+    }
+
+    private static final RingBuffer QUEUE = new RingBuffer(1 << 13);
+    private static volatile boolean closing;
+    private static final Thread WRITER = new Thread(AppLogger::writeLoop, "app-logger");
+
+    static {
+        WRITER.setDaemon(true);
+        WRITER.start();
+    }
+
+    public static void log(Level level, String message) {
+        Entry entry = new Entry(System.currentTimeMillis(), level, message);
+        while (!closing) {
+            if (QUEUE.offer(entry)) {
+                LockSupport.unpark(WRITER);
+                if (closing) {
+                    drainAfterShutdown();
+                }
+                return;
+            }
+            LockSupport.unpark(WRITER);
+            Thread.yield();
+        }
+        writeDirectly(entry);
+    }
+
+    public static void shutdown() {
+        closing = true;
+        LockSupport.unpark(WRITER);
+        drainAfterShutdown();
+    }
+
+    private static void drainAfterShutdown() {
+        try {
+            WRITER.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (WRITER.isAlive()) {
+            return;
+        }
+        synchronized (AppLogger.class) {
+            Entry entry;
+            while ((entry = QUEUE.poll()) != null) {
+                writeDirectly(entry);
+            }
+        }
+    }
+
+    private static synchronized void writeDirectly(Entry entry) {
+        StringBuilder line = new StringBuilder();
+        format(entry, line);
+        try {
+            Files.writeString(LOG_FILE, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
         } catch (IOException e) {
             System.err.println("Failed to log message: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private static void writeLoop() {
+        LogFile file = new LogFile();
+        StringBuilder batch = new StringBuilder();
+        while (true) {
+            boolean stopping = closing;
+            int count = 0;
+            Entry entry;
+            while (count < BATCH_SIZE && (entry = QUEUE.poll()) != null) {
+                LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(entry.timeMillis()), ZONE);
+                if (!day.equals(file.day)) {
+                    file.write(batch);
+                    file.roll(day);
+                }
+                format(entry, batch);
+                count++;
+            }
+            if (count > 0) {
+                file.write(batch);
+            } else if (stopping) {
+                break;
+            } else {
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+        file.close();
+    }
+
+    private static void format(Entry entry, StringBuilder out) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.timeMillis()), ZONE);
+        out.append('[');
+        TIME_FORMAT.formatTo(time, out);
+        out.append("] [").append(entry.level()).append("] ").append(entry.message()).append(System.lineSeparator());
+    }
+
+    private static final class LogFile {
+        private FileChannel channel;
+        private LocalDate day;
+
+        LogFile() {
+            try {
+                if (Files.exists(LOG_FILE)) {
+                    day = LocalDate.ofInstant(Files.getLastModifiedTime(LOG_FILE).toInstant(), ZONE);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to log message: " + e.getMessage());
+            }
+        }
+
+        void write(StringBuilder batch) {
+            if (batch.length() == 0) {
+                return;
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+            batch.setLength(0);
+            try {
+                if (channel == null) {
+                    open();
+                }
+                if (channel.size() > 0 && channel.size() + bytes.remaining() > MAX_FILE_SIZE) {
+                    roll(day);
+                    open();
+                }
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to log message: " + e.getMessage());
+                close();
+            }
+        }
+
+        void roll(LocalDate nextDay) {
+            close();
+            try {
+                if (Files.exists(LOG_FILE) && Files.size(LOG_FILE) > 0) {
+                    LocalDate fileDay = day != null ? day : nextDay;
+                    int index = 1;
+                    Path target;
+                    do {
+                        target = LOG_FILE.resolveSibling("app-" + fileDay + "." + index++ + ".txt");
+                    } while (Files.exists(target));
+                    Files.move(LOG_FILE, target);
+                    deleteOldFiles();
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to log message: " + e.getMessage());
+            }
+            day = nextDay;
+        }
+
+        void close() {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to log message: " + e.getMessage());
+            }
+            channel = null;
+        }
+
+        private void open() throws IOException {
+            channel = FileChannel.open(LOG_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        private static void deleteOldFiles() throws IOException {
+            Path directory = LOG_FILE.toAbsolutePath().getParent();
+            List<Path> rolled = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "app-*.txt")) {
+                files.forEach(rolled::add);
+            }
+            if (rolled.size() <= MAX_ROLLED_FILES) {
+                return;
+            }
+            rolled.sort(Comparator.comparing(path -> path.toFile().lastModified()));
+            for (Path path : rolled.subList(0, rolled.size() - MAX_ROLLED_FILES)) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Bounded multi-producer, single-consumer queue. A producer claims a slot by advancing
+     * {@code tail} with a CAS and publishes the entry by bumping the slot's sequence number.
+     */
+    private static final class RingBuffer {
+        private final Entry[] slots;
+        private final AtomicLongArray sequences;
+        private final AtomicLong tail = new AtomicLong();
+        private final int mask;
+        private long head;
+
+        RingBuffer(int capacity) {
+            slots = new Entry[capacity];
+            sequences = new AtomicLongArray(capacity);
+            mask = capacity - 1;
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        boolean offer(Entry entry) {
+            while (true) {
+                long position = tail.get();
+                int index = (int) position & mask;
+                long difference = sequences.get(index) - position;
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        slots[index] = entry;
+                        sequences.set(index, position + 1);
+                        return true;
+                    }
+                } else if (difference < 0) {
+                    return false;
+                }
+            }
+        }
+
+        Entry poll() {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                return null;
+            }
+            Entry entry = slots[index];
+            slots[index] = null;
+            sequences.set(index, head + slots.length);
+            head++;
+            return entry;
+        }
+    }
+}
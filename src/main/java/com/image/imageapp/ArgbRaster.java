@@ -0,0 +1,51 @@
+package com.image.imageapp;
+
+public final class ArgbRaster {
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+
+    public ArgbRaster(int width, int height) {
+        this(width, height, new int[Math.multiplyExact(width, height)]);
+    }
+
+    public ArgbRaster(int width, int height, int[] pixels) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Nieprawidłowe wymiary rastra: " + width + "x" + height);
+        }
+        if (pixels.length != width * height) {
+            throw new IllegalArgumentException("Rozmiar bufora nie odpowiada wymiarom rastra.");
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    public int getArgb(int x, int y) {
+        return pixels[y * width + x];
+    }
+
+    public void setArgb(int x, int y, int argb) {
+        pixels[y * width + x] = argb;
+    }
+
+    public RasterWindow window() {
+        return new RasterWindow(pixels, new Tile(0, 0, width, height));
+    }
+
+    public ArgbRaster copy() {
+        return new ArgbRaster(width, height, pixels.clone());
+    }
+}
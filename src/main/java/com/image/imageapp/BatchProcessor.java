@@ -0,0 +1,235 @@
+package com.image.imageapp;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Headless batch mode started with {@code --batch}. Every file goes through
+ * {@link TiledProcessor}, whose decode, pixel and encode stages are already connected by small
+ * bounded buffers; several files are processed at once so that decoding and encoding, which are
+ * single-threaded per file, overlap with each other and with the pixel work on the shared pool.
+ * Nothing here touches the JavaFX toolkit.
+ */
+public final class BatchProcessor {
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Użycie: --batch --input <katalog|wzorzec> --output <katalog> --ops <operacje>",
+            "                [--quality 0.1-1.0] [--jobs N] [--overwrite]",
+            "  --input      katalog z plikami .jpg albo wzorzec, np. \"zdjecia/**/*.jpg\"",
+            "  --output     katalog na wyniki (nazwy plików i podkatalogi wzorca zostają zachowane)",
+            "  --ops        operacje wykonywane po kolei, oddzielone przecinkami:",
+            "               negative, threshold=N, contour, rotate=90|-90|180, flip=h|v,",
+            "               scale=SZEROKOŚĆxWYSOKOŚĆ[:nearest|box|bilinear|bicubic|lanczos3],",
+            "               sobel, prewitt, laplacian, sharpen, gauss=R, box=R, median=R,",
+            "               filtry z opcjonalnym :zero|clamp|reflect (np. median=2:clamp)",
+            "  --quality    jakość JPEG (domyślnie " + JpegWriter.DEFAULT_QUALITY + ")",
+            "  --jobs       liczba plików przetwarzanych jednocześnie",
+            "  --overwrite  nadpisuj istniejące pliki wynikowe");
+
+    private record Options(String input, Path output, Pipeline pipeline, float quality, int jobs, boolean overwrite) {
+    }
+
+    /** Input file and its path relative to the directory or glob base, which is kept under the output. */
+    record Input(Path path, Path relative) {
+    }
+
+    private BatchProcessor() {
+    }
+
+    /** Returns the process exit code: 0 on success, 1 if any file failed, 2 for invalid arguments. */
+    public static int run(String[] args) {
+        return run(args, System.out, System.err);
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        Options options;
+        List<Input> inputs;
+        try {
+            options = parse(args);
+            inputs = resolveInputs(options.input());
+            Files.createDirectories(options.output());
+        } catch (IllegalArgumentException | IOException e) {
+            err.println("Błąd: " + e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        if (inputs.isEmpty()) {
+            err.println("Nie znaleziono plików .jpg: " + options.input());
+            return 1;
+        }
+
+        out.println("Przetwarzanie " + inputs.size() + " plików potokiem: " + options.pipeline().describe());
+        AppLogger.log(AppLogger.Level.ACTION, "Tryb wsadowy: " + inputs.size() + " plików, potok: " + options.pipeline().describe());
+        long start = System.nanoTime();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService jobs = Executors.newFixedThreadPool(options.jobs(), runnable -> {
+            Thread thread = new Thread(runnable, "image-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> pending = new ArrayList<>();
+            for (Input input : inputs) {
+                pending.add(jobs.submit(() -> {
+                    if (!processFile(input, options, out, err)) {
+                        failures.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } catch (ExecutionException e) {
+            err.println("Błąd: " + e.getCause());
+            return 1;
+        } finally {
+            jobs.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        out.printf(Locale.ROOT, "Zakończono: %d plików, błędy: %d, czas: %.1f s%n",
+                inputs.size(), failures.get(), seconds);
+        AppLogger.log(AppLogger.Level.INFO, "Tryb wsadowy zakończony, błędy: " + failures.get());
+        return failures.get() == 0 ? 0 : 1;
+    }
+
+    private static boolean processFile(Input file, Options options, PrintStream out, PrintStream err) {
+        Path input = file.path();
+        Path target = options.output().resolve(file.relative());
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(target.getParent());
+            if (Files.exists(target)) {
+                if (Files.isSameFile(input, target)) {
+                    throw new IOException("plik wynikowy jest plikiem wejściowym");
+                }
+                if (!options.overwrite()) {
+                    throw new IOException("plik wynikowy już istnieje (użyj --overwrite)");
+                }
+            }
+            try {
+                TiledProcessor.process(input, target, options.pipeline(), ProcessingPool.shared(), options.quality(),
+                        ProgressListener.NONE);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(target);
+                throw e;
+            }
+            out.printf(Locale.ROOT, "OK    %s -> %s (%d ms)%n", input, target, (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            err.println("BŁĄD  " + input + ": " + e.getMessage());
+            AppLogger.log(AppLogger.Level.ERROR, "Tryb wsadowy — błąd przetwarzania " + input + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static Options parse(String[] args) {
+        String input = null;
+        Path output = null;
+        Pipeline pipeline = null;
+        float quality = JpegWriter.DEFAULT_QUALITY;
+        int jobs = Math.max(2, Runtime.getRuntime().availableProcessors());
+        boolean overwrite = false;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--input" -> input = value(args, ++i, arg);
+                case "--output" -> output = Paths.get(value(args, ++i, arg));
+                case "--ops" -> pipeline = OperationParser.parse(value(args, ++i, arg));
+                case "--quality" -> {
+                    quality = parseNumber(value(args, ++i, arg), arg);
+                    if (quality < 0.1f || quality > 1.0f) {
+                        throw new IllegalArgumentException("Jakość musi mieścić się w zakresie 0.1-1.0.");
+                    }
+                }
+                case "--jobs" -> {
+                    jobs = (int) parseNumber(value(args, ++i, arg), arg);
+                    if (jobs < 1) {
+                        throw new IllegalArgumentException("Liczba zadań musi być dodatnia.");
+                    }
+                }
+                case "--overwrite" -> overwrite = true;
+                default -> throw new IllegalArgumentException("Nieznany argument: " + arg);
+            }
+        }
+        if (input == null || output == null || pipeline == null) {
+            throw new IllegalArgumentException("Wymagane są --input, --output i --ops.");
+        }
+        return new Options(input, output, pipeline, quality, jobs, overwrite);
+    }
+
+    private static String value(String[] args, int index, String flag) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Brak wartości dla " + flag);
+        }
+        return args[index];
+    }
+
+    private static float parseNumber(String value, String flag) {
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nieprawidłowa wartość dla " + flag + ": " + value);
+        }
+    }
+
+    /**
+     * Files matched by {@code input}. A recursive glob ({@code **}) may match equal file names in
+     * different directories, so each file keeps its path below the glob base and two inputs never
+     * share a target.
+     */
+    static List<Input> resolveInputs(String input) throws IOException {
+        int glob = firstGlobCharacter(input);
+        if (glob < 0) {
+            Path path = Paths.get(input);
+            if (Files.isRegularFile(path)) {
+                return List.of(new Input(path, path.getFileName()));
+            }
+            if (!Files.isDirectory(path)) {
+                throw new IOException("Nie znaleziono: " + input);
+            }
+            try (Stream<Path> files = Files.list(path)) {
+                return files.filter(BatchProcessor::isJpeg).sorted().map(file -> new Input(file, file.getFileName())).toList();
+            }
+        }
+        int separator = Math.max(input.lastIndexOf('/', glob), input.lastIndexOf('\\', glob));
+        Path base = separator < 0 ? Paths.get("") : Paths.get(input.substring(0, separator + 1));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + input);
+        try (Stream<Path> files = Files.walk(base.toString().isEmpty() ? Paths.get(".") : base)) {
+            return files.map(path -> base.toString().isEmpty() ? Paths.get(".").relativize(path) : path)
+                    .filter(path -> matcher.matches(path) && Files.isRegularFile(path))
+                    .sorted()
+                    .map(path -> new Input(path, base.relativize(path)))
+                    .toList();
+        }
+    }
+
+    private static int firstGlobCharacter(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if ("*?[{".indexOf(input.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isJpeg(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return Files.isRegularFile(path) && (name.endsWith(".jpg") || name.endsWith(".jpeg"));
+    }
+}
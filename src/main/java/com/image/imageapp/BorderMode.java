@@ -0,0 +1,73 @@
+package com.image.imageapp;
+
+import java.util.Arrays;
+
+/**
+ * How filters see pixels outside the image. Every mode only needs pixels within the filter radius
+ * of the image edge, which the halo of a tile or band always contains.
+ */
+public enum BorderMode {
+    ZERO("Czarne tło"),
+    CLAMP("Powielenie krawędzi"),
+    REFLECT("Odbicie lustrzane");
+
+    private static final int OPAQUE_BLACK = 0xFF000000;
+
+    private final String label;
+
+    BorderMode(String label) {
+        this.label = label;
+    }
+
+    /** Coordinate used for {@code i} on an axis of {@code size} pixels, or -1 for black. */
+    public int map(int i, int size) {
+        if (i >= 0 && i < size) {
+            return i;
+        }
+        switch (this) {
+            case CLAMP:
+                return i < 0 ? 0 : size - 1;
+            case REFLECT: {
+                if (size == 1) {
+                    return 0;
+                }
+                int period = 2 * (size - 1);
+                int folded = Math.floorMod(i, period);
+                return folded < size ? folded : period - folded;
+            }
+            default:
+                return -1;
+        }
+    }
+
+    /** Reads pixels {@code [fromX, fromX + count)} of row {@code y} into {@code row}. */
+    public void readRow(RasterWindow in, int y, int fromX, int count, int imageWidth, int imageHeight, int[] row) {
+        int sourceY = map(y, imageHeight);
+        if (sourceY < 0) {
+            Arrays.fill(row, 0, count, OPAQUE_BLACK);
+            return;
+        }
+        int endX = fromX + count;
+        int start = Math.min(Math.max(fromX, 0), endX);
+        int end = Math.max(Math.min(endX, imageWidth), start);
+        if (start < end) {
+            System.arraycopy(in.pixels(), in.index(start, sourceY), row, start - fromX, end - start);
+        }
+        for (int x = fromX; x < start; x++) {
+            row[x - fromX] = pixel(in, x, sourceY, imageWidth);
+        }
+        for (int x = end; x < endX; x++) {
+            row[x - fromX] = pixel(in, x, sourceY, imageWidth);
+        }
+    }
+
+    private int pixel(RasterWindow in, int x, int y, int imageWidth) {
+        int sourceX = map(x, imageWidth);
+        return sourceX < 0 ? OPAQUE_BLACK : in.getArgb(sourceX, y);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,55 @@
+package com.image.imageapp;
+
+/**
+ * The rows {@code y + firstDy} to {@code y + lastDy} around an output row {@code y}, each read
+ * through a {@link BorderMode} over a fixed column range and optionally converted to brightness.
+ * Moving on to the next output row reads only the one new row.
+ */
+final class BorderedRows {
+    private final RasterWindow in;
+    private final BorderMode border;
+    private final int imageWidth;
+    private final int imageHeight;
+    private final int fromX;
+    private final int count;
+    private final int firstDy;
+    private final boolean brightness;
+    private final int[][] rows;
+    private int y = Integer.MIN_VALUE;
+
+    BorderedRows(RasterWindow in, BorderMode border, int imageWidth, int imageHeight, int fromX, int count,
+                 int firstDy, int lastDy, boolean brightness) {
+        this.in = in;
+        this.border = border;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.fromX = fromX;
+        this.count = count;
+        this.firstDy = firstDy;
+        this.brightness = brightness;
+        this.rows = new int[lastDy - firstDy + 1][count];
+    }
+
+    /** The rows for output row {@code y}; the arrays are reused by the next call. */
+    int[][] at(int y) {
+        if (y == this.y + 1) {
+            int[] recycled = rows[0];
+            System.arraycopy(rows, 1, rows, 0, rows.length - 1);
+            rows[rows.length - 1] = recycled;
+            read(y + firstDy + rows.length - 1, recycled);
+        } else if (y != this.y) {
+            for (int k = 0; k < rows.length; k++) {
+                read(y + firstDy + k, rows[k]);
+            }
+        }
+        this.y = y;
+        return rows;
+    }
+
+    private void read(int row, int[] dst) {
+        border.readRow(in, row, fromX, count, imageWidth, imageHeight, dst);
+        if (brightness) {
+            ImageKernels.kernels().brightness(dst, 0, dst, 0, count);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.image.imageapp;
+
+public record BoxFilterOperation(int radius, BorderMode border) implements NeighbourhoodOperation {
+
+    public BoxFilterOperation {
+        if (radius < 1) {
+            throw new IllegalArgumentException("Promień musi być dodatni.");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Rozmycie uśredniające (promień " + radius + ")";
+    }
+
+    @Override
+    public String getCategory() {
+        return "Rozmycie uśredniające";
+    }
+
+    @Override
+    public int getHalo() {
+        return radius;
+    }
+
+    @Override
+    public void apply(RasterWindow in, RasterWindow out, int imageWidth, int imageHeight) {
+        FilterKernels.box(in, out, imageWidth, imageHeight, radius, border);
+    }
+}
@@ -0,0 +1,30 @@
+package com.image.imageapp;
+
+/** Adds {@code brightness} to every channel after stretching it by {@code contrast} around mid-gray. */
+public record BrightnessContrastOperation(int brightness, double contrast) implements ToneOperation {
+    public static final double MAX_CONTRAST = 4;
+
+    public BrightnessContrastOperation {
+        if (brightness < -255 || brightness > 255) {
+            throw new IllegalArgumentException("Jasność musi mieścić się w zakresie -255-255: " + brightness);
+        }
+        if (!(contrast >= 0 && contrast <= MAX_CONTRAST)) {
+            throw new IllegalArgumentException("Kontrast musi mieścić się w zakresie 0-" + MAX_CONTRAST + ": " + contrast);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Jasność i kontrast (" + (brightness > 0 ? "+" : "") + brightness + ", x" + contrast + ")";
+    }
+
+    @Override
+    public String getCategory() {
+        return "Jasność i kontrast";
+    }
+
+    @Override
+    public ToneMap toneMap() {
+        return ToneMap.channels(i -> (int) Math.round((i - 127.5) * contrast + 127.5 + brightness));
+    }
+}
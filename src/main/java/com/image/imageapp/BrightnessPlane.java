@@ -0,0 +1,116 @@
+package com.image.imageapp;
+
+/**
+ * Brightness of every pixel stored as one byte, together with the brightness histogram. It is
+ * built once per image, so trying a new threshold costs one table lookup per pixel and the
+ * histogram view and the automatic (Otsu) threshold need no further pass over the image.
+ */
+public final class BrightnessPlane {
+    private final int width;
+    private final int height;
+    private final byte[] values;
+    private final int[] histogram;
+
+    private BrightnessPlane(int width, int height, byte[] values, int[] histogram) {
+        this.width = width;
+        this.height = height;
+        this.values = values;
+        this.histogram = histogram;
+    }
+
+    public static BrightnessPlane of(ArgbRaster source, TileExecutor executor) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int[] pixels = source.getPixels();
+        byte[] values = new byte[width * height];
+        int[] histogram = new int[256];
+        executor.forEachRows(height, width, (startY, endY) -> {
+            int[] local = new int[256];
+            ImageKernels.brightness(pixels, startY * width, values, startY * width, (endY - startY) * width, local);
+            synchronized (histogram) {
+                for (int i = 0; i < local.length; i++) {
+                    histogram[i] += local[i];
+                }
+            }
+        });
+        return new BrightnessPlane(width, height, values, histogram);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int[] getHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * Nearest-neighbour copy that fits into the given bounds, for previews. It keeps the
+     * histogram of the full image.
+     */
+    public BrightnessPlane scaled(int maxWidth, int maxHeight) {
+        if (width <= maxWidth && height <= maxHeight) {
+            return this;
+        }
+        double factor = Math.min((double) maxWidth / width, (double) maxHeight / height);
+        int scaledWidth = Math.max(1, (int) Math.round(width * factor));
+        int scaledHeight = Math.max(1, (int) Math.round(height * factor));
+        byte[] scaled = new byte[scaledWidth * scaledHeight];
+        for (int y = 0; y < scaledHeight; y++) {
+            int row = (int) ((long) y * height / scaledHeight) * width;
+            for (int x = 0; x < scaledWidth; x++) {
+                scaled[y * scaledWidth + x] = values[row + (int) ((long) x * width / scaledWidth)];
+            }
+        }
+        return new BrightnessPlane(scaledWidth, scaledHeight, scaled, histogram);
+    }
+
+    /** Writes the result of {@link ThresholdOperation} with this threshold into {@code out}. */
+    public void threshold(int threshold, int[] out, TileExecutor executor) {
+        int[] table = ImageKernels.thresholdTable(threshold);
+        executor.forEachRows(height, width, (startY, endY) ->
+                ImageKernels.lookup(values, startY * width, table, out, startY * width, (endY - startY) * width));
+    }
+
+    public ArgbRaster threshold(int threshold, TileExecutor executor) {
+        ArgbRaster result = new ArgbRaster(width, height);
+        threshold(threshold, result.getPixels(), executor);
+        return result;
+    }
+
+    /** Threshold that maximises the between-class variance of the histogram (Otsu's method). */
+    public int otsuThreshold() {
+        long total = 0;
+        double sum = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            total += histogram[i];
+            sum += (double) i * histogram[i];
+        }
+        long background = 0;
+        double backgroundSum = 0;
+        double best = -1;
+        int threshold = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            background += histogram[i];
+            if (background == 0) {
+                continue;
+            }
+            long foreground = total - background;
+            if (foreground == 0) {
+                break;
+            }
+            backgroundSum += (double) i * histogram[i];
+            double difference = backgroundSum / background - (sum - backgroundSum) / foreground;
+            double variance = (double) background * foreground * difference * difference;
+            if (variance > best) {
+                best = variance;
+                threshold = i + 1;
+            }
+        }
+        return threshold;
+    }
+}
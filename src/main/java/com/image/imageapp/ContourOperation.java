@@ -0,0 +1,24 @@
+package com.image.imageapp;
+
+/**
+ * Konturowanie: sum of the absolute brightness differences to the right and lower neighbour,
+ * with black outside the image.
+ */
+public record ContourOperation() implements NeighbourhoodOperation {
+    private static final EdgeOperation EDGES = new EdgeOperation(EdgeDetector.FORWARD_DIFFERENCE, BorderMode.ZERO);
+
+    @Override
+    public String getName() {
+        return "Konturowanie";
+    }
+
+    @Override
+    public int getHalo() {
+        return EDGES.getHalo();
+    }
+
+    @Override
+    public void apply(RasterWindow in, RasterWindow out, int imageWidth, int imageHeight) {
+        EDGES.apply(in, out, imageWidth, imageHeight);
+    }
+}
@@ -0,0 +1,164 @@
+package com.image.imageapp;
+
+import java.util.Arrays;
+
+/**
+ * Square integer kernel of radius {@code r}, applied as {@code sum(weight * pixel) / divisor}
+ * with rounding. A separable kernel also keeps its horizontal and vertical factors and is applied
+ * as two 1-D passes.
+ */
+public final class ConvolutionKernel {
+    public static final ConvolutionKernel FORWARD_X = of("Różnica w poziomie", 1, 0, 0, 0, 0, 1, -1, 0, 0, 0);
+    public static final ConvolutionKernel FORWARD_Y = of("Różnica w pionie", 1, 0, 0, 0, 0, 1, 0, 0, -1, 0);
+    public static final ConvolutionKernel SOBEL_X = of("Sobel X", 1, -1, 0, 1, -2, 0, 2, -1, 0, 1);
+    public static final ConvolutionKernel SOBEL_Y = of("Sobel Y", 1, -1, -2, -1, 0, 0, 0, 1, 2, 1);
+    public static final ConvolutionKernel PREWITT_X = of("Prewitt X", 1, -1, 0, 1, -1, 0, 1, -1, 0, 1);
+    public static final ConvolutionKernel PREWITT_Y = of("Prewitt Y", 1, -1, -1, -1, 0, 0, 0, 1, 1, 1);
+    public static final ConvolutionKernel LAPLACIAN = of("Laplasjan", 1, 0, 1, 0, 1, -4, 1, 0, 1, 0);
+    public static final ConvolutionKernel SHARPEN = of("Wyostrzanie", 1, 0, -1, 0, -1, 5, -1, 0, -1, 0);
+
+    private static final int GAUSSIAN_SCALE = 256;
+
+    private final String name;
+    private final int radius;
+    private final int divisor;
+    private final int[] weights;
+    private final int[] horizontal;
+    private final int[] vertical;
+    private final int[] tapX;
+    private final int[] tapY;
+    private final int[] tapWeights;
+
+    private ConvolutionKernel(String name, int radius, int divisor, int[] weights, int[] horizontal, int[] vertical) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Dzielnik maski musi być dodatni.");
+        }
+        this.name = name;
+        this.radius = radius;
+        this.divisor = divisor;
+        this.weights = weights;
+        this.horizontal = horizontal;
+        this.vertical = vertical;
+        int taps = 0;
+        for (int weight : weights) {
+            if (weight != 0) taps++;
+        }
+        int size = 2 * radius + 1;
+        tapX = new int[taps];
+        tapY = new int[taps];
+        tapWeights = new int[taps];
+        for (int i = 0, t = 0; i < weights.length; i++) {
+            if (weights[i] != 0) {
+                tapX[t] = i % size - radius;
+                tapY[t] = i / size - radius;
+                tapWeights[t++] = weights[i];
+            }
+        }
+    }
+
+    /** Kernel given row by row; the number of weights must be the square of an odd number. */
+    public static ConvolutionKernel of(String name, int divisor, int... weights) {
+        int size = (int) Math.round(Math.sqrt(weights.length));
+        if (size * size != weights.length || size % 2 == 0) {
+            throw new IllegalArgumentException("Maska musi być kwadratowa o nieparzystym boku: " + name);
+        }
+        return new ConvolutionKernel(name, size / 2, divisor, weights.clone(), null, null);
+    }
+
+    public static ConvolutionKernel separable(String name, int divisor, int[] horizontal, int[] vertical) {
+        if (horizontal.length != vertical.length || horizontal.length % 2 == 0) {
+            throw new IllegalArgumentException("Wektory maski muszą mieć tę samą nieparzystą długość: " + name);
+        }
+        int size = horizontal.length;
+        int[] weights = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                weights[y * size + x] = vertical[y] * horizontal[x];
+            }
+        }
+        return new ConvolutionKernel(name, size / 2, divisor, weights, horizontal.clone(), vertical.clone());
+    }
+
+    /** Separable Gaussian of the given radius with {@code sigma = radius / 3}. */
+    public static ConvolutionKernel gaussian(int radius) {
+        if (radius < 1) {
+            throw new IllegalArgumentException("Promień musi być dodatni.");
+        }
+        double sigma = radius / 3.0;
+        double[] exact = new double[2 * radius + 1];
+        double sum = 0;
+        for (int i = -radius; i <= radius; i++) {
+            exact[i + radius] = Math.exp(-(i * i) / (2 * sigma * sigma));
+            sum += exact[i + radius];
+        }
+        int[] factor = new int[exact.length];
+        int total = 0;
+        for (int i = 0; i < exact.length; i++) {
+            factor[i] = (int) Math.round(exact[i] / sum * GAUSSIAN_SCALE);
+            total += factor[i];
+        }
+        factor[radius] += GAUSSIAN_SCALE - total;
+        return separable("Rozmycie Gaussa (promień " + radius + ")", GAUSSIAN_SCALE * GAUSSIAN_SCALE, factor, factor);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public int getDivisor() {
+        return divisor;
+    }
+
+    public int getWeight(int dx, int dy) {
+        return weights[(dy + radius) * (2 * radius + 1) + dx + radius];
+    }
+
+    public boolean isSeparable() {
+        return horizontal != null;
+    }
+
+    int[] horizontal() {
+        return horizontal;
+    }
+
+    int[] vertical() {
+        return vertical;
+    }
+
+    int[] tapX() {
+        return tapX;
+    }
+
+    int[] tapY() {
+        return tapY;
+    }
+
+    int[] tapWeights() {
+        return tapWeights;
+    }
+
+    int minDx() {
+        return Arrays.stream(tapX).min().orElse(0);
+    }
+
+    int maxDx() {
+        return Arrays.stream(tapX).max().orElse(0);
+    }
+
+    int minDy() {
+        return Arrays.stream(tapY).min().orElse(0);
+    }
+
+    int maxDy() {
+        return Arrays.stream(tapY).max().orElse(0);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
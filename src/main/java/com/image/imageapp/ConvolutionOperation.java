@@ -0,0 +1,19 @@
+package com.image.imageapp;
+
+public record ConvolutionOperation(ConvolutionKernel kernel, BorderMode border) implements NeighbourhoodOperation {
+
+    @Override
+    public String getName() {
+        return kernel.getName();
+    }
+
+    @Override
+    public int getHalo() {
+        return kernel.getRadius();
+    }
+
+    @Override
+    public void apply(RasterWindow in, RasterWindow out, int imageWidth, int imageHeight) {
+        FilterKernels.convolve(in, out, imageWidth, imageHeight, kernel, border);
+    }
+}
@@ -0,0 +1,130 @@
+package com.image.imageapp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Krzywe: tone curve through the given points for one channel or all of them. The curve is a
+ * monotone cubic (Fritsch-Carlson), so it never overshoots between points that rise or fall
+ * steadily; inputs outside the first and last point keep their outputs.
+ */
+public record CurvesOperation(Channel channel, List<Point> points) implements ToneOperation {
+
+    public enum Channel {
+        RGB("RGB"), RED("R"), GREEN("G"), BLUE("B");
+
+        private final String label;
+
+        Channel(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    public record Point(int input, int output) {
+
+        public Point {
+            if (input < 0 || input > 255 || output < 0 || output > 255) {
+                throw new IllegalArgumentException("Punkty krzywej muszą mieścić się w zakresie 0-255: " + input + ":" + output);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return input + ":" + output;
+        }
+    }
+
+    public CurvesOperation {
+        points = List.copyOf(points);
+        if (points.size() < 2) {
+            throw new IllegalArgumentException("Krzywa wymaga co najmniej dwóch punktów.");
+        }
+        for (int i = 1; i < points.size(); i++) {
+            if (points.get(i).input() <= points.get(i - 1).input()) {
+                throw new IllegalArgumentException("Punkty krzywej muszą mieć rosnące wartości wejściowe: " + points);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        List<String> values = new ArrayList<>();
+        for (Point point : points) {
+            values.add(point.toString());
+        }
+        return "Krzywe " + channel + " (" + String.join("/", values) + ")";
+    }
+
+    @Override
+    public String getCategory() {
+        return "Krzywe";
+    }
+
+    @Override
+    public ToneMap toneMap() {
+        int[] curve = curve();
+        int[] identity = ToneMap.table(i -> i);
+        return ToneMap.channels(channel == Channel.RGB || channel == Channel.RED ? curve : identity,
+                channel == Channel.RGB || channel == Channel.GREEN ? curve : identity,
+                channel == Channel.RGB || channel == Channel.BLUE ? curve : identity);
+    }
+
+    /** Output of the curve for every input value. */
+    int[] curve() {
+        int n = points.size();
+        double[] slopes = new double[n - 1];
+        for (int k = 0; k < n - 1; k++) {
+            slopes[k] = (double) (points.get(k + 1).output() - points.get(k).output())
+                    / (points.get(k + 1).input() - points.get(k).input());
+        }
+        double[] tangents = new double[n];
+        tangents[0] = slopes[0];
+        tangents[n - 1] = slopes[n - 2];
+        for (int k = 1; k < n - 1; k++) {
+            tangents[k] = slopes[k - 1] * slopes[k] <= 0 ? 0 : (slopes[k - 1] + slopes[k]) / 2;
+        }
+        for (int k = 0; k < n - 1; k++) {
+            if (slopes[k] == 0) {
+                tangents[k] = 0;
+                tangents[k + 1] = 0;
+                continue;
+            }
+            double a = tangents[k] / slopes[k];
+            double b = tangents[k + 1] / slopes[k];
+            double length = a * a + b * b;
+            if (length > 9) {
+                double scale = 3 / Math.sqrt(length);
+                tangents[k] = scale * a * slopes[k];
+                tangents[k + 1] = scale * b * slopes[k];
+            }
+        }
+        Point first = points.get(0);
+        Point last = points.get(n - 1);
+        int[] table = new int[256];
+        int k = 0;
+        for (int x = 0; x < table.length; x++) {
+            if (x <= first.input()) {
+                table[x] = first.output();
+            } else if (x >= last.input()) {
+                table[x] = last.output();
+            } else {
+                while (x > points.get(k + 1).input()) k++;
+                Point from = points.get(k);
+                Point to = points.get(k + 1);
+                double h = to.input() - from.input();
+                double t = (x - from.input()) / h;
+                double t2 = t * t;
+                double t3 = t2 * t;
+                double y = (2 * t3 - 3 * t2 + 1) * from.output() + (t3 - 2 * t2 + t) * h * tangents[k]
+                        + (-2 * t3 + 3 * t2) * to.output() + (t3 - t2) * h * tangents[k + 1];
+                table[x] = (int) Math.round(y);
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,36 @@
+package com.image.imageapp;
+
+public enum EdgeDetector {
+    FORWARD_DIFFERENCE("Różnica w przód", ConvolutionKernel.FORWARD_X, ConvolutionKernel.FORWARD_Y),
+    SOBEL("Sobel", ConvolutionKernel.SOBEL_X, ConvolutionKernel.SOBEL_Y),
+    PREWITT("Prewitt", ConvolutionKernel.PREWITT_X, ConvolutionKernel.PREWITT_Y),
+    LAPLACIAN("Laplasjan", ConvolutionKernel.LAPLACIAN, null);
+
+    private final String label;
+    private final ConvolutionKernel horizontal;
+    private final ConvolutionKernel vertical;
+
+    EdgeDetector(String label, ConvolutionKernel horizontal, ConvolutionKernel vertical) {
+        this.label = label;
+        this.horizontal = horizontal;
+        this.vertical = vertical;
+    }
+
+    public ConvolutionKernel getHorizontal() {
+        return horizontal;
+    }
+
+    /** {@code null} for detectors with a single, isotropic kernel. */
+    public ConvolutionKernel getVertical() {
+        return vertical;
+    }
+
+    public int getRadius() {
+        return vertical == null ? horizontal.getRadius() : Math.max(horizontal.getRadius(), vertical.getRadius());
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,19 @@
+package com.image.imageapp;
+
+public record EdgeOperation(EdgeDetector detector, BorderMode border) implements NeighbourhoodOperation {
+
+    @Override
+    public String getName() {
+        return "Wykrywanie krawędzi: " + detector;
+    }
+
+    @Override
+    public int getHalo() {
+        return detector.getRadius();
+    }
+
+    @Override
+    public void apply(RasterWindow in, RasterWindow out, int imageWidth, int imageHeight) {
+        FilterKernels.edges(in, out, imageWidth, imageHeight, detector.getHorizontal(), detector.getVertical(), border);
+    }
+}
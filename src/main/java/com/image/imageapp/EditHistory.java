@@ -0,0 +1,258 @@
+package com.image.imageapp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Undo/redo history of the edited image. Orientation steps and pipelines made only of
+ * {@link InvertibleOperation}s whose inverse runs in place keep no pixels: they are undone by
+ * applying the inverse. Other steps, including transposes of non-square images, keep a
+ * {@link Snapshot} of their input; redo always replays the pipeline. While snapshots exceed the
+ * heap budget, the oldest one still on the heap is packed, or spilled if already packed, on a
+ * background thread. The snapshot of the step that would be undone next is kept on, or loaded
+ * back to, the heap, so that undo usually copies nothing.
+ */
+public final class EditHistory {
+    private static final int MAX_STEPS = 50;
+
+    public sealed interface Step permits OrientationStep, PixelStep, RegionStep {
+        String description();
+    }
+
+    public record OrientationStep(Orientation orientation, String description) implements Step {
+    }
+
+    public static final class PixelStep implements Step {
+        private final Pipeline pipeline;
+        private final String description;
+        private final Snapshot before;
+
+        private PixelStep(Pipeline pipeline, String description, Snapshot before) {
+            this.pipeline = pipeline;
+            this.description = description;
+            this.before = before;
+        }
+
+        @Override
+        public String description() {
+            return description;
+        }
+
+        /**
+         * Input of this step. {@code current} supplies a disposable copy of the step's output and is
+         * only used when there is no snapshot; the result must not be modified.
+         */
+        public ArgbRaster undo(Supplier<ArgbRaster> current, TileExecutor executor) throws IOException {
+            if (before != null) {
+                return before.restore(executor);
+            }
+            return pipeline.inverse().runInPlace(current.get(), executor);
+        }
+
+        /** Replays the step on {@code current}, which may be overwritten. */
+        public ArgbRaster redo(ArgbRaster current, TileExecutor executor) {
+            return pipeline.runInPlace(current, executor);
+        }
+    }
+
+    /**
+     * Pipeline applied to a region only. Its snapshot holds the pixels the region had before, so
+     * it is as large as the region rather than the image.
+     */
+    public static final class RegionStep implements Step {
+        private final Pipeline pipeline;
+        private final Tile region;
+        private final String description;
+        private final Snapshot before;
+
+        private RegionStep(Pipeline pipeline, Tile region, String description, Snapshot before) {
+            this.pipeline = pipeline;
+            this.region = region;
+            this.description = description;
+            this.before = before;
+        }
+
+        @Override
+        public String description() {
+            return description;
+        }
+
+        public Tile region() {
+            return region;
+        }
+
+        public TiledRaster undo(TiledRaster current, TileExecutor executor) throws IOException {
+            if (before != null) {
+                return current.with(region, before.restore(executor));
+            }
+            return pipeline.inverse().runRegion(current, region, executor);
+        }
+
+        public TiledRaster redo(TiledRaster current, TileExecutor executor) {
+            return pipeline.runRegion(current, region, executor);
+        }
+    }
+
+    private final long budgetBytes;
+    private final List<Step> steps = new ArrayList<>();
+    private final Executor compactor;
+    private int position;
+
+    public EditHistory(long budgetBytes) {
+        this(budgetBytes, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-history");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }));
+    }
+
+    /** {@code compactor} runs the packing and spilling of snapshots that exceed the budget. */
+    EditHistory(long budgetBytes, Executor compactor) {
+        this.budgetBytes = budgetBytes;
+        this.compactor = compactor;
+    }
+
+    public synchronized void addOrientation(Orientation orientation, String description) {
+        add(new OrientationStep(orientation, description));
+    }
+
+    /**
+     * Records a pipeline run. {@code input} is the raster the pipeline was applied to; it is kept
+     * only when the pipeline cannot be inverted in place, and must not be modified afterwards.
+     */
+    public synchronized void addPipeline(Pipeline pipeline, String description, ArgbRaster input) {
+        boolean replay = pipeline.isInvertibleInPlace(input.getWidth(), input.getHeight());
+        add(new PixelStep(pipeline, description, replay ? null : new Snapshot(input)));
+    }
+
+    /** Records a pipeline run on {@code region}; {@code before} holds the region's previous pixels. */
+    public synchronized void addRegion(Pipeline pipeline, Tile region, String description, ArgbRaster before) {
+        boolean replay = pipeline.isInvertibleInPlace(region.width(), region.height());
+        add(new RegionStep(pipeline, region, description, replay ? null : new Snapshot(before)));
+    }
+
+    public synchronized Step peekUndo() {
+        return position > 0 ? steps.get(position - 1) : null;
+    }
+
+    public synchronized Step peekRedo() {
+        return position < steps.size() ? steps.get(position) : null;
+    }
+
+    public synchronized void undone(Step step) {
+        if (peekUndo() == step) {
+            position--;
+            compactor.execute(this::compact);
+        }
+    }
+
+    public synchronized void redone(Step step) {
+        if (peekRedo() == step) {
+            position++;
+            compactor.execute(this::compact);
+        }
+    }
+
+    public synchronized void clear() {
+        for (Step step : steps) {
+            release(step);
+        }
+        steps.clear();
+        position = 0;
+    }
+
+    private void add(Step step) {
+        while (steps.size() > position) {
+            release(steps.remove(steps.size() - 1));
+        }
+        steps.add(step);
+        position++;
+        if (steps.size() > MAX_STEPS) {
+            release(steps.remove(0));
+            position--;
+        }
+        compactor.execute(this::compact);
+    }
+
+    /** Heap taken by the snapshots of every step. */
+    long heapBytes() {
+        long heapBytes = 0;
+        for (Snapshot snapshot : snapshots()) {
+            heapBytes += snapshot.heapBytes();
+        }
+        return heapBytes;
+    }
+
+    /**
+     * Loads the snapshot of the step that would be undone next, then packs or spills the others
+     * until they fit the budget. The next snapshot stays on the heap even above the budget, so
+     * that undo does not wait for inflating or reading a whole image.
+     */
+    private void compact() {
+        Step step = peekUndo();
+        Snapshot next = step == null ? null : snapshot(step);
+        if (next != null) {
+            try {
+                next.load();
+            } catch (IOException e) {
+                AppLogger.log(AppLogger.Level.ERROR, "Nie udało się wczytać historii zmian: " + e.getMessage());
+            }
+        }
+        while (true) {
+            if (heapBytes() <= budgetBytes) {
+                return;
+            }
+            Snapshot victim = null;
+            for (Snapshot snapshot : snapshots()) {
+                if (snapshot != next && (snapshot.isRaw() || snapshot.isPacked())) {
+                    victim = snapshot;
+                    break;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            try {
+                if (victim.isRaw()) {
+                    victim.compact();
+                } else {
+                    victim.spill();
+                }
+            } catch (IOException e) {
+                AppLogger.log(AppLogger.Level.ERROR, "Nie udało się zapisać historii zmian: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private synchronized List<Snapshot> snapshots() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (Step step : steps) {
+            Snapshot snapshot = snapshot(step);
+            if (snapshot != null) {
+                snapshots.add(snapshot);
+            }
+        }
+        return snapshots;
+    }
+
+    private static void release(Step step) {
+        Snapshot snapshot = snapshot(step);
+        if (snapshot != null) {
+            snapshot.release();
+        }
+    }
+
+    private static Snapshot snapshot(Step step) {
+        return switch (step) {
+            case PixelStep pixel -> pixel.before;
+            case RegionStep region -> region.before;
+            case OrientationStep orientation -> null;
+        };
+    }
+}
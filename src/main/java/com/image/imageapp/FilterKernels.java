@@ -0,0 +1,363 @@
+package com.image.imageapp;
+
+import java.util.Arrays;
+
+/**
+ * Loops of the convolution filters. Each fills {@code out.bounds()} from {@code in}, which covers
+ * those bounds grown by the filter radius and clipped to the image; pixels outside the image come
+ * from the {@link BorderMode}. Colour filters work on the RGB channels and keep the alpha of the
+ * centre pixel; edge detectors work on brightness and produce grey.
+ */
+public final class FilterKernels {
+    private static final int OPAQUE_BLACK = 0xFF000000;
+
+    private FilterKernels() {
+    }
+
+    public static void convolve(RasterWindow in, RasterWindow out, int imageWidth, int imageHeight,
+                                ConvolutionKernel kernel, BorderMode border) {
+        if (kernel.isSeparable()) {
+            convolveSeparable(in, out, imageWidth, imageHeight, kernel, border);
+            return;
+        }
+        Tile bounds = out.bounds();
+        int width = bounds.width();
+        int radius = kernel.getRadius();
+        int divisor = kernel.getDivisor();
+        int[] tapX = kernel.tapX();
+        int[] tapY = kernel.tapY();
+        int[] tapWeights = kernel.tapWeights();
+        int[] pixels = out.pixels();
+        BorderedRows rows = new BorderedRows(in, border, imageWidth, imageHeight, bounds.x() - radius,
+                width + 2 * radius, -radius, radius, false);
+        for (int y = bounds.y(); y < bounds.endY(); y++) {
+            int[][] window = rows.at(y);
+            int outIndex = out.index(bounds.x(), y);
+            for (int x = 0; x < width; x++) {
+                int red = 0;
+                int green = 0;
+                int blue = 0;
+                for (int t = 0; t < tapWeights.length; t++) {
+                    int argb = window[tapY[t] + radius][x + radius + tapX[t]];
+                    int weight = tapWeights[t];
+                    red += weight * ((argb >> 16) & 0xFF);
+                    green += weight * ((argb >> 8) & 0xFF);
+                    blue += weight * (argb & 0xFF);
+                }
+                int alpha = window[radius][x + radius] & 0xFF000000;
+                pixels[outIndex + x] = alpha | (channel(red, divisor) << 16) | (channel(green, divisor) << 8)
+                        | channel(blue, divisor);
+            }
+        }
+    }
+
+    /**
+     * Horizontal sums of the {@code 2r + 1} rows around the output row are kept in a ring, so each
+     * input row is filtered horizontally once and the vertical pass reads only those sums.
+     */
+    private static void convolveSeparable(RasterWindow in, RasterWindow out, int imageWidth, int imageHeight,
+                                          ConvolutionKernel kernel, BorderMode border) {
+        Tile bounds = out.bounds();
+        int width = bounds.width();
+        int radius = kernel.getRadius();
+        int size = 2 * radius + 1;
+        int divisor = kernel.getDivisor();
+        int[] horizontal = kernel.horizontal();
+        int[] vertical = kernel.vertical();
+        int[] row = new int[width + 2 * radius];
+        int[][] sums = new int[size][width * 3];
+        int[][] ordered = new int[size][];
+        int[] pixels = out.pixels();
+        for (int k = 0; k < size; k++) {
+            filterRow(in, bounds.y() - radius + k, bounds.x() - radius, imageWidth, imageHeight, border, horizontal, row, sums[k]);
+        }
+        for (int y = bounds.y(); y < bounds.endY(); y++) {
+            int first = y - bounds.y();
+            if (first > 0) {
+                filterRow(in, y + radius, bounds.x() - radius, imageWidth, imageHeight, border, horizontal, row,
+                        sums[(first - 1) % size]);
+            }
+            for (int k = 0; k < size; k++) {
+                ordered[k] = sums[(first + k) % size];
+            }
+            int outIndex = out.index(bounds.x(), y);
+            for (int x = 0; x < width; x++) {
+                int red = 0;
+                int green = 0;
+                int blue = 0;
+                for (int k = 0; k < size; k++) {
+                    int[] sum = ordered[k];
+                    int weight = vertical[k];
+                    red += weight * sum[3 * x];
+                    green += weight * sum[3 * x + 1];
+                    blue += weight * sum[3 * x + 2];
+                }
+                int alpha = in.getArgb(bounds.x() + x, y) & 0xFF000000;
+                pixels[outIndex + x] = alpha | (channel(red, divisor) << 16) | (channel(green, divisor) << 8)
+                        | channel(blue, divisor);
+            }
+        }
+    }
+
+    private static void filterRow(RasterWindow in, int y, int fromX, int imageWidth, int imageHeight, BorderMode border,
+                                  int[] weights, int[] row, int[] sum) {
+        border.readRow(in, y, fromX, row.length, imageWidth, imageHeight, row);
+        int width = sum.length / 3;
+        for (int x = 0; x < width; x++) {
+            int red = 0;
+            int green = 0;
+            int blue = 0;
+            for (int k = 0; k < weights.length; k++) {
+                int argb = row[x + k];
+                red += weights[k] * ((argb >> 16) & 0xFF);
+                green += weights[k] * ((argb >> 8) & 0xFF);
+                blue += weights[k] * (argb & 0xFF);
+            }
+            sum[3 * x] = red;
+            sum[3 * x + 1] = green;
+            sum[3 * x + 2] = blue;
+        }
+    }
+
+    /**
+     * Gradient magnitude {@code min(255, |gx| + |gy|)} of the brightness, or {@code |g|} when
+     * {@code kernelY} is {@code null}. Forward differences go through {@link PixelKernels#gradient}.
+     */
+    public static void edges(RasterWindow in, RasterWindow out, int imageWidth, int imageHeight,
+                             ConvolutionKernel kernelX, ConvolutionKernel kernelY, BorderMode border) {
+        Tile bounds = out.bounds();
+        int width = bounds.width();
+        int minDx = kernelY == null ? kernelX.minDx() : Math.min(kernelX.minDx(), kernelY.minDx());
+        int maxDx = kernelY == null ? kernelX.maxDx() : Math.max(kernelX.maxDx(), kernelY.maxDx());
+        int minDy = kernelY == null ? kernelX.minDy() : Math.min(kernelX.minDy(), kernelY.minDy());
+        int maxDy = kernelY == null ? kernelX.maxDy() : Math.max(kernelX.maxDy(), kernelY.maxDy());
+        int[] pixels = out.pixels();
+        BorderedRows rows = new BorderedRows(in, border, imageWidth, imageHeight, bounds.x() + minDx,
+                width + maxDx - minDx, minDy, maxDy, true);
+        boolean forward = kernelX == ConvolutionKernel.FORWARD_X && kernelY == ConvolutionKernel.FORWARD_Y;
+        for (int y = bounds.y(); y < bounds.endY(); y++) {
+            int[][] window = rows.at(y);
+            int outIndex = out.index(bounds.x(), y);
+            if (forward) {
+                ImageKernels.kernels().gradient(window[0], window[1], pixels, outIndex, width);
+                continue;
+            }
+            for (int x = 0; x < width; x++) {
+                int edge = Math.abs(response(kernelX, window, x - minDx, -minDy));
+                if (kernelY != null) {
+                    edge += Math.abs(response(kernelY, window, x - minDx, -minDy));
+                }
+                pixels[outIndex + x] = OPAQUE_BLACK | (Math.min(255, edge) * 0x010101);
+            }
+        }
+    }
+
+    private static int response(ConvolutionKernel kernel, int[][] window, int column, int row) {
+        int[] tapX = kernel.tapX();
+        int[] tapY = kernel.tapY();
+        int[] tapWeights = kernel.tapWeights();
+        int sum = 0;
+        for (int t = 0; t < tapWeights.length; t++) {
+            sum += tapWeights[t] * window[row + tapY[t]][column + tapX[t]];
+        }
+        return Math.floorDiv(sum, kernel.getDivisor());
+    }
+
+    /**
+     * Mean of the {@code (2r + 1)²} neighbourhood in constant time per pixel: running sums along
+     * each row, and column sums updated by one row in and one row out per output row.
+     */
+    public static void box(RasterWindow in, RasterWindow out, int imageWidth, int imageHeight, int radius,
+                           BorderMode border) {
+        Tile bounds = out.bounds();
+        int width = bounds.width();
+        int size = 2 * radius + 1;
+        int area = size * size;
+        int[] row = new int[width + 2 * radius];
+        int[][] sums = new int[size][width * 3];
+        int[] columns = new int[width * 3];
+        int[] pixels = out.pixels();
+        for (int k = 0; k < size; k++) {
+            boxRow(in, bounds.y() - radius + k, bounds.x() - radius, imageWidth, imageHeight, border, radius, row, sums[k]);
+            add(columns, sums[k], 1);
+        }
+        for (int y = bounds.y(); y < bounds.endY(); y++) {
+            int first = y - bounds.y();
+            if (first > 0) {
+                int[] oldest = sums[(first - 1) % size];
+                add(columns, oldest, -1);
+                boxRow(in, y + radius, bounds.x() - radius, imageWidth, imageHeight, border, radius, row, oldest);
+                add(columns, oldest, 1);
+            }
+            int outIndex = out.index(bounds.x(), y);
+            for (int x = 0; x < width; x++) {
+                int alpha = in.getArgb(bounds.x() + x, y) & 0xFF000000;
+                int red = (columns[3 * x] + area / 2) / area;
+                int green = (columns[3 * x + 1] + area / 2) / area;
+                int blue = (columns[3 * x + 2] + area / 2) / area;
+                pixels[outIndex + x] = alpha | (red << 16) | (green << 8) | blue;
+            }
+        }
+    }
+
+    private static void boxRow(RasterWindow in, int y, int fromX, int imageWidth, int imageHeight, BorderMode border,
+                               int radius, int[] row, int[] sum) {
+        border.readRow(in, y, fromX, row.length, imageWidth, imageHeight, row);
+        int red = 0;
+        int green = 0;
+        int blue = 0;
+        for (int k = 0; k < 2 * radius + 1; k++) {
+            int argb = row[k];
+            red += (argb >> 16) & 0xFF;
+            green += (argb >> 8) & 0xFF;
+            blue += argb & 0xFF;
+        }
+        int width = sum.length / 3;
+        for (int x = 0; ; x++) {
+            sum[3 * x] = red;
+            sum[3 * x + 1] = green;
+            sum[3 * x + 2] = blue;
+            if (x + 1 == width) {
+                return;
+            }
+            int leaving = row[x];
+            int entering = row[x + 2 * radius + 1];
+            red += ((entering >> 16) & 0xFF) - ((leaving >> 16) & 0xFF);
+            green += ((entering >> 8) & 0xFF) - ((leaving >> 8) & 0xFF);
+            blue += (entering & 0xFF) - (leaving & 0xFF);
+        }
+    }
+
+    private static void add(int[] target, int[] values, int sign) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += sign * values[i];
+        }
+    }
+
+    /**
+     * Per-channel median of the {@code (2r + 1)²} neighbourhood with sliding histograms (Huang):
+     * moving one pixel right removes one column and adds one, and the median is tracked together
+     * with the number of values below it, so it moves only as far as the histogram changed.
+     */
+    public static void median(RasterWindow in, RasterWindow out, int imageWidth, int imageHeight, int radius,
+                              BorderMode border) {
+        if (radius == 1) {
+            median3x3(in, out, imageWidth, imageHeight, border);
+            return;
+        }
+        Tile bounds = out.bounds();
+        int width = bounds.width();
+        int size = 2 * radius + 1;
+        int half = size * size / 2;
+        int[] histogram = new int[3 * 256];
+        int[] median = new int[3];
+        int[] below = new int[3];
+        int[] pixels = out.pixels();
+        BorderedRows rows = new BorderedRows(in, border, imageWidth, imageHeight, bounds.x() - radius,
+                width + 2 * radius, -radius, radius, false);
+        for (int y = bounds.y(); y < bounds.endY(); y++) {
+            int[][] window = rows.at(y);
+            Arrays.fill(histogram, 0);
+            Arrays.fill(median, 0);
+            Arrays.fill(below, 0);
+            for (int column = 0; column < size; column++) {
+                updateColumn(window, column, 1, histogram, median, below);
+            }
+            int outIndex = out.index(bounds.x(), y);
+            for (int x = 0; x < width; x++) {
+                if (x > 0) {
+                    updateColumn(window, x - 1, -1, histogram, median, below);
+                    updateColumn(window, x + 2 * radius, 1, histogram, median, below);
+                }
+                for (int channel = 0; channel < 3; channel++) {
+                    seekMedian(histogram, channel, median, below, half);
+                }
+                int alpha = window[radius][x + radius] & 0xFF000000;
+                pixels[outIndex + x] = alpha | (median[0] << 16) | (median[1] << 8) | median[2];
+            }
+        }
+    }
+
+    /** The 3x3 case with a fixed network of 19 compare-exchanges per channel instead of histograms. */
+    private static void median3x3(RasterWindow in, RasterWindow out, int imageWidth, int imageHeight, BorderMode border) {
+        Tile bounds = out.bounds();
+        int width = bounds.width();
+        int[] pixels = out.pixels();
+        int[] v = new int[9];
+        BorderedRows rows = new BorderedRows(in, border, imageWidth, imageHeight, bounds.x() - 1, width + 2, -1, 1, false);
+        for (int y = bounds.y(); y < bounds.endY(); y++) {
+            int[][] window = rows.at(y);
+            int[] above = window[0];
+            int[] middle = window[1];
+            int[] below = window[2];
+            int outIndex = out.index(bounds.x(), y);
+            for (int x = 0; x < width; x++) {
+                int result = middle[x + 1] & 0xFF000000;
+                for (int shift = 16; shift >= 0; shift -= 8) {
+                    v[0] = (above[x] >> shift) & 0xFF;
+                    v[1] = (above[x + 1] >> shift) & 0xFF;
+                    v[2] = (above[x + 2] >> shift) & 0xFF;
+                    v[3] = (middle[x] >> shift) & 0xFF;
+                    v[4] = (middle[x + 1] >> shift) & 0xFF;
+                    v[5] = (middle[x + 2] >> shift) & 0xFF;
+                    v[6] = (below[x] >> shift) & 0xFF;
+                    v[7] = (below[x + 1] >> shift) & 0xFF;
+                    v[8] = (below[x + 2] >> shift) & 0xFF;
+                    result |= median9(v) << shift;
+                }
+                pixels[outIndex + x] = result;
+            }
+        }
+    }
+
+    private static int median9(int[] v) {
+        sort(v, 1, 2); sort(v, 4, 5); sort(v, 7, 8);
+        sort(v, 0, 1); sort(v, 3, 4); sort(v, 6, 7);
+        sort(v, 1, 2); sort(v, 4, 5); sort(v, 7, 8);
+        sort(v, 0, 3); sort(v, 5, 8); sort(v, 4, 7);
+        sort(v, 3, 6); sort(v, 1, 4); sort(v, 2, 5);
+        sort(v, 4, 7); sort(v, 4, 2); sort(v, 6, 4);
+        sort(v, 4, 2);
+        return v[4];
+    }
+
+    private static void sort(int[] v, int a, int b) {
+        int low = Math.min(v[a], v[b]);
+        int high = Math.max(v[a], v[b]);
+        v[a] = low;
+        v[b] = high;
+    }
+
+    private static void updateColumn(int[][] window, int column, int delta, int[] histogram, int[] median, int[] below) {
+        for (int[] row : window) {
+            int argb = row[column];
+            for (int channel = 0; channel < 3; channel++) {
+                int value = (argb >> (16 - 8 * channel)) & 0xFF;
+                histogram[channel * 256 + value] += delta;
+                if (value < median[channel]) {
+                    below[channel] += delta;
+                }
+            }
+        }
+    }
+
+    private static void seekMedian(int[] histogram, int channel, int[] median, int[] below, int half) {
+        int base = channel * 256;
+        int value = median[channel];
+        int count = below[channel];
+        while (count > half) {
+            value--;
+            count -= histogram[base + value];
+        }
+        while (count + histogram[base + value] <= half) {
+            count += histogram[base + value];
+            value++;
+        }
+        median[channel] = value;
+        below[channel] = count;
+    }
+
+    private static int channel(int sum, int divisor) {
+        return Math.min(255, Math.max(0, Math.floorDiv(sum + (divisor >> 1), divisor)));
+    }
+}
@@ -0,0 +1,58 @@
+package com.image.imageapp;
+
+/** Filters offered in the UI and by the batch CLI, with the keyword {@link OperationParser} accepts. */
+public enum FilterType {
+    SOBEL("Sobel", "sobel", false),
+    PREWITT("Prewitt", "prewitt", false),
+    LAPLACIAN("Laplasjan", "laplacian", false),
+    SHARPEN("Wyostrzanie", "sharpen", false),
+    GAUSSIAN("Rozmycie Gaussa", "gauss", true),
+    BOX("Rozmycie uśredniające", "box", true),
+    MEDIAN("Filtr medianowy", "median", true);
+
+    public static final int MAX_RADIUS = 25;
+
+    private final String label;
+    private final String keyword;
+    private final boolean hasRadius;
+
+    FilterType(String label, String keyword, boolean hasRadius) {
+        this.label = label;
+        this.keyword = keyword;
+        this.hasRadius = hasRadius;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public boolean hasRadius() {
+        return hasRadius;
+    }
+
+    public static FilterType fromKeyword(String keyword) {
+        for (FilterType type : values()) {
+            if (type.keyword.equals(keyword)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public ImageOperation create(int radius, BorderMode border) {
+        return switch (this) {
+            case SOBEL -> new EdgeOperation(EdgeDetector.SOBEL, border);
+            case PREWITT -> new EdgeOperation(EdgeDetector.PREWITT, border);
+            case LAPLACIAN -> new EdgeOperation(EdgeDetector.LAPLACIAN, border);
+            case SHARPEN -> new ConvolutionOperation(ConvolutionKernel.SHARPEN, border);
+            case GAUSSIAN -> new ConvolutionOperation(ConvolutionKernel.gaussian(radius), border);
+            case BOX -> new BoxFilterOperation(radius, border);
+            case MEDIAN -> new MedianFilterOperation(radius, border);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
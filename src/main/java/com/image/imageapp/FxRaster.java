@@ -0,0 +1,23 @@
+package com.image.imageapp;
+
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Bridge from {@link ArgbRaster} to JavaFX images. Pixels are moved with a single bulk call; the
+ * premultiplied format is the native one for {@link WritableImage} and equals straight ARGB for
+ * the opaque JPEGs the application loads.
+ */
+public final class FxRaster {
+
+    private FxRaster() {
+    }
+
+    public static WritableImage write(ArgbRaster raster) {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        WritableImage image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), raster.getPixels(), 0, width);
+        return image;
+    }
+}
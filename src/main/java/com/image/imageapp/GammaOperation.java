@@ -0,0 +1,28 @@
+package com.image.imageapp;
+
+/** Gamma correction; values above 1 brighten the midtones, values below 1 darken them. */
+public record GammaOperation(double gamma) implements ToneOperation {
+    public static final double MIN_GAMMA = 0.1;
+    public static final double MAX_GAMMA = 10;
+
+    public GammaOperation {
+        if (!(gamma >= MIN_GAMMA && gamma <= MAX_GAMMA)) {
+            throw new IllegalArgumentException("Współczynnik gamma musi mieścić się w zakresie " + MIN_GAMMA + "-" + MAX_GAMMA + ": " + gamma);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Korekcja gamma (" + gamma + ")";
+    }
+
+    @Override
+    public String getCategory() {
+        return "Korekcja gamma";
+    }
+
+    @Override
+    public ToneMap toneMap() {
+        return ToneMap.channels(i -> (int) Math.round(255 * Math.pow(i / 255.0, 1 / gamma)));
+    }
+}
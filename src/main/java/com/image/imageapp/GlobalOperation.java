@@ -0,0 +1,14 @@
+package com.image.imageapp;
+
+public interface GlobalOperation extends ImageOperation {
+
+    ArgbRaster apply(ArgbRaster source, TileExecutor executor);
+
+    /**
+     * Like {@link #apply} but allowed to overwrite {@code source}, which the caller no longer needs.
+     * May return {@code source} itself.
+     */
+    default ArgbRaster applyInPlace(ArgbRaster source, TileExecutor executor) {
+        return apply(source, executor);
+    }
+}
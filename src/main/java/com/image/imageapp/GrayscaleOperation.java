@@ -0,0 +1,42 @@
+package com.image.imageapp;
+
+public record GrayscaleOperation(Standard standard) implements ToneOperation {
+
+    /** Luma coefficients of the ITU-R recommendations, in 16-bit fixed point. */
+    public enum Standard {
+        BT601("BT.601", 19595, 38470, 7471),
+        BT709("BT.709", 13933, 46871, 4732);
+
+        private final String label;
+        private final int red;
+        private final int green;
+        private final int blue;
+
+        Standard(String label, int red, int green, int blue) {
+            this.label = label;
+            this.red = red;
+            this.green = green;
+            this.blue = blue;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Skala szarości (" + standard + ")";
+    }
+
+    @Override
+    public String getCategory() {
+        return "Skala szarości";
+    }
+
+    @Override
+    public ToneMap toneMap() {
+        return ToneMap.luminance(standard.red, standard.green, standard.blue);
+    }
+}
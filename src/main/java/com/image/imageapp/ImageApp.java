@@ -1,10 +1,17 @@
 package com.image.imageapp;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.*;
 import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
 import javafx.scene.image.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.MouseButton;
 import javafx.scene.layout.*;
 import javafx.scene.text.*;
 import javafx.stage.*;
@@ -12,29 +19,94 @@ import javafx.util.Duration;
 import javafx.animation.PauseTransition;
 import javafx.scene.paint.Color;
 import javafx.event.ActionEvent;
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.*;
 import java.nio.file.*;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class ImageApp extends Application {
     private Label toastMessage;
     private Label welcomeText;
-    private ImageView originalImage;
-    private Image loadedImage;
+    private TiledImageView originalImage;
     private boolean imageModified = false;
     private Button saveButton;
     private Button scaleButton;
     private Button rotateLeftButton;
     private Button rotateRightButton;
-    private Image originalLoadedImage;
+    private HBox orientationButtons;
+    private Orientation pendingOrientation = Orientation.IDENTITY;
+    private int originalWidth;
+    private int originalHeight;
     private ComboBox<String> operationComboBox;
     private Button executeOperationButton;
+    private HBox progressBox;
+    private ProgressBar progressBar;
+    private OperationTask<?> runningTask;
+    private OperationTask<?> refiningTask;
+    private Pipeline refiningPipeline;
+    private Preview preview;
+    private Brightness brightness;
+    private VBox pipelineBox;
+    private Label pipelineLabel;
+    private final List<ImageOperation> queuedOperations = new ArrayList<>();
+    private Label statsLabel;
+    private final EditHistory history = new EditHistory(Long.getLong("imageapp.history.budgetMb", 512) << 20);
+    private HBox historyButtons;
+    private Button undoButton;
+    private Button redoButton;
+    private HBox navigationButtons;
+    private final ImageRepository repository = new ImageRepository(Long.getLong("imageapp.cache.budgetMb", 384) << 20);
+    private Path currentPath;
+    private Path requestedPath;
+    private TiledRaster document;
+    private MipPyramid pyramid;
+    private Tile selection;
+    private Button clearSelectionButton;
+    private Point2D selectionStart;
+    private final List<OperationPlugin> operationPlugins = new ArrayList<>();
+
+    private record Edit(TiledRaster document, MipPyramid pyramid, ArgbRaster input) {
+    }
+
+    private record Preview(TiledRaster document, ArgbRaster proxy) {
+    }
+
+    private record Brightness(TiledRaster document, BrightnessPlane plane) {
+    }
+
+    private record Displayed(TiledRaster document, MipPyramid pyramid) {
+    }
+
+    private record BuiltInOperation(String name, String successMessage, String failureMessage,
+                                    OperationPlugin.Factory factory) implements OperationPlugin {
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getSuccessMessage() {
+            return successMessage;
+        }
+
+        @Override
+        public String getFailureMessage() {
+            return failureMessage;
+        }
+
+        @Override
+        public void create(Window owner, Use use, Consumer<ImageOperation> onAccept) {
+            factory.create(owner, use, onAccept);
+        }
+    }
+
+    private record RegionEdit(TiledRaster document, MipPyramid pyramid, Tile region, ArgbRaster previous) {
+    }
 
     @Override
     public void start(Stage primaryStage) {
@@ -69,7 +141,7 @@ public class ImageApp extends Application {
         saveButton = new Button("Zapisz obraz");
         saveButton.setDisable(true);
         saveButton.setOnAction(e -> {
-            if (loadedImage == null) {
+            if (document == null) {
                 showToast("Brak obrazu do zapisania");
                 AppLogger.log(AppLogger.Level.ERROR, "Brak obrazu do zapisania.");
                 return;
@@ -77,8 +149,13 @@ public class ImageApp extends Application {
             showSaveDialog(primaryStage);
         });
 
+        operationPlugins.addAll(builtInOperations());
+        operationPlugins.addAll(TonePlugins.all());
+        operationPlugins.addAll(OperationPlugin.discover());
         operationComboBox = new ComboBox<>();
-        operationComboBox.getItems().addAll("Negatyw", "Progowanie","Konturowanie");
+        for (OperationPlugin plugin : operationPlugins) {
+            operationComboBox.getItems().add(plugin.getName());
+        }
         operationComboBox.setPromptText("Wybierz operację");
         operationComboBox.setVisible(false);
         executeOperationButton = new Button("Wykonaj");
@@ -86,9 +163,37 @@ public class ImageApp extends Application {
 
         executeOperationButton.setOnAction(e -> executeSelectedOperation());
 
-        HBox operationBox = new HBox(10, operationComboBox, executeOperationButton);
+        clearSelectionButton = new Button("Usuń zaznaczenie");
+        clearSelectionButton.setVisible(false);
+        clearSelectionButton.setOnAction(e -> clearSelection());
+
+        HBox operationBox = new HBox(10, operationComboBox, executeOperationButton, clearSelectionButton);
         operationBox.setAlignment(Pos.CENTER);
 
+        ComboBox<String> pipelineComboBox = new ComboBox<>();
+        pipelineComboBox.getItems().addAll(operationComboBox.getItems());
+        pipelineComboBox.getItems().addAll("Obrót w lewo", "Obrót w prawo", "Obrót o 180°", "Odbicie poziome",
+                "Odbicie pionowe", "Skalowanie");
+        pipelineComboBox.setPromptText("Dodaj etap potoku");
+        Button addStageButton = new Button("Dodaj do potoku");
+        addStageButton.setOnAction(e -> addPipelineStage(pipelineComboBox.getValue()));
+        Button runPipelineButton = new Button("Wykonaj potok");
+        runPipelineButton.setOnAction(e -> executePipeline());
+        Button clearPipelineButton = new Button("Wyczyść potok");
+        clearPipelineButton.setOnAction(e -> {
+            queuedOperations.clear();
+            updatePipelineLabel();
+        });
+        Button tiledButton = new Button("Przetwórz duży plik");
+        tiledButton.setOnAction(e -> processLargeFile(primaryStage));
+        pipelineLabel = new Label();
+        HBox pipelineButtons = new HBox(10, pipelineComboBox, addStageButton, runPipelineButton, clearPipelineButton, tiledButton);
+        pipelineButtons.setAlignment(Pos.CENTER);
+        pipelineBox = new VBox(5, pipelineButtons, pipelineLabel);
+        pipelineBox.setAlignment(Pos.CENTER);
+        pipelineBox.setVisible(false);
+        updatePipelineLabel();
+
         rotateLeftButton = new Button();
         rotateRightButton = new Button();
 
@@ -110,25 +215,75 @@ public class ImageApp extends Application {
         rotateLeftButton.setOnAction(e -> rotateImage(-90));
         rotateRightButton.setOnAction(e -> rotateImage(90));
 
-        HBox rotationButtons = new HBox(10, rotateLeftButton, rotateRightButton);
+        Button rotate180Button = new Button("180°");
+        rotate180Button.setOnAction(e -> rotateImage(180));
+        Button flipHorizontalButton = new Button("Odbij poziomo");
+        flipHorizontalButton.setOnAction(e -> orientImage(Orientation.FLIP_HORIZONTAL, "Obraz odbity poziomo",
+                "Użytkownik wykonał operację: Odbicie poziome obrazu"));
+        Button flipVerticalButton = new Button("Odbij pionowo");
+        flipVerticalButton.setOnAction(e -> orientImage(Orientation.FLIP_VERTICAL, "Obraz odbity pionowo",
+                "Użytkownik wykonał operację: Odbicie pionowe obrazu"));
+        orientationButtons = new HBox(10, rotate180Button, flipHorizontalButton, flipVerticalButton);
+        orientationButtons.setVisible(false);
+
+        HBox rotationButtons = new HBox(10, rotateLeftButton, rotateRightButton, orientationButtons);
         rotationButtons.setAlignment(Pos.CENTER);
 
+        undoButton = new Button("Cofnij");
+        undoButton.setOnAction(e -> undo());
+        redoButton = new Button("Ponów");
+        redoButton.setOnAction(e -> redo());
+        historyButtons = new HBox(10, undoButton, redoButton);
+        historyButtons.setAlignment(Pos.CENTER);
+        historyButtons.setVisible(false);
+        updateHistoryButtons();
+
+        Button previousButton = new Button("Poprzedni obraz");
+        previousButton.setOnAction(e -> openSibling(-1));
+        Button nextButton = new Button("Następny obraz");
+        nextButton.setOnAction(e -> openSibling(1));
+        navigationButtons = new HBox(10, previousButton, nextButton);
+        navigationButtons.setAlignment(Pos.CENTER);
+        navigationButtons.setVisible(false);
+
         toastMessage = new Label("");
         toastMessage.setTextFill(Color.RED);
         toastMessage.setVisible(false);
 
-        originalImage = new ImageView();
-        originalImage.setFitWidth(250);
-        originalImage.setFitHeight(250);
-        originalImage.setPreserveRatio(true);
+        progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(250);
+        Button cancelTaskButton = new Button("Anuluj");
+        cancelTaskButton.setOnAction(e -> {
+            if (runningTask != null) runningTask.cancel();
+        });
+        progressBox = new HBox(10, progressBar, cancelTaskButton);
+        progressBox.setAlignment(Pos.CENTER);
+        progressBox.setVisible(false);
+
+        originalImage = new TiledImageView();
+        originalImage.setPrefSize(720, 420);
         originalImage.setStyle("-fx-border-color: black;");
+        originalImage.setOnMousePressed(e -> selectionStart = originalImage.imagePoint(e.getX(), e.getY()));
+        originalImage.setOnMouseDragged(e -> {
+            if (e.isPrimaryButtonDown()) updateSelection(originalImage.imagePoint(e.getX(), e.getY()));
+        });
+        originalImage.setOnMouseReleased(e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.isStillSincePress()) clearSelection();
+        });
 
         HBox imageBox = new HBox(originalImage);
         imageBox.setAlignment(Pos.CENTER);
 
-        centerBox.getChildren().addAll(welcomeText, imageBox, toastMessage, rotationButtons, loadButton, saveButton, scaleButton, operationBox);
+        centerBox.getChildren().addAll(welcomeText, imageBox, toastMessage, progressBox, rotationButtons, historyButtons, navigationButtons, loadButton, saveButton, scaleButton, operationBox, pipelineBox);
         root.setCenter(centerBox);
 
+        statsLabel = new Label();
+        statsLabel.setFont(Font.font("Monospaced", 11));
+        TitledPane statsPane = new TitledPane("Statystyki operacji", statsLabel);
+        statsPane.setExpanded(false);
+        root.setRight(statsPane);
+        updateStats();
+
         Label footer = new Label("Autor: Mateusz Andrzejewski");
         footer.setFont(Font.font("Arial", FontPosture.ITALIC, 12));
         footer.setAlignment(Pos.CENTER_RIGHT);
@@ -136,6 +291,8 @@ public class ImageApp extends Application {
         BorderPane.setAlignment(footer, Pos.CENTER_RIGHT);
 
         Scene scene = new Scene(root, 1200, 900);
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN), this::undo);
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN), this::redo);
         primaryStage.setScene(scene);
         primaryStage.show();
     }
@@ -143,44 +300,109 @@ public class ImageApp extends Application {
     private void loadImage(Stage stage) {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Wczytaj obraz");
+        if (currentPath != null && currentPath.getParent() != null) {
+            fileChooser.setInitialDirectory(currentPath.getParent().toFile());
+        }
         File selectedFile = fileChooser.showOpenDialog(stage);
 
         if (selectedFile != null) {
-            try {
-                if (!selectedFile.getName().toLowerCase().endsWith(".jpg")) {
-                    showToast("Niedozwolony format pliku");
-                    AppLogger.log(AppLogger.Level.ERROR, "Próba wczytania pliku o niedozwolonym formacie: " + selectedFile.getName());
-                    return;
-                }
-                Image image = new Image(new FileInputStream(selectedFile));
-                if (image.isError()) {
-                    showToast("Błąd ładowania obrazu: " + image.getException().getMessage());
-                    throw new IOException("Błąd ładowania");
-                }
-
-                originalImage.setImage(image);
-                loadedImage = image;
-                originalLoadedImage = image;
-                imageModified = false;
-
-                scaleButton.setVisible(true);
-                saveButton.setDisable(false);
-
-                rotateLeftButton.setVisible(true);
-                rotateRightButton.setVisible(true);
-                operationComboBox.setVisible(true);
-                executeOperationButton.setVisible(true);
-                welcomeText.setVisible(false);
-
+            if (!selectedFile.getName().toLowerCase().endsWith(".jpg")) {
+                showToast("Niedozwolony format pliku");
+                AppLogger.log(AppLogger.Level.ERROR, "Próba wczytania pliku o niedozwolonym formacie: " + selectedFile.getName());
+                return;
+            }
+            openImage(selectedFile.toPath().toAbsolutePath());
+        }
+    }
 
-                showToast("Pomyślnie załadowano plik");
-                AppLogger.log(AppLogger.Level.ACTION, "Wczytano obraz: " + selectedFile.getName());
+    private void openSibling(int step) {
+        if (currentPath == null) return;
+        try {
+            List<Path> files = ImageRepository.siblings(currentPath);
+            int index = files.indexOf(currentPath) + step;
+            if (index < 0 || index >= files.size()) {
+                showToast(step < 0 ? "To jest pierwszy obraz w katalogu." : "To jest ostatni obraz w katalogu.");
+                return;
+            }
+            openImage(files.get(index));
+        } catch (IOException e) {
+            showToast("Nie udało się odczytać katalogu.");
+            AppLogger.log(AppLogger.Level.ERROR, "Błąd odczytu katalogu: " + e.getMessage());
+        }
+    }
 
-            } catch (Exception e) {
+    /**
+     * A cached image is shown at once. Otherwise a large file first shows a subsampled thumbnail
+     * and the full decode replaces it; a newer request makes both results stale. The neighbouring
+     * files are prefetched meanwhile.
+     */
+    private void openImage(Path path) {
+        if (runningTask != null) {
+            showToast("Poczekaj na zakończenie bieżącej operacji.");
+            return;
+        }
+        requestedPath = path;
+        OperationProbe probe = new OperationProbe("Wczytanie");
+        probe.start();
+        if (repository.cached(path) == null) {
+            PreviewRenderer bounds = previewRenderer();
+            repository.thumbnail(path, bounds.getMaxWidth(), bounds.getMaxHeight()).thenAccept(thumbnail -> {
+                if (thumbnail == null) return;
+                Image image = FxRaster.write(thumbnail);
+                Platform.runLater(() -> {
+                    if (requestedPath == path) showPreview(image);
+                });
+            });
+        }
+        repository.load(path).thenApplyAsync(raster -> displayed(raster, ProcessingPool.shared()), ProcessingPool::runTask)
+                .whenComplete((decoded, error) -> Platform.runLater(() -> {
+            if (requestedPath != path) {
+                probe.finish(OperationProbe.Outcome.CANCELLED);
+                return;
+            }
+            requestedPath = null;
+            if (error != null) {
+                probe.finish(OperationProbe.Outcome.FAILED);
+                showCurrentImage();
                 showToast("Nie udało się załadować pliku");
-                AppLogger.log(AppLogger.Level.ERROR, "Błąd wczytywania obrazu: " + e.getMessage());
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                AppLogger.log(AppLogger.Level.ERROR, "Błąd wczytywania obrazu: " + cause.getMessage());
+                return;
             }
-        }
+            probe.setSize(decoded.document().getWidth(), decoded.document().getHeight());
+            probe.finish();
+            updateStats();
+            showLoadedImage(path, decoded);
+        }));
+        repository.prefetch(path);
+    }
+
+    private void showLoadedImage(Path path, Displayed decoded) {
+        currentPath = path;
+        selection = null;
+        originalWidth = decoded.document().getWidth();
+        originalHeight = decoded.document().getHeight();
+        imageModified = false;
+        pendingOrientation = Orientation.IDENTITY;
+        showImage(decoded.document(), decoded.pyramid());
+        history.clear();
+        updateHistoryButtons();
+
+        scaleButton.setVisible(true);
+        saveButton.setDisable(false);
+
+        rotateLeftButton.setVisible(true);
+        rotateRightButton.setVisible(true);
+        orientationButtons.setVisible(true);
+        historyButtons.setVisible(true);
+        navigationButtons.setVisible(true);
+        operationComboBox.setVisible(true);
+        executeOperationButton.setVisible(true);
+        pipelineBox.setVisible(true);
+        welcomeText.setVisible(false);
+
+        showToast("Pomyślnie załadowano plik");
+        AppLogger.log(AppLogger.Level.ACTION, "Wczytano obraz: " + path.getFileName());
     }
 
     private void showSaveDialog(Stage owner) {
@@ -193,11 +415,16 @@ public class ImageApp extends Application {
         warningLabel.setVisible(!imageModified);
 
         TextField nameField = new TextField();
-        nameField.setPromptText("Nazwa pliku (3-100 znaków)");
+        nameField.setPromptText("Nazwa pliku (" + SavedImageNames.MIN_LENGTH + "-" + SavedImageNames.MAX_LENGTH + " znaków)");
+
+        Label qualityLabel = new Label("Jakość JPEG:");
+        Slider qualitySlider = new Slider(0.1, 1.0, JpegWriter.DEFAULT_QUALITY);
+        qualitySlider.setShowTickLabels(true);
+        qualitySlider.setMajorTickUnit(0.1);
 
         Label errorLabel = new Label();
         errorLabel.setTextFill(Color.RED);
-        VBox content = new VBox(10, warningLabel, nameField, errorLabel);
+        VBox content = new VBox(10, warningLabel, nameField, qualityLabel, qualitySlider, errorLabel);
         dialog.getDialogPane().setContent(content);
 
         ButtonType saveButtonType = new ButtonType("Zapisz", ButtonBar.ButtonData.OK_DONE);
@@ -206,13 +433,14 @@ public class ImageApp extends Application {
         Button saveBtn = (Button) dialog.getDialogPane().lookupButton(saveButtonType);
         saveBtn.addEventFilter(ActionEvent.ACTION, event -> {
             String name = nameField.getText().trim();
-            if (name.length() < 3) {
-                errorLabel.setText("Wpisz co najmniej 3 znaki");
+            String error = SavedImageNames.check(name);
+            if (error != null) {
+                errorLabel.setText(error);
                 event.consume();
                 return;
             }
 
-            Path targetPath = Paths.get(System.getProperty("user.home"), "Pictures", name + ".jpg");
+            Path targetPath = SavedImageNames.target(SavedImageNames.picturesDirectory(), name);
             if (Files.exists(targetPath)) {
                 showToast("Plik " + name + ".jpg już istnieje. Podaj inną nazwę.");
                 AppLogger.log(AppLogger.Level.ERROR, "Próba zapisu pliku o istniejącej nazwie: " + name + ".jpg");
@@ -220,41 +448,300 @@ public class ImageApp extends Application {
                 return;
             }
 
-            try {
-
-                PixelReader reader = loadedImage.getPixelReader();
-                if (reader == null) {
-                    showToast("Nie można zapisać obrazu — brak danych pikseli.");
-                    AppLogger.log(AppLogger.Level.ERROR, "Brak danych pikseli do zapisu obrazu.");
-                    return;
-                }
-
-                int width = (int) loadedImage.getWidth();
-                int height = (int) loadedImage.getHeight();
-                BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-
-                for (int y = 0; y < height; y++) {
-                    for (int x = 0; x < width; x++) {
-                        Color fxColor = reader.getColor(x, y);
-                        int r = (int) (fxColor.getRed() * 255);
-                        int g = (int) (fxColor.getGreen() * 255);
-                        int b = (int) (fxColor.getBlue() * 255);
-                        int rgb = (r << 16) | (g << 8) | b;
-                        bufferedImage.setRGB(x, y, rgb);
-                    }
-                }
+            TiledRaster source = document;
+            Orientation orientation = pendingOrientation;
+            float quality = (float) qualitySlider.getValue();
+            OperationTask<Void> saveTask = new OperationTask<>(task -> {
+                ArgbRaster raster = new OrientOperation(orientation).applyInPlace(source.toRaster(), task);
+                task.checkCancelled();
+                JpegWriter.write(raster, targetPath, quality, task::reportProgress);
+                return null;
+            });
+            saveTask.measured(new OperationProbe("Zapis JPEG", source.getWidth(), source.getHeight()));
 
-                ImageIO.write(bufferedImage, "jpg", targetPath.toFile());
+            boolean started = startTask(saveTask, "Nie udało się zapisać pliku.", "Błąd zapisu obrazu: ", result -> {
                 showToast("Zapisano obraz jako " + name + ".jpg");
-                AppLogger.log(AppLogger.Level.ACTION, "Zapisano obraz jako: " + name + ".jpg");
-            } catch (IOException e) {
-                showToast("Nie udało się zapisać pliku.");
-                AppLogger.log(AppLogger.Level.ERROR, "Błąd zapisu obrazu: " + e.getMessage());
+                AppLogger.log(AppLogger.Level.ACTION, "Zapisano obraz jako: " + name + ".jpg (jakość " + Math.round(quality * 100) + "%)");
+            });
+            if (!started) {
+                event.consume();
             }
         });
         dialog.showAndWait();
     }
 
+    private <T> boolean startTask(OperationTask<T> task, String failureMessage, String errorLog, Consumer<T> onSuccess) {
+        if (requestedPath != null) {
+            showToast("Poczekaj na wczytanie obrazu.");
+            return false;
+        }
+        if (runningTask != null) {
+            showToast("Poczekaj na zakończenie bieżącej operacji.");
+            AppLogger.log(AppLogger.Level.ERROR, "Odrzucono operację — trwa wykonywanie innej operacji.");
+            return false;
+        }
+        runningTask = task;
+        progressBar.progressProperty().bind(task.progressProperty());
+        progressBox.setVisible(true);
+
+        task.setOnSucceeded(e -> {
+            if (runningTask != task) return;
+            finishTask();
+            onSuccess.accept(task.getValue());
+            updateStats();
+        });
+        task.setOnCancelled(e -> {
+            if (runningTask != task) return;
+            finishTask();
+            showCurrentImage();
+            showToast("Operacja została anulowana.");
+            AppLogger.log(AppLogger.Level.INFO, "Użytkownik anulował operację.");
+        });
+        task.setOnFailed(e -> {
+            if (runningTask != task) return;
+            finishTask();
+            showCurrentImage();
+            showToast(failureMessage);
+            AppLogger.log(AppLogger.Level.ERROR, errorLog + task.getException().getMessage());
+        });
+        ProcessingPool.runTask(task);
+        return true;
+    }
+
+    private void finishTask() {
+        runningTask = null;
+        refiningTask = null;
+        refiningPipeline = null;
+        progressBar.progressProperty().unbind();
+        progressBox.setVisible(false);
+    }
+
+    /**
+     * The result is first rendered on a proxy sized to the view and shown at once, then computed
+     * at full resolution in the background and swapped in. A newer run of the same operations,
+     * e.g. with another threshold, cancels a full-resolution pass that is still running and starts
+     * again from the same image. Any other operation is rejected until the pass has finished, so
+     * an edit whose preview is already on screen is never dropped. A lone threshold reuses the
+     * brightness plane the threshold dialog has already computed for this image.
+     */
+    private boolean runImageOperation(Pipeline pipeline, String successMessage, String actionLog,
+                                      String failureMessage, String errorLog) {
+        if (runningTask != null && runningTask == refiningTask && sameOperations(refiningPipeline, pipeline)) {
+            runningTask.cancel();
+            finishTask();
+            AppLogger.log(AppLogger.Level.INFO, "Przerwano nieaktualne przetwarzanie w pełnej rozdzielczości.");
+        }
+        TiledRaster source = document;
+        Orientation orientation = pendingOrientation;
+        PreviewRenderer renderer = previewRenderer();
+        Preview cached = preview != null && preview.document() == source ? preview : null;
+        List<ImageOperation> stages = pipeline.getStages();
+        BrightnessPlane plane = stages.size() == 1 && stages.get(0) instanceof ThresholdOperation
+                && brightness != null && brightness.document() == source ? brightness.plane() : null;
+        OperationTask<Edit> task = new OperationTask<>(t -> {
+            ArgbRaster raster = source.toRaster();
+            if (cached == null) {
+                ArgbRaster proxy = renderer.proxy(raster, ProcessingPool.shared());
+                Image proxyResult = FxRaster.write(renderer.render(proxy, orientation, pipeline, ProcessingPool.shared()));
+                Platform.runLater(() -> {
+                    preview = new Preview(source, proxy);
+                    if (runningTask == t) showPreview(proxyResult);
+                });
+                t.checkCancelled();
+            }
+            OrientOperation orient = new OrientOperation(orientation);
+            raster = orient.applyInPlace(raster, t);
+            ArgbRaster output = plane != null
+                    ? orient.applyInPlace(plane.threshold(((ThresholdOperation) stages.get(0)).threshold(), t), t)
+                    : pipeline.run(raster, t);
+            Displayed result = displayed(output, t);
+            return new Edit(result.document(), result.pyramid(), raster);
+        });
+        task.measured(new OperationProbe(stages.size() == 1 ? stages.get(0).getCategory() : "Potok",
+                source.getWidth(), source.getHeight()));
+        boolean started = startTask(task, failureMessage, errorLog, result -> {
+            selection = null;
+            pendingOrientation = Orientation.IDENTITY;
+            showImage(result.document(), result.pyramid());
+            history.addPipeline(pipeline, pipeline.describe(), result.input());
+            updateHistoryButtons();
+            imageModified = true;
+            showToast(successMessage);
+            AppLogger.log(AppLogger.Level.ACTION, actionLog);
+        });
+        if (started) {
+            refiningTask = task;
+            refiningPipeline = pipeline;
+            if (cached != null) {
+                showPreview(FxRaster.write(renderer.render(cached.proxy(), orientation, pipeline, ProcessingPool.shared())));
+            }
+        }
+        return started;
+    }
+
+    /** Whether both pipelines run the same operations, possibly with different parameters. */
+    private static boolean sameOperations(Pipeline a, Pipeline b) {
+        List<ImageOperation> first = a.getStages();
+        List<ImageOperation> second = b.getStages();
+        if (first.size() != second.size()) {
+            return false;
+        }
+        for (int i = 0; i < first.size(); i++) {
+            if (first.get(i).getClass() != second.get(i).getClass()
+                    || !first.get(i).getCategory().equals(second.get(i).getCategory())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private PreviewRenderer previewRenderer() {
+        double scale = originalImage.getScene() != null ? originalImage.getScene().getWindow().getOutputScaleX() : 1;
+        return new PreviewRenderer((int) Math.ceil(Math.max(1, originalImage.getWidth()) * scale),
+                (int) Math.ceil(Math.max(1, originalImage.getHeight()) * scale));
+    }
+
+    private boolean runImageOperation(ImageOperation operation, String successMessage, String actionLog,
+                                      String failureMessage, String errorLog) {
+        return runImageOperation(new Pipeline(List.of(operation)), successMessage, actionLog, failureMessage, errorLog);
+    }
+
+    private boolean runSelectedOperation(ImageOperation operation, String successMessage, String actionLog,
+                                         String failureMessage, String errorLog) {
+        if (selection == null) {
+            return runImageOperation(operation, successMessage, actionLog, failureMessage, errorLog);
+        }
+        return runRegionOperation(operation, successMessage, actionLog, failureMessage, errorLog);
+    }
+
+    /**
+     * Runs the operation on the selection only. The document is a copy-on-write tiled raster, so
+     * the new version copies just the tiles under the selection, and the viewer re-uploads only
+     * the pyramid tiles over it. A pending orientation is applied to the whole image first.
+     */
+    private boolean runRegionOperation(ImageOperation operation, String successMessage, String actionLog,
+                                       String failureMessage, String errorLog) {
+        Pipeline pipeline = new Pipeline(List.of(operation));
+        TiledRaster source = document;
+        MipPyramid levels = pyramid;
+        Orientation orientation = pendingOrientation;
+        Tile region = orientation.map(selection, source.getWidth(), source.getHeight());
+        OperationTask<RegionEdit> task = new OperationTask<>(t -> {
+            TiledRaster before = source;
+            if (orientation != Orientation.IDENTITY) {
+                before = TiledRaster.of(new OrientOperation(orientation).applyInPlace(source.toRaster(), t));
+            }
+            t.checkCancelled();
+            TiledRaster after = pipeline.runRegion(before, region, t);
+            MipPyramid updated = orientation != Orientation.IDENTITY ? MipPyramid.of(after, t) : levels.update(after, region, t);
+            return new RegionEdit(after, updated, region, before.region(region));
+        });
+        task.measured(new OperationProbe(operation.getCategory(), region.width(), region.height()));
+        return startTask(task, failureMessage, errorLog, result -> {
+            if (orientation != Orientation.IDENTITY) {
+                pendingOrientation = Orientation.IDENTITY;
+                selection = result.region();
+            }
+            showRegionEdit(result);
+            history.addRegion(pipeline, result.region(), pipeline.describe() + " (zaznaczenie)", result.previous());
+            updateHistoryButtons();
+            imageModified = true;
+            showToast(successMessage);
+            AppLogger.log(AppLogger.Level.ACTION, actionLog + " w obszarze " + region.width() + "x" + region.height()
+                    + " (" + region.x() + ", " + region.y() + ")");
+        });
+    }
+
+    private void showRegionEdit(RegionEdit edit) {
+        document = edit.document();
+        pyramid = edit.pyramid();
+        preview = null;
+        brightness = null;
+        originalImage.clearPreview();
+        originalImage.updatePyramid(pyramid, edit.region());
+        showOrientation();
+    }
+
+    /** Replaces the whole displayed image; cached previews of the previous one are dropped. */
+    private void showImage(TiledRaster image, MipPyramid levels) {
+        document = image;
+        pyramid = levels;
+        preview = null;
+        brightness = null;
+        originalImage.clearPreview();
+        originalImage.setPyramid(levels);
+        showOrientation();
+    }
+
+    private void addPipelineStage(String selected) {
+        if (selected == null) {
+            showToast("Nie wybrano operacji.");
+            return;
+        }
+        switch (selected) {
+            case "Obrót w lewo" -> queuePipelineStage(new RotateOperation(-90));
+            case "Obrót w prawo" -> queuePipelineStage(new RotateOperation(90));
+            case "Obrót o 180°" -> queuePipelineStage(new RotateOperation(180));
+            case "Odbicie poziome" -> queuePipelineStage(new OrientOperation(Orientation.FLIP_HORIZONTAL));
+            case "Odbicie pionowe" -> queuePipelineStage(new OrientOperation(Orientation.FLIP_VERTICAL));
+            case "Skalowanie" -> {
+                TextInputDialog sizeDialog = new TextInputDialog();
+                sizeDialog.setTitle("Skalowanie");
+                sizeDialog.setHeaderText("Podaj wymiary w formacie SZEROKOŚĆxWYSOKOŚĆ (1-" + ScaleOperation.MAX_SIZE + ")");
+                ComboBox<ResampleFilter> filterBox = new ComboBox<>();
+                filterBox.getItems().addAll(ResampleFilter.values());
+                filterBox.setValue(ResampleFilter.BICUBIC);
+                sizeDialog.getDialogPane().setContent(new VBox(8, sizeDialog.getDialogPane().getContent(),
+                        new Label("Metoda interpolacji:"), filterBox));
+                sizeDialog.showAndWait().ifPresent(text -> {
+                    Matcher matcher = Pattern.compile("(\\d{1,5})\\s*[xX]\\s*(\\d{1,5})").matcher(text.trim());
+                    int width = matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+                    int height = matcher.matches() ? Integer.parseInt(matcher.group(2)) : 0;
+                    if (width < 1 || width > ScaleOperation.MAX_SIZE || height < 1 || height > ScaleOperation.MAX_SIZE) {
+                        showToast("Nieprawidłowe wymiary skalowania.");
+                        return;
+                    }
+                    queuePipelineStage(new ScaleOperation(width, height, filterBox.getValue()));
+                });
+            }
+            default -> {
+                OperationPlugin plugin = operationPlugin(selected);
+                if (plugin == null) {
+                    showToast("Nieznana operacja: " + selected);
+                    return;
+                }
+                plugin.create(pipelineLabel.getScene().getWindow(), OperationPlugin.Use.PIPELINE, this::queuePipelineStage);
+            }
+        }
+    }
+
+    private void queuePipelineStage(ImageOperation operation) {
+        queuedOperations.add(operation);
+        updatePipelineLabel();
+    }
+
+    private void updatePipelineLabel() {
+        pipelineLabel.setText(queuedOperations.isEmpty()
+                ? "Potok jest pusty"
+                : "Potok: " + new Pipeline(queuedOperations).describe());
+    }
+
+    private void executePipeline() {
+        if (document == null) {
+            showToast("Brak obrazu do przetworzenia.");
+            AppLogger.log(AppLogger.Level.ERROR, "Brak obrazu do przetworzenia.");
+            return;
+        }
+        if (queuedOperations.isEmpty()) {
+            showToast("Potok jest pusty.");
+            return;
+        }
+        Pipeline pipeline = new Pipeline(queuedOperations);
+        runImageOperation(pipeline, "Potok został wykonany pomyślnie!",
+                "Użytkownik wykonał potok operacji: " + pipeline.describe(),
+                "Nie udało się wykonać potoku operacji.", "Błąd podczas wykonywania potoku: ");
+    }
+
     private void showToast(String message) {
         toastMessage.setText(message);
         toastMessage.setVisible(true);
@@ -287,13 +774,19 @@ public class ImageApp extends Application {
 
         Button restoreBtn = new Button("Przywróć oryginalne wymiary");
         restoreBtn.setOnAction(ev -> {
-            if (originalLoadedImage != null) {
-                widthField.setText(String.valueOf((int) originalLoadedImage.getWidth()));
-                heightField.setText(String.valueOf((int) originalLoadedImage.getHeight()));
+            if (document != null) {
+                widthField.setText(String.valueOf(originalWidth));
+                heightField.setText(String.valueOf(originalHeight));
             }
         });
 
-        VBox content = new VBox(8, widthLabel, widthField, widthError, heightLabel, heightField, heightError, restoreBtn);
+        Label filterLabel = new Label("Metoda interpolacji:");
+        ComboBox<ResampleFilter> filterBox = new ComboBox<>();
+        filterBox.getItems().addAll(ResampleFilter.values());
+        filterBox.setValue(ResampleFilter.BICUBIC);
+
+        VBox content = new VBox(8, widthLabel, widthField, widthError, heightLabel, heightField, heightError,
+                filterLabel, filterBox, restoreBtn);
         dialog.getDialogPane().setContent(content);
 
         ButtonType scaleBtnType = new ButtonType("Zmień rozmiar", ButtonBar.ButtonData.OK_DONE);
@@ -319,8 +812,8 @@ public class ImageApp extends Application {
             int width = 0, height = 0;
             try {
                 width = Integer.parseInt(w);
-                if (width < 1 || width > 3000) {
-                    widthError.setText("Zakres 1-3000");
+                if (width < 1 || width > ScaleOperation.MAX_SIZE) {
+                    widthError.setText("Zakres 1-" + ScaleOperation.MAX_SIZE);
                     valid = false;
                 }
             } catch (Exception ex) {
@@ -330,8 +823,12 @@ public class ImageApp extends Application {
 
             try {
                 height = Integer.parseInt(h);
-                if (height < 1 || height > 3000) {
-                    heightError.setText("Zakres 1-3000");
+                if (height < 1 || height > ScaleOperation.MAX_SIZE) {
+                    heightError.setText("Zakres 1-" + ScaleOperation.MAX_SIZE);
+                    valid = false;
+                } else if (valid && (long) width * height > Integer.MAX_VALUE) {
+                    // the result is held in one int[]; larger images go through the pipeline's large-file mode
+                    heightError.setText("Za duży obraz - użyj „Przetwórz duży plik”");
                     valid = false;
                 }
             } catch (Exception ex) {
@@ -344,26 +841,13 @@ public class ImageApp extends Application {
                 return;
             }
 
-            WritableImage scaled = new WritableImage(width, height);
-            PixelReader reader = loadedImage.getPixelReader();
-            PixelWriter writer = scaled.getPixelWriter();
-
-            double xRatio = loadedImage.getWidth() / width;
-            double yRatio = loadedImage.getHeight() / height;
-
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    int px = (int) (x * xRatio);
-                    int py = (int) (y * yRatio);
-                    writer.setArgb(x, y, reader.getArgb(px, py));
-                }
+            ResampleFilter filter = filterBox.getValue();
+            boolean started = runImageOperation(new ScaleOperation(width, height, filter), "Obraz przeskalowany",
+                    "Użytkownik wykonał operację: Skalowanie obrazu (" + filter + ")",
+                    "Nie udało się przeskalować obrazu.", "Błąd podczas skalowania obrazu: ");
+            if (!started) {
+                event.consume();
             }
-
-            loadedImage = scaled;
-            originalImage.setImage(loadedImage);
-            imageModified = true;
-            showToast("Obraz przeskalowany");
-            AppLogger.log(AppLogger.Level.ACTION, "Użytkownik wykonał operację: Skalowanie obrazu");
         });
 
         dialog.setOnCloseRequest(ev -> {
@@ -377,233 +861,400 @@ public class ImageApp extends Application {
     }
 
     private void rotateImage(int angleDegrees) {
-        if (loadedImage == null) return;
-
-        int width = (int) loadedImage.getWidth();
-        int height = (int) loadedImage.getHeight();
-
-        WritableImage rotatedImage = new WritableImage(height, width);
-        PixelReader reader = loadedImage.getPixelReader();
-        PixelWriter writer = rotatedImage.getPixelWriter();
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int argb = reader.getArgb(x, y);
-                if (angleDegrees == 90) {
-                    writer.setArgb(height - 1 - y, x, argb);
-                } else if (angleDegrees == -90) {
-                    writer.setArgb(y, width - 1 - x, argb);
-                }
-            }
-        }
+        orientImage(Orientation.rotation(angleDegrees), "Obraz obrócony o " + angleDegrees + "°",
+                "Użytkownik wykonał operację: Obrót obrazu o " + angleDegrees + "°");
+    }
 
-        loadedImage = rotatedImage;
-        originalImage.setImage(loadedImage);
+    /**
+     * Orientation changes only update the pending orientation and the view transform; the pixels
+     * are rotated once, together with the next operation or when saving.
+     */
+    private void orientImage(Orientation orientation, String successMessage, String actionLog) {
+        if (document == null) return;
+        if (runningTask != null) {
+            showToast("Poczekaj na zakończenie bieżącej operacji.");
+            return;
+        }
+        pendingOrientation = pendingOrientation.then(orientation);
+        showOrientation();
+        history.addOrientation(orientation, orientation.toString());
+        updateHistoryButtons();
         imageModified = true;
-        showToast("Obraz obrócony o " + angleDegrees + "°");
-        AppLogger.log(AppLogger.Level.ACTION, "Użytkownik wykonał operację: Obrót obrazu o " + angleDegrees + "°");
+        showToast(successMessage);
+        AppLogger.log(AppLogger.Level.ACTION, actionLog);
     }
 
-    private void executeSelectedOperation() {
-        if (loadedImage == null) {
-            showToast("Brak obrazu do przetworzenia.");
-            AppLogger.log(AppLogger.Level.ERROR, "Brak obrazu do przetworzenia.");
+    private void undo() {
+        EditHistory.Step step = historyStep(history.peekUndo(), "Brak operacji do cofnięcia.");
+        if (step == null) return;
+        if (step instanceof EditHistory.OrientationStep orientation) {
+            history.undone(step);
+            pendingOrientation = pendingOrientation.then(orientation.orientation().inverse());
+            showOrientation();
+            historyChanged("Cofnięto: ", "Użytkownik cofnął operację: ", step);
             return;
         }
-
-        String selected = operationComboBox.getValue();
-        if (selected == null) {
-            showToast("Nie wybrano operacji.");
-            AppLogger.log(AppLogger.Level.ERROR, "Nie wybrano operacji do wykonania.");
+        if (step instanceof EditHistory.RegionStep region) {
+            replayRegionStep(region, true);
             return;
         }
+        EditHistory.PixelStep pixel = (EditHistory.PixelStep) step;
+        TiledRaster source = document;
+        OperationTask<Displayed> task = new OperationTask<>(t -> displayed(pixel.undo(source::toRaster, t), t));
+        task.measured(new OperationProbe("Cofnięcie", source.getWidth(), source.getHeight()));
+        startTask(task, "Nie udało się cofnąć operacji.", "Błąd podczas cofania operacji: ", result -> {
+            history.undone(step);
+            selection = null;
+            showImage(result.document(), result.pyramid());
+            historyChanged("Cofnięto: ", "Użytkownik cofnął operację: ", step);
+        });
+    }
 
-        if (selected.equals("Negatyw")) {
-            try {
-                int width = (int) loadedImage.getWidth();
-                int height = (int) loadedImage.getHeight();
-
-                WritableImage negativeImage = new WritableImage(width, height);
-                PixelReader reader = loadedImage.getPixelReader();
-                PixelWriter writer = negativeImage.getPixelWriter();
-
-                int threadCount = 4;
-                ExecutorService executor = Executors.newFixedThreadPool(threadCount);
-
-                List<Future<?>> futures = new ArrayList<>();
-
-                int segmentHeight = height / threadCount;
-
-                for (int t = 0; t < threadCount; t++) {
-                    final int startY = t * segmentHeight;
-                    final int endY = (t == threadCount - 1) ? height : (t + 1) * segmentHeight;
-
+    private void redo() {
+        EditHistory.Step step = historyStep(history.peekRedo(), "Brak operacji do ponowienia.");
+        if (step == null) return;
+        if (step instanceof EditHistory.OrientationStep orientation) {
+            history.redone(step);
+            pendingOrientation = pendingOrientation.then(orientation.orientation());
+            showOrientation();
+            historyChanged("Ponowiono: ", "Użytkownik ponowił operację: ", step);
+            return;
+        }
+        if (step instanceof EditHistory.RegionStep region) {
+            replayRegionStep(region, false);
+            return;
+        }
+        EditHistory.PixelStep pixel = (EditHistory.PixelStep) step;
+        TiledRaster source = document;
+        OperationTask<Displayed> task = new OperationTask<>(t -> displayed(pixel.redo(source.toRaster(), t), t));
+        task.measured(new OperationProbe("Ponowienie", source.getWidth(), source.getHeight()));
+        startTask(task, "Nie udało się ponowić operacji.", "Błąd podczas ponawiania operacji: ", result -> {
+            history.redone(step);
+            selection = null;
+            showImage(result.document(), result.pyramid());
+            historyChanged("Ponowiono: ", "Użytkownik ponowił operację: ", step);
+        });
+    }
 
-                    futures.add(executor.submit(() -> {
-                        for (int y = startY; y < endY; y++) {
-                            for (int x = 0; x < width; x++) {
-                                Color color = reader.getColor(x, y);
-                                Color neg = new Color(1.0 - color.getRed(), 1.0 - color.getGreen(), 1.0 - color.getBlue(), color.getOpacity());
-                                synchronized (writer) {
-                                    writer.setColor(x, y, neg);
-                                }
-                            }
-                        }
-                    }));
-                }
-                for (Future<?> f : futures) f.get();
-                executor.shutdown();
-                loadedImage = negativeImage;
-                originalImage.setImage(loadedImage);
-                imageModified = true;
-                showToast("Negatyw został wygenerowany pomyślnie!");
-                AppLogger.log(AppLogger.Level.ACTION, "Użytkownik wykonał operację: Negatyw obrazu");
+    private static Displayed displayed(ArgbRaster raster, TileExecutor executor) {
+        TiledRaster image = TiledRaster.of(raster);
+        return new Displayed(image, MipPyramid.of(image, executor));
+    }
 
-            } catch (Exception ex) {
-                showToast("Nie udało się wykonać negatywu.");
-                AppLogger.log(AppLogger.Level.ERROR, "Błąd podczas tworzenia negatywu: " + ex.getMessage());
+    private void replayRegionStep(EditHistory.RegionStep step, boolean undo) {
+        TiledRaster source = document;
+        MipPyramid levels = pyramid;
+        OperationTask<RegionEdit> task = new OperationTask<>(t -> {
+            TiledRaster after = undo ? step.undo(source, t) : step.redo(source, t);
+            return new RegionEdit(after, levels.update(after, step.region(), t), step.region(), null);
+        });
+        task.measured(new OperationProbe(undo ? "Cofnięcie" : "Ponowienie", step.region().width(), step.region().height()));
+        startTask(task, undo ? "Nie udało się cofnąć operacji." : "Nie udało się ponowić operacji.",
+                undo ? "Błąd podczas cofania operacji: " : "Błąd podczas ponawiania operacji: ", result -> {
+            if (undo) {
+                history.undone(step);
+            } else {
+                history.redone(step);
             }
-        } else if (selected.equals("Progowanie")) {
-            Stage dialog = new Stage();
-            dialog.initModality(Modality.APPLICATION_MODAL);
-            dialog.setTitle("Progowanie");
+            showRegionEdit(result);
+            historyChanged(undo ? "Cofnięto: " : "Ponowiono: ", undo ? "Użytkownik cofnął operację: " : "Użytkownik ponowił operację: ", step);
+        });
+    }
 
-            Label label = new Label("Wprowadź wartość progu (0-255):");
-            Spinner<Integer> spinner = new Spinner<>(0, 255, 128);
-            spinner.setEditable(true);
+    private EditHistory.Step historyStep(EditHistory.Step step, String emptyMessage) {
+        if (document == null) return null;
+        if (runningTask != null) {
+            showToast("Poczekaj na zakończenie bieżącej operacji.");
+            return null;
+        }
+        if (step == null) {
+            showToast(emptyMessage);
+        }
+        return step;
+    }
+
+    private void historyChanged(String message, String actionLog, EditHistory.Step step) {
+        imageModified = true;
+        updateHistoryButtons();
+        showToast(message + step.description());
+        AppLogger.log(AppLogger.Level.ACTION, actionLog + step.description());
+    }
 
-            Button wykonaj = new Button("Wykonaj progowanie");
-            Button anuluj = new Button("Anuluj");
+    private void updateHistoryButtons() {
+        undoButton.setDisable(history.peekUndo() == null);
+        redoButton.setDisable(history.peekRedo() == null);
+    }
 
-            HBox buttonBox = new HBox(10, wykonaj, anuluj);
-            buttonBox.setAlignment(Pos.CENTER);
+    private void updateStats() {
+        statsLabel.setText(OperationMetrics.describe());
+    }
 
-            VBox layout = new VBox(10, label, spinner, buttonBox);
-            layout.setAlignment(Pos.CENTER);
-            layout.setPadding(new Insets(20));
+    private void showPreview(Image image) {
+        originalImage.showPreview(image, Orientation.IDENTITY);
+    }
 
-            Scene scene = new Scene(layout);
-            dialog.setScene(scene);
-            dialog.show();
+    private void showCurrentImage() {
+        originalImage.clearPreview();
+        showOrientation();
+    }
 
-            anuluj.setOnAction(e -> dialog.close());
+    private void showOrientation() {
+        originalImage.setOrientation(pendingOrientation);
+        showSelection();
+    }
 
-            wykonaj.setOnAction(e -> {
-                int threshold = spinner.getValue();
+    /**
+     * The selection is kept in pixels of the document before the pending orientation, which is
+     * what the viewer maps view coordinates back to.
+     */
+    private void updateSelection(Point2D point) {
+        if (document == null || point == null || selectionStart == null || runningTask != null || requestedPath != null) return;
+        int width = document.getWidth();
+        int height = document.getHeight();
+        int x0 = Math.clamp((long) Math.floor(Math.min(selectionStart.getX(), point.getX())), 0, width - 1);
+        int y0 = Math.clamp((long) Math.floor(Math.min(selectionStart.getY(), point.getY())), 0, height - 1);
+        int x1 = Math.clamp((long) Math.ceil(Math.max(selectionStart.getX(), point.getX())), x0 + 1, width);
+        int y1 = Math.clamp((long) Math.ceil(Math.max(selectionStart.getY(), point.getY())), y0 + 1, height);
+        selection = new Tile(x0, y0, x1 - x0, y1 - y0);
+        showSelection();
+    }
 
-                try {
-                    int width = (int) loadedImage.getWidth();
-                    int height = (int) loadedImage.getHeight();
+    private void clearSelection() {
+        selection = null;
+        showSelection();
+    }
 
-                    WritableImage resultImage = new WritableImage(width, height);
-                    PixelReader reader = loadedImage.getPixelReader();
-                    PixelWriter writer = resultImage.getPixelWriter();
+    private void showSelection() {
+        originalImage.setSelection(selection);
+        clearSelectionButton.setVisible(selection != null);
+    }
 
-                    int threadCount = 4;
-                    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    private void executeSelectedOperation() {
+        if (document == null) {
+            showToast("Brak obrazu do przetworzenia.");
+            AppLogger.log(AppLogger.Level.ERROR, "Brak obrazu do przetworzenia.");
+            return;
+        }
 
-                    List<Future<?>> futures = new ArrayList<>();
+        String selected = operationComboBox.getValue();
+        if (selected == null) {
+            showToast("Nie wybrano operacji.");
+            AppLogger.log(AppLogger.Level.ERROR, "Nie wybrano operacji do wykonania.");
+            return;
+        }
 
-                    int segmentHeight = height / threadCount;
+        OperationPlugin plugin = operationPlugin(selected);
+        if (plugin == null) {
+            showToast("Nieznana operacja: " + selected);
+            return;
+        }
+        plugin.create(operationComboBox.getScene().getWindow(), OperationPlugin.Use.IMAGE, operation ->
+                runSelectedOperation(operation, plugin.getSuccessMessage(), "Użytkownik wykonał operację: " + operation.getName(),
+                        plugin.getFailureMessage(), "Błąd podczas wykonywania operacji " + operation.getName() + ": "));
+    }
 
-                    for (int t = 0; t < threadCount; t++) {
-                        final int startY = t * segmentHeight;
-                        final int endY = (t == threadCount - 1) ? height : (t + 1) * segmentHeight;
+    private OperationPlugin operationPlugin(String name) {
+        for (OperationPlugin plugin : operationPlugins) {
+            if (plugin.getName().equals(name)) {
+                return plugin;
+            }
+        }
+        return null;
+    }
 
-                        futures.add(executor.submit(() -> {
-                            for (int y = startY; y < endY; y++) {
-                                for (int x = 0; x < width; x++) {
-                                    Color color = reader.getColor(x, y);
-                                    double brightness = color.getBrightness();
-                                    int gray = (int) (brightness * 255);
-                                    Color newColor = (gray >= threshold) ? Color.WHITE : Color.BLACK;
-                                    writer.setColor(x, y, newColor);
-                                }
+    private List<OperationPlugin> builtInOperations() {
+        return List.of(
+                new BuiltInOperation("Negatyw", "Negatyw został wygenerowany pomyślnie!", "Nie udało się wykonać negatywu.",
+                        (owner, use, onAccept) -> onAccept.accept(new NegativeOperation())),
+                new BuiltInOperation("Progowanie", "Progowanie zostało przeprowadzone pomyślnie!", "Nie udało się wykonać progowania.",
+                        (owner, use, onAccept) -> showThresholdDialog(use == OperationPlugin.Use.IMAGE ? "Wykonaj progowanie" : "Dodaj do potoku",
+                                use == OperationPlugin.Use.IMAGE && selection == null, threshold -> onAccept.accept(new ThresholdOperation(threshold)))),
+                new BuiltInOperation("Konturowanie", "Konturowanie zostało przeprowadzone pomyślnie!", "Nie udało się wykonać konturowania.",
+                        (owner, use, onAccept) -> {
+                            if (use == OperationPlugin.Use.IMAGE && (document.getWidth() < 2 || document.getHeight() < 2)) {
+                                showToast("Obraz jest zbyt mały do konturowania.");
+                                AppLogger.log(AppLogger.Level.ERROR, "Obraz jest zbyt mały do konturowania.");
+                                return;
                             }
-                    }));
-                }
-                for (Future<?> f : futures) f.get();
-                executor.shutdown();
-
-                loadedImage = resultImage;
-                originalImage.setImage(loadedImage);
-                imageModified = true;
-                showToast("Progowanie zostało przeprowadzone pomyślnie!");
-                AppLogger.log(AppLogger.Level.ACTION, "Użytkownik wykonał operację: Progowanie obrazu z progiem " + threshold);
-
-                } catch (Exception ex) {
-                    showToast("Nie udało się wykonać progowania.");
-                    AppLogger.log(AppLogger.Level.ERROR, "Błąd podczas progowania obrazu: " + ex.getMessage());
-                }
-                dialog.close();
-            });
-
+                            onAccept.accept(new ContourOperation());
+                        }),
+                new BuiltInOperation("Filtry", "Filtr został zastosowany pomyślnie!", "Nie udało się zastosować filtru.",
+                        (owner, use, onAccept) -> showFilterDialog(use == OperationPlugin.Use.IMAGE ? "Zastosuj filtr" : "Dodaj do potoku", onAccept)));
+    }
 
+    private void processLargeFile(Stage owner) {
+        if (queuedOperations.isEmpty()) {
+            showToast("Potok jest pusty.");
+            return;
         }
-        else if (selected.equals("Konturowanie")) {
+        FileChooser inputChooser = new FileChooser();
+        inputChooser.setTitle("Wybierz obraz do przetworzenia");
+        inputChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Obrazy JPEG", "*.jpg"));
+        File input = inputChooser.showOpenDialog(owner);
+        if (input == null) return;
+
+        FileChooser outputChooser = new FileChooser();
+        outputChooser.setTitle("Zapisz wynik");
+        File pictures = SavedImageNames.picturesDirectory().toFile();
+        if (pictures.isDirectory()) outputChooser.setInitialDirectory(pictures);
+        outputChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Obrazy JPEG", "*.jpg"));
+        File output = outputChooser.showSaveDialog(owner);
+        if (output == null) return;
+
+        Pipeline pipeline = new Pipeline(queuedOperations);
+        OperationTask<Void> task = new OperationTask<>(t -> {
             try {
-                int width = (int) loadedImage.getWidth();
-                int height = (int) loadedImage.getHeight();
-
-                if (width < 2 || height < 2) {
-                    showToast("Obraz jest zbyt mały do konturowania.");
-                    AppLogger.log(AppLogger.Level.ERROR, "Obraz jest zbyt mały do konturowania.");
-                    return;
-                }
-
-                PixelReader reader = loadedImage.getPixelReader();
-                if (reader == null) {
-                    showToast("Nie można odczytać pikseli obrazu.");
-                    AppLogger.log(AppLogger.Level.ERROR, "Nie można odczytać pikseli obrazu.");
-                    return;
-                }
-
-                WritableImage contouredImage = new WritableImage(width, height);
-                PixelWriter writer = contouredImage.getPixelWriter();
-                int threadCount = 4;
-                ExecutorService executor = Executors.newFixedThreadPool(threadCount);
-
-                List<Future<?>> futures = new ArrayList<>();
-
-                int segmentHeight = height / threadCount;
-
-                for (int t = 0; t < threadCount; t++) {
-                    final int startY = t * segmentHeight;
-                    final int endY = (t == threadCount - 1) ? height : (t + 1) * segmentHeight;
-
-                    futures.add(executor.submit(() -> {
-                        for (int y = startY; y < endY; y++) {
-                            for (int x = 0; x < width; x++) {
-                                Color current = reader.getColor(x, y);
-                                Color right = (x + 1 < width) ? reader.getColor(x + 1, y) : Color.BLACK;
-                                Color down = (y + 1 < height) ? reader.getColor(x, y + 1) : Color.BLACK;
-
-                                double diffX = Math.abs(current.getBrightness() - right.getBrightness());
-                                double diffY = Math.abs(current.getBrightness() - down.getBrightness());
-
-                                double edge = Math.min(1.0, Math.max(0.0, diffX + diffY));
-                                Color edgeColor = new Color(edge, edge, edge, 1.0);
+                TiledProcessor.process(input.toPath(), output.toPath(), pipeline, t, t::reportProgress);
+            } catch (IOException | RuntimeException ex) {
+                Files.deleteIfExists(output.toPath());
+                throw ex;
+            }
+            return null;
+        });
+        startTask(task, "Nie udało się przetworzyć pliku.", "Błąd przetwarzania kafelkowego: ", result -> {
+            showToast("Zapisano wynik jako " + output.getName());
+            AppLogger.log(AppLogger.Level.ACTION, "Przetworzono kafelkowo plik " + input.getName()
+                    + " potokiem: " + pipeline.describe() + " → " + output.getName());
+        });
+    }
 
-                                synchronized (writer) {
-                                    writer.setColor(x, y, edgeColor);
-                                }
-                            }
-                        }
-                    }));
-                }
-                for (Future<?> f : futures) f.get();
-                executor.shutdown();
-                loadedImage = contouredImage;
-                originalImage.setImage(loadedImage);
-                imageModified = true;
-                showToast("Konturowanie zostało przeprowadzone pomyślnie!");
-                AppLogger.log(AppLogger.Level.ACTION, "Użytkownik wykonał operację: Konturowanie obrazu");
+    private void showFilterDialog(String actionText, Consumer<ImageOperation> onAccept) {
+        Stage dialog = new Stage();
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle("Filtry");
+
+        ComboBox<FilterType> filterBox = new ComboBox<>();
+        filterBox.getItems().addAll(FilterType.values());
+        filterBox.setValue(FilterType.GAUSSIAN);
+        Label radiusLabel = new Label("Promień (px):");
+        Spinner<Integer> radiusSpinner = new Spinner<>(1, FilterType.MAX_RADIUS, 2);
+        radiusSpinner.setEditable(true);
+        filterBox.valueProperty().addListener((obs, oldV, newV) -> radiusSpinner.setDisable(!newV.hasRadius()));
+        Label borderLabel = new Label("Poza krawędzią obrazu:");
+        ComboBox<BorderMode> borderBox = new ComboBox<>();
+        borderBox.getItems().addAll(BorderMode.values());
+        borderBox.setValue(BorderMode.REFLECT);
+
+        Button wykonaj = new Button(actionText);
+        Button anuluj = new Button("Anuluj");
+        HBox buttonBox = new HBox(10, wykonaj, anuluj);
+        buttonBox.setAlignment(Pos.CENTER);
+
+        VBox layout = new VBox(10, filterBox, radiusLabel, radiusSpinner, borderLabel, borderBox, buttonBox);
+        layout.setAlignment(Pos.CENTER);
+        layout.setPadding(new Insets(20));
+        dialog.setScene(new Scene(layout));
+        dialog.show();
+
+        anuluj.setOnAction(e -> dialog.close());
+        wykonaj.setOnAction(e -> {
+            dialog.close();
+            onAccept.accept(filterBox.getValue().create(radiusSpinner.getValue(), borderBox.getValue()));
+        });
+    }
 
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                showToast("Nie udało się wykonać konturowania.");
-                AppLogger.log(AppLogger.Level.ERROR, "Błąd podczas konturowania obrazu: " + ex.getMessage());
+    /**
+     * The brightness plane of the current image is computed once in the background and cached;
+     * after that the histogram, the Otsu threshold and the live preview, which thresholds a
+     * view-sized copy of the plane through a lookup table, cost no pass over the full image.
+     */
+    private void showThresholdDialog(String actionText, boolean livePreview, IntConsumer onAccept) {
+        Stage dialog = new Stage();
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle("Progowanie");
+
+        Label label = new Label("Wprowadź wartość progu (0-255):");
+        Spinner<Integer> spinner = new Spinner<>(0, 255, 128);
+        spinner.setEditable(true);
+        Slider slider = new Slider(0, 255, 128);
+        slider.setShowTickLabels(true);
+        slider.setMajorTickUnit(64);
+        slider.valueProperty().addListener((obs, oldV, newV) -> spinner.getValueFactory().setValue(newV.intValue()));
+        spinner.valueProperty().addListener((obs, oldV, newV) -> slider.setValue(newV));
+
+        Canvas histogramCanvas = new Canvas(256, 100);
+        Label histogramLabel = new Label("Obliczanie histogramu...");
+        Button otsuButton = new Button("Próg automatyczny (Otsu)");
+        otsuButton.setDisable(true);
+
+        Button wykonaj = new Button(actionText);
+        Button anuluj = new Button("Anuluj");
+
+        HBox buttonBox = new HBox(10, wykonaj, anuluj);
+        buttonBox.setAlignment(Pos.CENTER);
+
+        VBox layout = new VBox(10, histogramCanvas, histogramLabel, label, slider, spinner, otsuButton, buttonBox);
+        layout.setAlignment(Pos.CENTER);
+        layout.setPadding(new Insets(20));
+
+        Scene scene = new Scene(layout);
+        dialog.setScene(scene);
+        dialog.setOnHidden(e -> {
+            if (livePreview && runningTask == null) showCurrentImage();
+        });
+        dialog.show();
+
+        TiledRaster source = document;
+        PreviewRenderer bounds = previewRenderer();
+        CompletableFuture<BrightnessPlane> plane = brightness != null && brightness.document() == source
+                ? CompletableFuture.completedFuture(brightness.plane())
+                : CompletableFuture.supplyAsync(() -> BrightnessPlane.of(source.toRaster(), ProcessingPool.shared()),
+                        ProcessingPool::runTask);
+        plane.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                histogramLabel.setText("Nie udało się obliczyć histogramu.");
+                AppLogger.log(AppLogger.Level.ERROR, "Błąd obliczania histogramu jasności: " + error.getMessage());
+                return;
             }
+            if (document == source) {
+                brightness = new Brightness(source, result);
+            }
+            if (!dialog.isShowing()) return;
+            int otsu = result.otsuThreshold();
+            histogramLabel.setText("Histogram jasności, próg Otsu: " + otsu);
+            otsuButton.setDisable(false);
+            otsuButton.setOnAction(e -> slider.setValue(otsu));
+            int[] histogram = result.getHistogram();
+            drawHistogram(histogramCanvas, histogram, spinner.getValue());
+            BrightnessPlane previewPlane = result.scaled(bounds.getMaxWidth(), bounds.getMaxHeight());
+            WritableImage previewImage = new WritableImage(previewPlane.getWidth(), previewPlane.getHeight());
+            int[] previewPixels = new int[previewPlane.getWidth() * previewPlane.getHeight()];
+            IntConsumer update = threshold -> {
+                drawHistogram(histogramCanvas, histogram, threshold);
+                if (!livePreview || runningTask != null) return;
+                previewPlane.threshold(threshold, previewPixels, ProcessingPool.shared());
+                previewImage.getPixelWriter().setPixels(0, 0, previewPlane.getWidth(), previewPlane.getHeight(),
+                        PixelFormat.getIntArgbPreInstance(), previewPixels, 0, previewPlane.getWidth());
+                originalImage.showPreview(previewImage, pendingOrientation);
+            };
+            spinner.valueProperty().addListener((obs, oldV, newV) -> update.accept(newV));
+            update.accept(spinner.getValue());
+        }));
+
+        anuluj.setOnAction(e -> dialog.close());
+
+        wykonaj.setOnAction(e -> {
+            dialog.close();
+            onAccept.accept(spinner.getValue());
+        });
+    }
+
+    private void drawHistogram(Canvas canvas, int[] histogram, int threshold) {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        g.setFill(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        int max = 1;
+        for (int count : histogram) {
+            max = Math.max(max, count);
+        }
+        g.setFill(Color.GRAY);
+        for (int i = 0; i < histogram.length; i++) {
+            double bar = height * histogram[i] / max;
+            g.fillRect(i, height - bar, 1, bar);
         }
+        g.setStroke(Color.RED);
+        g.strokeLine(threshold + 0.5, 0, threshold + 0.5, height);
     }
-}
\ No newline at end of file
+}
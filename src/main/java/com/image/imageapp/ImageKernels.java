@@ -0,0 +1,148 @@
+package com.image.imageapp;
+
+public final class ImageKernels {
+    private static final int OPAQUE_BLACK = 0xFF000000;
+    private static final int OPAQUE_WHITE = 0xFFFFFFFF;
+    private static final int BLOCK = 64;
+    private static final PixelKernels KERNELS = selectKernels();
+
+    private ImageKernels() {
+    }
+
+    public static PixelKernels kernels() {
+        return KERNELS;
+    }
+
+    public static void negative(int[] in, int inOffset, int[] out, int outOffset, int length) {
+        KERNELS.negative(in, inOffset, out, outOffset, length);
+    }
+
+    public static void threshold(int[] in, int inOffset, int[] out, int outOffset, int length, int threshold) {
+        KERNELS.threshold(in, inOffset, out, outOffset, length, threshold);
+    }
+
+    public static int[] thresholdTable(int threshold) {
+        int[] table = new int[256];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = i >= threshold ? OPAQUE_WHITE : OPAQUE_BLACK;
+        }
+        return table;
+    }
+
+    public static void brightness(int[] in, int inOffset, byte[] out, int outOffset, int length, int[] histogram) {
+        for (int i = 0; i < length; i++) {
+            int value = brightness(in[inOffset + i]);
+            out[outOffset + i] = (byte) value;
+            histogram[value]++;
+        }
+    }
+
+    public static void lookup(byte[] in, int inOffset, int[] table, int[] out, int outOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = table[in[inOffset + i] & 0xFF];
+        }
+    }
+
+    /**
+     * Fills {@code tile} of {@code dst} with the oriented source. The tile is walked in
+     * {@value #BLOCK}x{@value #BLOCK} blocks, so for transposing orientations the source columns
+     * read by one block stay in cache while the destination is written row by row.
+     */
+    public static void orient(ArgbRaster src, ArgbRaster dst, Orientation orientation, Tile tile) {
+        int sourceWidth = src.getWidth();
+        int sourceHeight = src.getHeight();
+        int width = dst.getWidth();
+        int[] in = src.getPixels();
+        int[] out = dst.getPixels();
+        int step = orientation.sourceStep(sourceWidth);
+        for (int by = tile.y(); by < tile.endY(); by += BLOCK) {
+            int endY = Math.min(by + BLOCK, tile.endY());
+            for (int bx = tile.x(); bx < tile.endX(); bx += BLOCK) {
+                int endX = Math.min(bx + BLOCK, tile.endX());
+                for (int y = by; y < endY; y++) {
+                    int s = orientation.sourceIndex(bx, y, sourceWidth, sourceHeight);
+                    for (int d = y * width + bx, end = y * width + endX; d < end; d++, s += step) {
+                        out[d] = in[s];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * In-place flip of rows {@code [startY, endY)}. With {@code flipY} the range covers the upper
+     * half of the image, i.e. {@code (height + 1) / 2} rows, and each row is swapped with its mirror.
+     */
+    public static void flipInPlace(int[] pixels, int width, int height, boolean flipX, boolean flipY,
+                                   int startY, int endY) {
+        for (int y = startY; y < endY; y++) {
+            int row = y * width;
+            int mirror = flipY ? (height - 1 - y) * width : row;
+            if (mirror == row) {
+                if (flipX) reverse(pixels, row, width);
+            } else if (flipX) {
+                for (int a = row, b = mirror + width - 1, end = row + width; a < end; a++, b--) {
+                    int t = pixels[a];
+                    pixels[a] = pixels[b];
+                    pixels[b] = t;
+                }
+            } else {
+                for (int a = row, b = mirror, end = row + width; a < end; a++, b++) {
+                    int t = pixels[a];
+                    pixels[a] = pixels[b];
+                    pixels[b] = t;
+                }
+            }
+        }
+    }
+
+    /**
+     * In-place transpose of a square {@code size}x{@code size} raster for block rows
+     * {@code [startBlock, endBlock)}. Each block above the diagonal is swapped with its mirror block,
+     * so block rows can be processed concurrently.
+     */
+    public static void transposeInPlace(int[] pixels, int size, int startBlock, int endBlock) {
+        for (int bi = startBlock; bi < endBlock; bi++) {
+            int y0 = bi * BLOCK;
+            int y1 = Math.min(y0 + BLOCK, size);
+            for (int x0 = y0; x0 < size; x0 += BLOCK) {
+                int x1 = Math.min(x0 + BLOCK, size);
+                for (int y = y0; y < y1; y++) {
+                    for (int x = Math.max(x0, y + 1); x < x1; x++) {
+                        int a = y * size + x;
+                        int b = x * size + y;
+                        int t = pixels[a];
+                        pixels[a] = pixels[b];
+                        pixels[b] = t;
+                    }
+                }
+            }
+        }
+    }
+
+    public static int blockCount(int size) {
+        return (size + BLOCK - 1) / BLOCK;
+    }
+
+    /**
+     * HSB brightness scaled to 0-255, i.e. the largest colour channel. For every 8-bit colour this
+     * equals {@code (int) (color.getBrightness() * 255)} of the matching JavaFX {@code Color}, which
+     * is the value the original Color-based kernels compared and differenced.
+     */
+    public static int brightness(int argb) {
+        return Math.max((argb >> 16) & 0xFF, Math.max((argb >> 8) & 0xFF, argb & 0xFF));
+    }
+
+    private static PixelKernels selectKernels() {
+        PixelKernels vector = Boolean.parseBoolean(System.getProperty("imageapp.vector", "true")) ? PixelKernels.vector() : null;
+        return vector != null ? vector : PixelKernels.scalar();
+    }
+
+    public static void reverse(int[] pixels, int from, int length) {
+        for (int a = from, b = from + length - 1; a < b; a++, b--) {
+            int t = pixels[a];
+            pixels[a] = pixels[b];
+            pixels[b] = t;
+        }
+    }
+}
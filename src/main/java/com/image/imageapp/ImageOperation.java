@@ -0,0 +1,11 @@
+package com.image.imageapp;
+
+public interface ImageOperation {
+
+    String getName();
+
+    /** Name under which runs are aggregated in {@link OperationMetrics}; parameters are left out. */
+    default String getCategory() {
+        return getName();
+    }
+}
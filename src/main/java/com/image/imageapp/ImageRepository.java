@@ -0,0 +1,294 @@
+package com.image.imageapp;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decoded JPEG files of the directory being browsed. Requested files are decoded on background
+ * threads through {@link StreamingJpegReader}, while the neighbouring files of the same directory
+ * are prefetched on a low-priority thread. Decoded rasters stay in an LRU cache bounded by bytes;
+ * rasters pushed out of it are kept behind soft references until the collector needs the memory.
+ * Entries are keyed by path and modification time, so a file changed on disk is decoded again.
+ * Cached rasters are shared and must not be modified by callers.
+ */
+public final class ImageRepository implements AutoCloseable {
+    public static final long LARGE_IMAGE_PIXELS = 4_000_000L;
+    private static final int PREFETCH_DISTANCE = 2;
+
+    private record Key(Path path, FileTime modified) {
+    }
+
+    private final long budgetBytes;
+    private final LinkedHashMap<Key, ArgbRaster> recent = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Key, SoftReference<ArgbRaster>> evicted = new HashMap<>();
+    private final Map<Key, Decode> pending = new HashMap<>();
+    private final ThreadPoolExecutor loader = executor("image-loader", 2, Thread.NORM_PRIORITY);
+    private final ThreadPoolExecutor prefetcher = executor("image-prefetch", 1, Thread.MIN_PRIORITY);
+    private long cachedBytes;
+
+    public ImageRepository(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public synchronized ArgbRaster cached(Path path) {
+        try {
+            return lookup(key(path));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public CompletableFuture<ArgbRaster> load(Path path) {
+        return request(path, loader);
+    }
+
+    /**
+     * Subsampled decode of a file with more than {@link #LARGE_IMAGE_PIXELS} pixels, at least as
+     * large as the given bounds. Completes with {@code null} for smaller files, which are decoded
+     * in full quickly enough.
+     */
+    public CompletableFuture<ArgbRaster> thumbnail(Path path, int maxWidth, int maxHeight) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return readSubsampled(path, maxWidth, maxHeight);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, loader);
+    }
+
+    /**
+     * Queues decoding of the files next to {@code current} in its directory. Prefetches still
+     * queued for files that are no longer neighbours are dropped.
+     */
+    public void prefetch(Path current) {
+        List<Path> files;
+        try {
+            files = siblings(current);
+        } catch (IOException e) {
+            AppLogger.log(AppLogger.Level.ERROR, "Nie udało się odczytać katalogu: " + e.getMessage());
+            return;
+        }
+        int index = files.indexOf(current.toAbsolutePath().normalize());
+        if (index < 0) return;
+        List<Path> wanted = new ArrayList<>();
+        for (int distance = 1; distance <= PREFETCH_DISTANCE; distance++) {
+            if (index + distance < files.size()) wanted.add(files.get(index + distance));
+            if (index - distance >= 0) wanted.add(files.get(index - distance));
+        }
+        Set<Path> keep = new HashSet<>(wanted);
+        prefetcher.getQueue().removeIf(task -> {
+            Decode decode = (Decode) task;
+            if (decode.requested || keep.contains(decode.key.path())) return false;
+            decode.drop();
+            return true;
+        });
+        for (Path path : wanted) {
+            request(path, prefetcher);
+        }
+    }
+
+    /**
+     * JPEG files of the directory containing {@code path}, sorted by name.
+     */
+    public static List<Path> siblings(Path path) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Path directory = path.toAbsolutePath().normalize().getParent();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                file -> file.getFileName().toString().toLowerCase().endsWith(".jpg") && Files.isRegularFile(file))) {
+            stream.forEach(files::add);
+        }
+        files.sort(Comparator.comparing(file -> file.getFileName().toString(), String.CASE_INSENSITIVE_ORDER));
+        return files;
+    }
+
+    @Override
+    public void close() {
+        loader.shutdownNow();
+        prefetcher.shutdownNow();
+        synchronized (this) {
+            recent.clear();
+            evicted.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    public static ArgbRaster read(Path path) throws IOException {
+        try (StreamingJpegReader reader = new StreamingJpegReader(path)) {
+            ArgbRaster raster = new ArgbRaster(reader.getWidth(), reader.getHeight());
+            reader.readRows(0, reader.getHeight(), raster.getPixels(), 0);
+            return raster;
+        }
+    }
+
+    public static ArgbRaster readSubsampled(Path path, int maxWidth, int maxHeight) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(path.toFile())) {
+            if (stream == null) {
+                throw new IIOException("Nie można otworzyć pliku: " + path);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                throw new IIOException("Nieobsługiwany format pliku: " + path.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height <= LARGE_IMAGE_PIXELS) {
+                    return null;
+                }
+                int step = Math.max(1, Math.min(width / Math.max(1, maxWidth), height / Math.max(1, maxHeight)));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage image = reader.read(0, param);
+                ArgbRaster raster = new ArgbRaster(image.getWidth(), image.getHeight());
+                image.getRGB(0, 0, raster.getWidth(), raster.getHeight(), raster.getPixels(), 0, raster.getWidth());
+                return raster;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private synchronized CompletableFuture<ArgbRaster> request(Path path, ExecutorService executor) {
+        Key key;
+        try {
+            key = key(path);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        ArgbRaster hit = lookup(key);
+        if (hit != null) {
+            return CompletableFuture.completedFuture(hit);
+        }
+        Decode decode = pending.get(key);
+        if (decode == null) {
+            decode = new Decode(key);
+            decode.requested = executor == loader;
+            pending.put(key, decode);
+            executor.execute(decode);
+        } else if (executor == loader && !decode.requested) {
+            // queued behind other prefetches: whichever thread picks it up first decodes it
+            decode.requested = true;
+            loader.execute(decode);
+        }
+        return decode.result;
+    }
+
+    private ArgbRaster lookup(Key key) {
+        ArgbRaster raster = recent.get(key);
+        if (raster != null) {
+            return raster;
+        }
+        SoftReference<ArgbRaster> reference = evicted.remove(key);
+        raster = reference != null ? reference.get() : null;
+        if (raster != null) {
+            store(key, raster);
+        }
+        return raster;
+    }
+
+    private void store(Key key, ArgbRaster raster) {
+        if (recent.put(key, raster) == null) {
+            cachedBytes += bytes(raster);
+        }
+        Iterator<Map.Entry<Key, ArgbRaster>> eldest = recent.entrySet().iterator();
+        while (cachedBytes > budgetBytes && recent.size() > 1) {
+            Map.Entry<Key, ArgbRaster> entry = eldest.next();
+            cachedBytes -= bytes(entry.getValue());
+            evicted.put(entry.getKey(), new SoftReference<>(entry.getValue()));
+            eldest.remove();
+        }
+        evicted.values().removeIf(reference -> reference.get() == null);
+    }
+
+    private synchronized void finished(Decode decode, ArgbRaster raster) {
+        pending.remove(decode.key, decode);
+        if (raster != null) {
+            store(decode.key, raster);
+        }
+    }
+
+    private synchronized void dropped(Decode decode) {
+        pending.remove(decode.key, decode);
+    }
+
+    private static Key key(Path path) throws IOException {
+        Path absolute = path.toAbsolutePath().normalize();
+        return new Key(absolute, Files.getLastModifiedTime(absolute));
+    }
+
+    private static long bytes(ArgbRaster raster) {
+        return (long) raster.getWidth() * raster.getHeight() * Integer.BYTES;
+    }
+
+    private static ThreadPoolExecutor executor(String name, int threads, int priority) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            thread.setPriority(priority);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private final class Decode implements Runnable {
+        private final Key key;
+        private final CompletableFuture<ArgbRaster> result = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile boolean requested;
+
+        Decode(Key key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) return;
+            try {
+                ArgbRaster raster = read(key.path());
+                finished(this, raster);
+                result.complete(raster);
+            } catch (IOException | RuntimeException | OutOfMemoryError e) {
+                finished(this, null);
+                result.completeExceptionally(e);
+            }
+        }
+
+        void drop() {
+            if (!claimed.compareAndSet(false, true)) return;
+            dropped(this);
+            result.completeExceptionally(new CancellationException("Pominięto wczytywanie z wyprzedzeniem: " + key.path().getFileName()));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.image.imageapp;
+
+/** Operation whose effect can be undone exactly by another operation. */
+public interface InvertibleOperation extends ImageOperation {
+
+    ImageOperation inverse();
+
+    /**
+     * Whether the inverse can overwrite the output of this operation on a {@code width}×{@code height}
+     * input instead of allocating a new raster.
+     */
+    default boolean invertsInPlace(int width, int height) {
+        return true;
+    }
+}
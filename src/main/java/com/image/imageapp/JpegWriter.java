@@ -0,0 +1,189 @@
+package com.image.imageapp;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.event.IIOWriteProgressListener;
+import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * JPEG encoding straight from ARGB pixels. The encoder reads the raster's own {@code int[]}
+ * through an RGB colour model that ignores the alpha byte, so no per-pixel conversion or copy is
+ * made, and the output goes through one large buffer onto a file channel.
+ */
+public final class JpegWriter {
+    public static final float DEFAULT_QUALITY = 0.75f;
+    private static final int STREAM_BAND_ROWS = 32;
+    private static final int OUTPUT_BUFFER = 1 << 20;
+    private static final DirectColorModel RGB = new DirectColorModel(24, 0x00FF0000, 0x0000FF00, 0x000000FF);
+
+    private JpegWriter() {
+    }
+
+    public static BufferedImage toBufferedImage(ArgbRaster raster) {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        DataBufferInt buffer = new DataBufferInt(raster.getPixels(), width * height);
+        SinglePixelPackedSampleModel sampleModel = new SinglePixelPackedSampleModel(DataBuffer.TYPE_INT, width, height, RGB.getMasks());
+        return new BufferedImage(RGB, Raster.createWritableRaster(sampleModel, buffer, null), false, null);
+    }
+
+    public static void write(ArgbRaster raster, Path target) throws IOException {
+        write(raster, target, DEFAULT_QUALITY, ProgressListener.NONE);
+    }
+
+    public static void write(ArgbRaster raster, Path target, float quality, ProgressListener listener) throws IOException {
+        try (OutputStream out = open(target)) {
+            encode(toBufferedImage(raster), out, quality, listener);
+        }
+    }
+
+    public static void write(RowSource source, Path target) throws IOException {
+        write(source, target, DEFAULT_QUALITY);
+    }
+
+    /**
+     * Encodes rows pulled from {@code source} on demand. The JPEG encoder reads its source raster
+     * one scanline at a time from top to bottom, so only one band of rows is held in memory.
+     */
+    public static void write(RowSource source, Path target, float quality) throws IOException {
+        try (OutputStream out = open(target)) {
+            write(source, out, quality);
+        }
+    }
+
+    /** Like {@link #write(RowSource, Path, float)}, encoding into {@code out}, which is left open. */
+    public static void write(RowSource source, OutputStream out, float quality) throws IOException {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        SinglePixelPackedSampleModel sampleModel = new SinglePixelPackedSampleModel(DataBuffer.TYPE_INT, width, height, RGB.getMasks());
+        RowPullBuffer buffer = new RowPullBuffer(source);
+        BufferedImage image = new BufferedImage(RGB, Raster.createWritableRaster(sampleModel, buffer, null), false, null);
+        try {
+            encode(image, out, quality, ProgressListener.NONE);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static OutputStream open(Path target) throws IOException {
+        return new BufferedOutputStream(Channels.newOutputStream(FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)), OUTPUT_BUFFER);
+    }
+
+    private static void encode(RenderedImage image, OutputStream out, float quality, ProgressListener listener) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IIOException("Brak kodera JPEG.");
+        }
+        ImageWriter writer = writers.next();
+        JPEGImageWriteParam param = new JPEGImageWriteParam(null);
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(Math.max(0f, Math.min(1f, quality)));
+        writer.addIIOWriteProgressListener(new IIOWriteProgressListener() {
+            @Override
+            public void imageStarted(ImageWriter source, int imageIndex) {
+                listener.progress(0, 100);
+            }
+
+            @Override
+            public void imageProgress(ImageWriter source, float percentageDone) {
+                listener.progress((long) percentageDone, 100);
+            }
+
+            @Override
+            public void imageComplete(ImageWriter source) {
+                listener.progress(100, 100);
+            }
+
+            @Override
+            public void thumbnailStarted(ImageWriter source, int imageIndex, int thumbnailIndex) {
+            }
+
+            @Override
+            public void thumbnailProgress(ImageWriter source, float percentageDone) {
+            }
+
+            @Override
+            public void thumbnailComplete(ImageWriter source) {
+            }
+
+            @Override
+            public void writeAborted(ImageWriter source) {
+            }
+        });
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static final class RowPullBuffer extends DataBuffer {
+        private final RowSource source;
+        private final int width;
+        private final int[] band;
+        private int bandStart;
+        private int bandRows;
+
+        RowPullBuffer(RowSource source) {
+            super(DataBuffer.TYPE_INT, source.getWidth() * source.getHeight());
+            this.source = source;
+            this.width = source.getWidth();
+            this.band = new int[STREAM_BAND_ROWS * width];
+        }
+
+        @Override
+        public int getElem(int bank, int i) {
+            int row = i / width;
+            if (row >= bandStart + bandRows) {
+                fetch(row);
+            } else if (row < bandStart) {
+                throw new IllegalStateException("Koder zażądał wcześniejszego wiersza: " + row);
+            }
+            return band[i - bandStart * width];
+        }
+
+        @Override
+        public void setElem(int bank, int i, int val) {
+            throw new UnsupportedOperationException("Bufor strumieniowy jest tylko do odczytu.");
+        }
+
+        private void fetch(int row) {
+            int start = bandStart + bandRows;
+            try {
+                while (start + STREAM_BAND_ROWS <= row) {
+                    source.readRows(start, STREAM_BAND_ROWS, band, 0);
+                    start += STREAM_BAND_ROWS;
+                }
+                int rows = Math.min(STREAM_BAND_ROWS, source.getHeight() - start);
+                source.readRows(start, rows, band, 0);
+                bandStart = start;
+                bandRows = rows;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.image.imageapp;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of non-negative values in the spirit of HdrHistogram: values below
+ * {@code 2^SUB_BUCKET_BITS} are counted exactly, larger ones in buckets whose width is at most
+ * 1/64 of their value, so every reported percentile is within about 1.6% of the recorded value.
+ * Recording is lock-free and safe from any thread.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int HALF_SUB_BUCKET = 1 << (SUB_BUCKET_BITS - 1);
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(Long.MAX_VALUE) + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        counts.incrementAndGet(index(clamped));
+        count.incrementAndGet();
+        sum.addAndGet(clamped);
+        max.accumulateAndGet(clamped, Math::max);
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long n = other.counts.get(i);
+            if (n != 0) {
+                counts.addAndGet(i, n);
+            }
+        }
+        count.addAndGet(other.count.get());
+        sum.addAndGet(other.sum.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    public long valueAtPercentile(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(representative(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int index(long value) {
+        int magnitude = 64 - Long.numberOfLeadingZeros(value);
+        if (magnitude <= SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return shift * HALF_SUB_BUCKET + (int) (value >>> shift);
+    }
+
+    private static long representative(int index) {
+        if (index < 2 * HALF_SUB_BUCKET) {
+            return index;
+        }
+        int shift = index / HALF_SUB_BUCKET - 1;
+        long lower = (long) (index - shift * HALF_SUB_BUCKET) << shift;
+        return lower + (1L << (shift - 1));
+    }
+}
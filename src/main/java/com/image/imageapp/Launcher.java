@@ -0,0 +1,40 @@
+package com.image.imageapp;
+
+import javafx.application.Application;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * Entry point of the application. It does not extend {@code Application}, so the Java launcher
+ * does not start the JavaFX toolkit before {@link #main} runs: {@code --batch}, {@code --watch}
+ * and {@code --serve} run without loading any JavaFX class and work on machines without a
+ * display. Any other arguments start the window through {@link Main}.
+ */
+public final class Launcher {
+
+    private Launcher() {
+    }
+
+    public static void main(String[] args) {
+        ToIntFunction<String[]> mode = args.length == 0 ? null : switch (args[0]) {
+            case "--batch" -> BatchProcessor::run;
+            case "--watch" -> WatchProcessor::run;
+            case "--serve" -> ProcessingServer::run;
+            default -> null;
+        };
+        if (mode != null) {
+            runHeadless(mode, Arrays.copyOfRange(args, 1, args.length));
+        }
+        Application.launch(Main.class, args);
+    }
+
+    /** Runs a mode without the user interface and exits with the status it returns. */
+    private static void runHeadless(ToIntFunction<String[]> mode, String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int status = mode.applyAsInt(args);
+        ProcessingPool.shutdown();
+        AppLogger.shutdown();
+        System.exit(status);
+    }
+}
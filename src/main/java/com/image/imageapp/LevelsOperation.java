@@ -0,0 +1,36 @@
+package com.image.imageapp;
+
+/**
+ * Poziomy: input values from {@code black} to {@code white} are stretched over the full range, with
+ * {@code gamma} applied to the midtones as in {@link GammaOperation}.
+ */
+public record LevelsOperation(int black, int white, double gamma) implements ToneOperation {
+
+    public LevelsOperation {
+        if (black < 0 || white > 255 || black >= white) {
+            throw new IllegalArgumentException("Poziomy muszą spełniać 0 <= czerń < biel <= 255: " + black + "-" + white);
+        }
+        if (!(gamma >= GammaOperation.MIN_GAMMA && gamma <= GammaOperation.MAX_GAMMA)) {
+            throw new IllegalArgumentException("Współczynnik gamma musi mieścić się w zakresie " + GammaOperation.MIN_GAMMA
+                    + "-" + GammaOperation.MAX_GAMMA + ": " + gamma);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Poziomy (" + black + "-" + white + (gamma == 1 ? "" : ", gamma " + gamma) + ")";
+    }
+
+    @Override
+    public String getCategory() {
+        return "Poziomy";
+    }
+
+    @Override
+    public ToneMap toneMap() {
+        return ToneMap.channels(i -> {
+            double stretched = (double) (Math.clamp(i, black, white) - black) / (white - black);
+            return (int) Math.round(255 * Math.pow(stretched, 1 / gamma));
+        });
+    }
+}
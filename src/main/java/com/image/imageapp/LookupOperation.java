@@ -0,0 +1,25 @@
+package com.image.imageapp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Consecutive tone operations of a {@link Pipeline} run as one pass over their composed map. */
+record LookupOperation(List<ToneOperation> stages, ToneMap toneMap) implements ToneOperation {
+
+    static LookupOperation of(List<ToneOperation> stages) {
+        ToneMap map = stages.get(0).toneMap();
+        for (int i = 1; i < stages.size(); i++) {
+            map = map.then(stages.get(i).toneMap());
+        }
+        return new LookupOperation(List.copyOf(stages), map);
+    }
+
+    @Override
+    public String getName() {
+        List<String> names = new ArrayList<>();
+        for (ToneOperation stage : stages) {
+            names.add(stage.getName());
+        }
+        return String.join(" → ", names);
+    }
+}
@@ -8,11 +8,19 @@ public class Main extends Application {
     @Override
     public void start(Stage primaryStage) {
         AppLogger.log(AppLogger.Level.INFO, "Aplikacja uruchomiona");
-        primaryStage.setOnCloseRequest(e -> AppLogger.log(AppLogger.Level.INFO, "Aplikacja zamknięta"));
-        new ImageApp();
+        new ImageApp().start(primaryStage);
     }
 
+    /** Called by JavaFX however the application ends; the pool and logger threads are daemons. */
+    @Override
+    public void stop() {
+        ProcessingPool.shutdown();
+        AppLogger.log(AppLogger.Level.INFO, "Aplikacja zamknięta");
+        AppLogger.shutdown();
+    }
+
+    /** Kept for existing run configurations; see {@link Launcher}. */
     public static void main(String[] args) {
-        launch(args);
+        Launcher.main(args);
     }
 }
@@ -0,0 +1,113 @@
+package com.image.imageapp;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * ARGB raster kept in a memory-mapped scratch file instead of on the heap. The file is mapped in
+ * chunks of whole rows so images above 2 GB of pixel data are supported. The chunks belong to one
+ * shared {@link Arena}, so {@link #close()} unmaps them at once instead of leaving that to the
+ * garbage collector, and deletes the file; the raster must not be used afterwards.
+ */
+public final class MappedRaster implements RowSource {
+    private static final long CHUNK_BYTES = 1L << 28;
+
+    private final int width;
+    private final int height;
+    private final int rowsPerChunk;
+    private final FileChannel channel;
+    private final Arena arena = Arena.ofShared();
+    private final IntBuffer[] chunks;
+    private boolean closed;
+
+    public MappedRaster(int width, int height) throws IOException {
+        this.width = width;
+        this.height = height;
+        this.rowsPerChunk = (int) Math.max(1, CHUNK_BYTES / (4L * width));
+        this.chunks = new IntBuffer[(height + rowsPerChunk - 1) / rowsPerChunk];
+        Path file = Files.createTempFile("imageapp-", ".raster");
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE, StandardOpenOption.SPARSE);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        try {
+            for (int i = 0; i < chunks.length; i++) {
+                long rows = Math.min(rowsPerChunk, height - (long) i * rowsPerChunk);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, 4L * width * rowsPerChunk * i, 4L * width * rows, arena)
+                        .asByteBuffer()
+                        .order(ByteOrder.nativeOrder())
+                        .asIntBuffer();
+            }
+        } catch (IOException | RuntimeException e) {
+            // e.g. no space for the file or no address space left for the mapping
+            close();
+            throw e;
+        }
+    }
+
+    public static MappedRaster copyOf(RowSource source, int bandRows) throws IOException {
+        MappedRaster raster = new MappedRaster(source.getWidth(), source.getHeight());
+        try {
+            int[] band = new int[bandRows * source.getWidth()];
+            for (int y = 0; y < source.getHeight(); y += bandRows) {
+                int rows = Math.min(bandRows, source.getHeight() - y);
+                source.readRows(y, rows, band, 0);
+                raster.writeRows(y, rows, band, 0);
+            }
+            return raster;
+        } catch (IOException | RuntimeException e) {
+            raster.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void readRows(int y, int count, int[] dst, int offset) {
+        for (int row = y; row < y + count; row++) {
+            chunks[row / rowsPerChunk].get((row % rowsPerChunk) * width, dst, offset + (row - y) * width, width);
+        }
+    }
+
+    public void readBlock(int x, int y, int blockWidth, int blockHeight, int[] dst) {
+        for (int row = y; row < y + blockHeight; row++) {
+            chunks[row / rowsPerChunk].get((row % rowsPerChunk) * width + x, dst, (row - y) * blockWidth, blockWidth);
+        }
+    }
+
+    public void writeRows(int y, int count, int[] src, int offset) {
+        for (int row = y; row < y + count; row++) {
+            chunks[row / rowsPerChunk].put((row % rowsPerChunk) * width, src, offset + (row - y) * width, width);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            arena.close();
+        } finally {
+            channel.close();
+        }
+    }
+}
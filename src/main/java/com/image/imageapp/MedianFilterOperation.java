@@ -0,0 +1,30 @@
+package com.image.imageapp;
+
+public record MedianFilterOperation(int radius, BorderMode border) implements NeighbourhoodOperation {
+
+    public MedianFilterOperation {
+        if (radius < 1) {
+            throw new IllegalArgumentException("Promień musi być dodatni.");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Filtr medianowy (promień " + radius + ")";
+    }
+
+    @Override
+    public String getCategory() {
+        return "Filtr medianowy";
+    }
+
+    @Override
+    public int getHalo() {
+        return radius;
+    }
+
+    @Override
+    public void apply(RasterWindow in, RasterWindow out, int imageWidth, int imageHeight) {
+        FilterKernels.median(in, out, imageWidth, imageHeight, radius, border);
+    }
+}
@@ -0,0 +1,129 @@
+package com.image.imageapp;
+
+/**
+ * Resolution pyramid of a {@link TiledRaster} for display. Level 0 is the raster itself; every
+ * further level halves both dimensions with a 2x2 box filter, until the level fits in one tile.
+ * Levels are copy-on-write rasters as well, so {@link #update} recomputes only the part of each
+ * level under a dirty region and leaves the previous pyramid intact.
+ */
+public final class MipPyramid {
+    private final TiledRaster[] levels;
+
+    private MipPyramid(TiledRaster[] levels) {
+        this.levels = levels;
+    }
+
+    public static MipPyramid of(TiledRaster base, TileExecutor executor) {
+        int count = 1;
+        for (int width = base.getWidth(), height = base.getHeight(); width > Tile.DEFAULT_SIZE || height > Tile.DEFAULT_SIZE; count++) {
+            width = (width + 1) / 2;
+            height = (height + 1) / 2;
+        }
+        TiledRaster[] levels = new TiledRaster[count];
+        levels[0] = base;
+        for (int level = 1; level < count; level++) {
+            TiledRaster source = levels[level - 1];
+            ArgbRaster raster = new ArgbRaster((source.getWidth() + 1) / 2, (source.getHeight() + 1) / 2);
+            executor.forEachTile(raster.getWidth(), raster.getHeight(), tile -> {
+                RasterWindow window = downsample(source, tile);
+                for (int y = tile.y(); y < tile.endY(); y++) {
+                    System.arraycopy(window.pixels(), window.index(tile.x(), y), raster.getPixels(),
+                            y * raster.getWidth() + tile.x(), tile.width());
+                }
+            });
+            levels[level] = TiledRaster.of(raster);
+        }
+        return new MipPyramid(levels);
+    }
+
+    /** Pyramid of {@code base}, which differs from this pyramid's base only inside {@code dirty}. */
+    public MipPyramid update(TiledRaster base, Tile dirty, TileExecutor executor) {
+        if (base.getWidth() != getWidth() || base.getHeight() != getHeight()) {
+            return of(base, executor);
+        }
+        TiledRaster[] updated = levels.clone();
+        updated[0] = base;
+        Tile region = dirty;
+        for (int level = 1; level < levels.length; level++) {
+            region = region(region, level - 1, level);
+            Tile levelRegion = region;
+            TiledRaster source = updated[level - 1];
+            TiledRaster target = levels[level].copyOnWrite(levelRegion);
+            executor.forEachTile(levelRegion.width(), levelRegion.height(), local -> {
+                Tile tile = new Tile(levelRegion.x() + local.x(), levelRegion.y() + local.y(), local.width(), local.height());
+                target.write(downsample(source, tile), tile);
+            });
+            updated[level] = target;
+        }
+        return new MipPyramid(updated);
+    }
+
+    public int getWidth() {
+        return levels[0].getWidth();
+    }
+
+    public int getHeight() {
+        return levels[0].getHeight();
+    }
+
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    public TiledRaster level(int level) {
+        return levels[level];
+    }
+
+    /** Coarsest level still showing at least one of its pixels per screen pixel at {@code scale}. */
+    public int levelFor(double scale) {
+        int level = scale >= 1 ? 0 : (int) Math.floor(Math.log(1 / scale) / Math.log(2));
+        return Math.min(level, levels.length - 1);
+    }
+
+    /** Part of level {@code to} covering {@code region} of level {@code from}. */
+    public Tile region(Tile region, int from, int to) {
+        TiledRaster level = levels[to];
+        if (to >= from) {
+            int shift = to - from;
+            int x = region.x() >> shift;
+            int y = region.y() >> shift;
+            int endX = Math.min(level.getWidth(), ((region.endX() - 1) >> shift) + 1);
+            int endY = Math.min(level.getHeight(), ((region.endY() - 1) >> shift) + 1);
+            return new Tile(x, y, endX - x, endY - y);
+        }
+        int shift = from - to;
+        int x = region.x() << shift;
+        int y = region.y() << shift;
+        return new Tile(x, y, Math.min(level.getWidth(), region.endX() << shift) - x,
+                Math.min(level.getHeight(), region.endY() << shift) - y);
+    }
+
+    /** Pixels of {@code tile} of the level above {@code source}, averaged over 2x2 source pixels. */
+    private static RasterWindow downsample(TiledRaster source, Tile tile) {
+        int sourceX = tile.x() * 2;
+        int sourceY = tile.y() * 2;
+        Tile bounds = new Tile(sourceX, sourceY, Math.min(tile.width() * 2, source.getWidth() - sourceX),
+                Math.min(tile.height() * 2, source.getHeight() - sourceY));
+        int[] in = source.read(bounds, new int[bounds.width() * bounds.height()]).pixels();
+        int[] out = new int[tile.width() * tile.height()];
+        int stride = bounds.width();
+        for (int y = 0; y < tile.height(); y++) {
+            int row0 = 2 * y * stride;
+            int row1 = Math.min(2 * y + 1, bounds.height() - 1) * stride;
+            for (int x = 0; x < tile.width(); x++) {
+                int x0 = 2 * x;
+                int x1 = Math.min(x0 + 1, stride - 1);
+                out[y * tile.width() + x] = average(in[row0 + x0], in[row0 + x1], in[row1 + x0], in[row1 + x1]);
+            }
+        }
+        return new RasterWindow(out, tile);
+    }
+
+    private static int average(int a, int b, int c, int d) {
+        int alpha = ((a >>> 24) + (b >>> 24) + (c >>> 24) + (d >>> 24) + 2) >> 2;
+        int red = (((a >> 16) & 0xFF) + ((b >> 16) & 0xFF) + ((c >> 16) & 0xFF) + ((d >> 16) & 0xFF) + 2) >> 2;
+        int green = (((a >> 8) & 0xFF) + ((b >> 8) & 0xFF) + ((c >> 8) & 0xFF) + ((d >> 8) & 0xFF) + 2) >> 2;
+        int blue = ((a & 0xFF) + (b & 0xFF) + (c & 0xFF) + (d & 0xFF) + 2) >> 2;
+        return alpha << 24 | red << 16 | green << 8 | blue;
+    }
+}
@@ -0,0 +1,29 @@
+package com.image.imageapp;
+
+public record NegativeOperation() implements ToneOperation, InvertibleOperation {
+
+    @Override
+    public String getName() {
+        return "Negatyw";
+    }
+
+    @Override
+    public ImageOperation inverse() {
+        return this;
+    }
+
+    @Override
+    public ToneMap toneMap() {
+        return ToneMap.channels(i -> 255 - i);
+    }
+
+    @Override
+    public boolean hasKernel() {
+        return true;
+    }
+
+    @Override
+    public void apply(int[] in, int inOffset, int[] out, int outOffset, int length) {
+        ImageKernels.negative(in, inOffset, out, outOffset, length);
+    }
+}
@@ -0,0 +1,13 @@
+package com.image.imageapp;
+
+/**
+ * Operation reading up to {@link #getHalo()} pixels around each output pixel. {@code in} covers
+ * {@code out.bounds()} grown by the halo and clipped to the image; neighbours outside the image are
+ * the operation's own concern.
+ */
+public interface NeighbourhoodOperation extends ImageOperation {
+
+    int getHalo();
+
+    void apply(RasterWindow in, RasterWindow out, int imageWidth, int imageHeight);
+}
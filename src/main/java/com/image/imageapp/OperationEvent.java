@@ -0,0 +1,47 @@
+package com.image.imageapp;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("com.image.imageapp.Operation")
+@Label("Operacja na obrazie")
+@Category("ImageApp")
+@Description("Jedna operacja wykonana w aplikacji; czas trwania zdarzenia to czas rzeczywisty operacji.")
+@StackTrace(false)
+class OperationEvent extends Event {
+    @Label("Operacja")
+    String operation;
+
+    @Label("Wynik")
+    String outcome;
+
+    @Label("Szerokość")
+    int width;
+
+    @Label("Wysokość")
+    int height;
+
+    @Label("Oczekiwanie w kolejce")
+    @Timespan
+    long queueTime;
+
+    @Label("Czas pracy wątków")
+    @Timespan
+    long workerTime;
+
+    @Label("Liczba kafelków")
+    long tiles;
+
+    @Label("Zaalokowana pamięć")
+    @DataAmount
+    long allocated;
+
+    @Label("Megapiksele na sekundę")
+    double megapixelsPerSecond;
+}
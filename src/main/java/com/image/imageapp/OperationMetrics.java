@@ -0,0 +1,66 @@
+package com.image.imageapp;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of {@link OperationStats}, keyed by operation and image size class so that slow
+ * operations can be told apart from merely large images.
+ */
+public final class OperationMetrics {
+    private static final String[] SIZE_CLASSES = {"< 1 MP", "1-4 MP", "4-16 MP", "16-64 MP", "≥ 64 MP"};
+    private static final ConcurrentMap<String, OperationStats> STATS = new ConcurrentHashMap<>();
+
+    private OperationMetrics() {
+    }
+
+    static OperationStats stats(String operation, long pixels) {
+        String sizeClass = sizeClass(pixels);
+        return STATS.computeIfAbsent(operation + '\u0000' + sizeClass, key -> register(new OperationStats(operation, sizeClass)));
+    }
+
+    public static List<OperationStats> snapshot() {
+        List<OperationStats> stats = new ArrayList<>(STATS.values());
+        stats.sort(Comparator.comparing(OperationStats::getOperation)
+                .thenComparing(s -> List.of(SIZE_CLASSES).indexOf(s.getSizeClass())));
+        return stats;
+    }
+
+    public static String describe() {
+        StringBuilder text = new StringBuilder(String.format("%-22s %-9s %5s %9s %9s %9s %8s %9s%n",
+                "Operacja", "Rozmiar", "Liczba", "p50 [ms]", "p99 [ms]", "max [ms]", "MP/s", "MB/op"));
+        for (OperationStats stats : snapshot()) {
+            text.append(String.format("%-22.22s %-9s %5d %9.1f %9.1f %9.1f %8.1f %9.1f%n",
+                    stats.getOperation(), stats.getSizeClass(), stats.getCount(), stats.getP50Millis(),
+                    stats.getP99Millis(), stats.getMaxMillis(), stats.getMegapixelsPerSecond(),
+                    stats.getAllocatedBytesPerOperation() / (1024.0 * 1024.0)));
+        }
+        return text.toString();
+    }
+
+    static String sizeClass(long pixels) {
+        long megapixels = pixels / 1_000_000;
+        int index = 0;
+        for (long limit = 1; index < SIZE_CLASSES.length - 1 && megapixels >= limit; limit *= 4) {
+            index++;
+        }
+        return SIZE_CLASSES[index];
+    }
+
+    private static OperationStats register(OperationStats stats) {
+        try {
+            ObjectName name = new ObjectName("com.image.imageapp:type=OperationStats,operation="
+                    + ObjectName.quote(stats.getOperation()) + ",size=" + ObjectName.quote(stats.getSizeClass()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(stats, name);
+        } catch (JMException e) {
+            AppLogger.log(AppLogger.Level.ERROR, "Nie udało się zarejestrować statystyk JMX: " + e.getMessage());
+        }
+        return stats;
+    }
+}
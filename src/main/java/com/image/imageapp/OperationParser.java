@@ -0,0 +1,195 @@
+package com.image.imageapp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses a textual list of operations such as {@code negative,threshold=128,rotate=90,scale=800x600}
+ * into a {@link Pipeline}. Recognised operations: {@code negative}, {@code threshold=N},
+ * {@code contour}, {@code rotate=90|-90|180}, {@code flip=h|v}, {@code scale=WxH[:filter]},
+ * where the filter is one of {@link ResampleFilter} (default {@code nearest}), the filters of
+ * {@link FilterType}, e.g. {@code sobel}, {@code gauss=3} or {@code median=2:clamp}, optionally
+ * followed by a {@link BorderMode} (default {@code reflect}), and the tone operations
+ * {@code grayscale[=601|709]}, {@code gamma=G}, {@code brightness=N}, {@code contrast=C},
+ * {@code levels=BLACK:WHITE[:GAMMA]} and {@code curves[:r|g|b]=IN:OUT/IN:OUT/...}.
+ */
+public final class OperationParser {
+
+    private OperationParser() {
+    }
+
+    public static Pipeline parse(String specification) {
+        List<ImageOperation> stages = new ArrayList<>();
+        for (String token : specification.split(",")) {
+            if (!token.isBlank()) {
+                stages.add(parseOperation(token.trim()));
+            }
+        }
+        if (stages.isEmpty()) {
+            throw new IllegalArgumentException("Nie podano żadnych operacji.");
+        }
+        return new Pipeline(stages);
+    }
+
+    public static ImageOperation parseOperation(String token) {
+        int separator = token.indexOf('=');
+        String name = (separator < 0 ? token : token.substring(0, separator)).toLowerCase(Locale.ROOT);
+        String value = separator < 0 ? null : token.substring(separator + 1);
+        switch (name) {
+            case "negative":
+                requireNoValue(token, value);
+                return new NegativeOperation();
+            case "contour":
+                requireNoValue(token, value);
+                return new ContourOperation();
+            case "threshold": {
+                int threshold = parseInt(token, value);
+                if (threshold < 0 || threshold > 255) {
+                    throw new IllegalArgumentException("Próg musi mieścić się w zakresie 0-255: " + token);
+                }
+                return new ThresholdOperation(threshold);
+            }
+            case "rotate":
+                return new RotateOperation(parseInt(token, value));
+            case "flip":
+                if ("h".equalsIgnoreCase(value)) return new OrientOperation(Orientation.FLIP_HORIZONTAL);
+                if ("v".equalsIgnoreCase(value)) return new OrientOperation(Orientation.FLIP_VERTICAL);
+                throw new IllegalArgumentException("Oczekiwano flip=h lub flip=v: " + token);
+            case "scale":
+                return parseScale(token, value);
+            case "grayscale":
+                if (value == null || value.equals("601")) return new GrayscaleOperation(GrayscaleOperation.Standard.BT601);
+                if (value.equals("709")) return new GrayscaleOperation(GrayscaleOperation.Standard.BT709);
+                throw new IllegalArgumentException("Oczekiwano grayscale=601 lub grayscale=709: " + token);
+            case "gamma":
+                return new GammaOperation(parseDouble(token, value));
+            case "brightness":
+                return new BrightnessContrastOperation(parseInt(token, value), 1);
+            case "contrast":
+                return new BrightnessContrastOperation(0, parseDouble(token, value));
+            case "levels":
+                return parseLevels(token, value);
+            case "curves":
+            case "curves:r":
+            case "curves:g":
+            case "curves:b":
+                return parseCurves(token, name, value);
+            default:
+                return parseFilter(token, name, value);
+        }
+    }
+
+    private static ImageOperation parseFilter(String token, String name, String value) {
+        String border = null;
+        int colon = name.indexOf(':');
+        if (colon >= 0) {
+            border = name.substring(colon + 1);
+            name = name.substring(0, colon);
+        } else if (value != null && value.indexOf(':') >= 0) {
+            border = value.substring(value.indexOf(':') + 1);
+            value = value.substring(0, value.indexOf(':'));
+        }
+        FilterType type = FilterType.fromKeyword(name);
+        if (type == null) {
+            throw new IllegalArgumentException("Nieznana operacja: " + token);
+        }
+        BorderMode mode = BorderMode.REFLECT;
+        if (border != null) {
+            try {
+                mode = BorderMode.valueOf(border.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Nieznany sposób obsługi krawędzi: " + token);
+            }
+        }
+        int radius = 1;
+        if (type.hasRadius()) {
+            radius = parseInt(token, value);
+            if (radius < 1 || radius > FilterType.MAX_RADIUS) {
+                throw new IllegalArgumentException("Promień musi mieścić się w zakresie 1-" + FilterType.MAX_RADIUS + ": " + token);
+            }
+        } else {
+            requireNoValue(token, value);
+        }
+        return type.create(radius, mode);
+    }
+
+    private static ScaleOperation parseScale(String token, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Oczekiwano scale=SZEROKOŚĆxWYSOKOŚĆ: " + token);
+        }
+        String size = value;
+        ResampleFilter filter = ResampleFilter.NEAREST;
+        int colon = value.indexOf(':');
+        if (colon >= 0) {
+            size = value.substring(0, colon);
+            try {
+                filter = ResampleFilter.valueOf(value.substring(colon + 1).toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Nieznana metoda interpolacji: " + token);
+            }
+        }
+        String[] parts = size.toLowerCase(Locale.ROOT).split("x");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Oczekiwano scale=SZEROKOŚĆxWYSOKOŚĆ: " + token);
+        }
+        int width = parseInt(token, parts[0]);
+        int height = parseInt(token, parts[1]);
+        if (width < 1 || height < 1 || width > ScaleOperation.MAX_SIZE || height > ScaleOperation.MAX_SIZE) {
+            throw new IllegalArgumentException("Wymiary muszą mieścić się w zakresie 1-" + ScaleOperation.MAX_SIZE + ": " + token);
+        }
+        return new ScaleOperation(width, height, filter);
+    }
+
+    private static LevelsOperation parseLevels(String token, String value) {
+        String[] parts = value == null ? new String[0] : value.split(":");
+        if (parts.length != 2 && parts.length != 3) {
+            throw new IllegalArgumentException("Oczekiwano levels=CZERŃ:BIEL[:GAMMA]: " + token);
+        }
+        double gamma = parts.length == 3 ? parseDouble(token, parts[2]) : 1;
+        return new LevelsOperation(parseInt(token, parts[0]), parseInt(token, parts[1]), gamma);
+    }
+
+    private static CurvesOperation parseCurves(String token, String name, String value) {
+        CurvesOperation.Channel channel = switch (name) {
+            case "curves:r" -> CurvesOperation.Channel.RED;
+            case "curves:g" -> CurvesOperation.Channel.GREEN;
+            case "curves:b" -> CurvesOperation.Channel.BLUE;
+            default -> CurvesOperation.Channel.RGB;
+        };
+        if (value == null) {
+            throw new IllegalArgumentException("Oczekiwano curves=WEJŚCIE:WYJŚCIE/WEJŚCIE:WYJŚCIE/...: " + token);
+        }
+        List<CurvesOperation.Point> points = new ArrayList<>();
+        for (String point : value.split("/")) {
+            String[] parts = point.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Oczekiwano curves=WEJŚCIE:WYJŚCIE/WEJŚCIE:WYJŚCIE/...: " + token);
+            }
+            points.add(new CurvesOperation.Point(parseInt(token, parts[0]), parseInt(token, parts[1])));
+        }
+        return new CurvesOperation(channel, points);
+    }
+
+    private static double parseDouble(String token, String value) {
+        try {
+            return Double.parseDouble(value == null ? "" : value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nieprawidłowa wartość liczbowa: " + token);
+        }
+    }
+
+    private static int parseInt(String token, String value) {
+        try {
+            return Integer.parseInt(value == null ? "" : value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nieprawidłowa wartość liczbowa: " + token);
+        }
+    }
+
+    private static void requireNoValue(String token, String value) {
+        if (value != null) {
+            throw new IllegalArgumentException("Operacja nie przyjmuje parametru: " + token);
+        }
+    }
+}
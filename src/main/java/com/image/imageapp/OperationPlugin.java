@@ -0,0 +1,77 @@
+package com.image.imageapp;
+
+import javafx.stage.Window;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Operation offered in the operation and pipeline lists of {@link ImageApp}. Besides the built-in
+ * ones, plugins are discovered with {@link ServiceLoader}, so a jar on the class path listing its
+ * implementations in {@code META-INF/services/com.image.imageapp.OperationPlugin} adds entries to
+ * both lists.
+ */
+public interface OperationPlugin {
+
+    /** Whether the created operation runs on the image right away or is added to the pipeline. */
+    enum Use { IMAGE, PIPELINE }
+
+    @FunctionalInterface
+    interface Factory {
+        void create(Window owner, Use use, Consumer<ImageOperation> onAccept);
+    }
+
+    String getName();
+
+    /**
+     * Creates the operation, asking for its parameters first if it has any. Called on the JavaFX
+     * thread; {@code onAccept} is not called when the user cancels.
+     */
+    void create(Window owner, Use use, Consumer<ImageOperation> onAccept);
+
+    default String getSuccessMessage() {
+        return "Operacja " + getName() + " została wykonana pomyślnie!";
+    }
+
+    default String getFailureMessage() {
+        return "Nie udało się wykonać operacji " + getName() + ".";
+    }
+
+    static OperationPlugin of(String name, Factory factory) {
+        return new OperationPlugin() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public void create(Window owner, Use use, Consumer<ImageOperation> onAccept) {
+                factory.create(owner, use, onAccept);
+            }
+        };
+    }
+
+    /** Plugin of an operation without parameters. */
+    static OperationPlugin of(String name, Supplier<? extends ImageOperation> operation) {
+        return of(name, (owner, use, onAccept) -> onAccept.accept(operation.get()));
+    }
+
+    static List<OperationPlugin> discover() {
+        List<OperationPlugin> plugins = new ArrayList<>();
+        Iterator<OperationPlugin> providers = ServiceLoader.load(OperationPlugin.class).iterator();
+        while (true) {
+            try {
+                if (!providers.hasNext()) break;
+                plugins.add(providers.next());
+            } catch (ServiceConfigurationError e) {
+                AppLogger.log(AppLogger.Level.ERROR, "Nie udało się wczytać wtyczki operacji: " + e.getMessage());
+            }
+        }
+        return plugins;
+    }
+}
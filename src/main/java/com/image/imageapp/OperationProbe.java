@@ -0,0 +1,122 @@
+package com.image.imageapp;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measurements of a single operation run: queue wait from construction to {@link #start()},
+ * wall time to {@link #finish()}, the time of every tile or row band and the bytes allocated by
+ * the running thread and by the pool workers. {@code finish} adds the run to
+ * {@link OperationMetrics} and commits an {@link OperationEvent} for Flight Recorder. Failed and
+ * cancelled runs still end their event but are only counted, not added to the timings.
+ */
+public final class OperationProbe {
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    public enum Outcome {
+        COMPLETED("zakończona"),
+        FAILED("błąd"),
+        CANCELLED("anulowana");
+
+        private final String label;
+
+        Outcome(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final String operation;
+    private final long created = System.nanoTime();
+    private final LatencyHistogram units = new LatencyHistogram();
+    private final LongAdder workerNanos = new LongAdder();
+    private final LongAdder workerAllocated = new LongAdder();
+    private final OperationEvent event = new OperationEvent();
+    private volatile Thread owner;
+    private long started;
+    private long ownerAllocated;
+    private int width;
+    private int height;
+
+    public OperationProbe(String operation) {
+        this.operation = operation;
+    }
+
+    public OperationProbe(String operation, int width, int height) {
+        this(operation);
+        setSize(width, height);
+    }
+
+    public void setSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public void start() {
+        owner = Thread.currentThread();
+        ownerAllocated = allocatedBytes();
+        started = System.nanoTime();
+        event.begin();
+    }
+
+    public void measureUnit(Runnable unit) {
+        boolean worker = Thread.currentThread() != owner;
+        long allocated = worker ? allocatedBytes() : 0;
+        long begin = System.nanoTime();
+        unit.run();
+        long elapsed = System.nanoTime() - begin;
+        units.record(elapsed);
+        workerNanos.add(elapsed);
+        if (worker) {
+            workerAllocated.add(allocatedBytes() - allocated);
+        }
+    }
+
+    public void finish() {
+        finish(Outcome.COMPLETED);
+    }
+
+    public void finish(Outcome outcome) {
+        long wall = System.nanoTime() - started;
+        long queued = started - created;
+        long allocated = allocatedBytes() - ownerAllocated + workerAllocated.sum();
+        long pixels = (long) width * height;
+        long worker = workerNanos.sum();
+        OperationStats stats = OperationMetrics.stats(operation, pixels);
+        if (outcome == Outcome.COMPLETED) {
+            stats.add(pixels, wall, queued, units, worker, ProcessingPool.shared().getParallelism(), allocated);
+        } else {
+            stats.addUnfinished(outcome);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.outcome = outcome.toString();
+            event.width = width;
+            event.height = height;
+            event.queueTime = queued;
+            event.workerTime = worker;
+            event.tiles = units.getCount();
+            event.allocated = allocated;
+            event.megapixelsPerSecond = wall == 0 ? 0 : pixels * 1000.0 / wall;
+            event.commit();
+        }
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : Math.max(0, THREADS.getCurrentThreadAllocatedBytes());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,122 @@
+package com.image.imageapp;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated measurements of one operation on one image size class, published over JMX as
+ * {@code com.image.imageapp:type=OperationStats}.
+ */
+public final class OperationStats implements OperationStatsMXBean {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String operation;
+    private final String sizeClass;
+    private final LatencyHistogram wall = new LatencyHistogram();
+    private final LatencyHistogram queue = new LatencyHistogram();
+    private final LatencyHistogram tiles = new LatencyHistogram();
+    private final LongAdder pixels = new LongAdder();
+    private final LongAdder workerNanos = new LongAdder();
+    private final LongAdder workerCapacityNanos = new LongAdder();
+    private final LongAdder allocated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+
+    OperationStats(String operation, String sizeClass) {
+        this.operation = operation;
+        this.sizeClass = sizeClass;
+    }
+
+    void add(long pixelCount, long wallNanos, long queueNanos, LatencyHistogram tileNanos, long workerTime,
+             int parallelism, long allocatedBytes) {
+        wall.record(wallNanos);
+        queue.record(queueNanos);
+        tiles.add(tileNanos);
+        pixels.add(pixelCount);
+        workerNanos.add(workerTime);
+        workerCapacityNanos.add(wallNanos * parallelism);
+        allocated.add(allocatedBytes);
+    }
+
+    /** Counts a run that did not complete; its timings would skew those of completed runs. */
+    void addUnfinished(OperationProbe.Outcome outcome) {
+        (outcome == OperationProbe.Outcome.CANCELLED ? cancelled : failed).increment();
+    }
+
+    @Override
+    public String getOperation() {
+        return operation;
+    }
+
+    @Override
+    public String getSizeClass() {
+        return sizeClass;
+    }
+
+    @Override
+    public long getCount() {
+        return wall.getCount();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    @Override
+    public long getCancelledCount() {
+        return cancelled.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return wall.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return wall.valueAtPercentile(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP90Millis() {
+        return wall.valueAtPercentile(90) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return wall.valueAtPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return wall.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMeanQueueMillis() {
+        return queue.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99TileMillis() {
+        return tiles.valueAtPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getWorkerUtilisation() {
+        long capacity = workerCapacityNanos.sum();
+        return capacity == 0 ? 0 : (double) workerNanos.sum() / capacity;
+    }
+
+    @Override
+    public double getMegapixelsPerSecond() {
+        double seconds = wall.getMean() * wall.getCount() / 1e9;
+        return seconds == 0 ? 0 : pixels.sum() / 1e6 / seconds;
+    }
+
+    @Override
+    public long getAllocatedBytesPerOperation() {
+        long count = getCount();
+        return count == 0 ? 0 : allocated.sum() / count;
+    }
+}
@@ -0,0 +1,33 @@
+package com.image.imageapp;
+
+public interface OperationStatsMXBean {
+    String getOperation();
+
+    String getSizeClass();
+
+    long getCount();
+
+    long getFailedCount();
+
+    long getCancelledCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    double getMeanQueueMillis();
+
+    double getP99TileMillis();
+
+    double getWorkerUtilisation();
+
+    double getMegapixelsPerSecond();
+
+    long getAllocatedBytesPerOperation();
+}
@@ -0,0 +1,105 @@
+package com.image.imageapp;
+
+import javafx.concurrent.Task;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background task for one image operation. Work is fanned out through {@link ProcessingPool};
+ * progress is reported per finished tile or row band and cancellation is checked before each one.
+ */
+public class OperationTask<T> extends Task<T> implements TileExecutor {
+    private final Body<T> body;
+    private final AtomicLong completed = new AtomicLong();
+    private volatile long total;
+    private volatile OperationProbe probe;
+
+    @FunctionalInterface
+    public interface Body<T> {
+        T run(OperationTask<T> task) throws Exception;
+    }
+
+    public OperationTask(Body<T> body) {
+        this.body = body;
+    }
+
+    /**
+     * Records this task's run in {@link OperationMetrics}, whether it completes, fails or is
+     * cancelled; call before the task is started.
+     */
+    public OperationTask<T> measured(OperationProbe probe) {
+        this.probe = probe;
+        return this;
+    }
+
+    @Override
+    protected T call() throws Exception {
+        OperationProbe current = probe;
+        if (current == null) {
+            return body.run(this);
+        }
+        current.start();
+        OperationProbe.Outcome outcome = OperationProbe.Outcome.FAILED;
+        try {
+            T result = body.run(this);
+            outcome = OperationProbe.Outcome.COMPLETED;
+            return result;
+        } catch (CancellationException e) {
+            outcome = OperationProbe.Outcome.CANCELLED;
+            throw e;
+        } finally {
+            current.finish(isCancelled() ? OperationProbe.Outcome.CANCELLED : outcome);
+        }
+    }
+
+    public void addWork(long units) {
+        total += units;
+        updateProgress(completed.get(), total);
+    }
+
+    public void worked(long units) {
+        updateProgress(completed.addAndGet(units), total);
+    }
+
+    public void reportProgress(long done, long total) {
+        updateProgress(done, total);
+    }
+
+    public void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException();
+        }
+    }
+
+    @Override
+    public void forEachTile(int width, int height, ProcessingPool.TileTask kernel) {
+        addWork(Tile.count(width, height, Tile.DEFAULT_SIZE));
+        ProcessingPool.shared().forEachTile(width, height, tile -> {
+            checkCancelled();
+            runUnit(() -> kernel.run(tile));
+            worked(1);
+        });
+        checkCancelled();
+    }
+
+    @Override
+    public void forEachRows(int height, int width, ProcessingPool.RowTask kernel) {
+        addWork(height);
+        ProcessingPool.shared().forEachRows(height, width, (startY, endY) -> {
+            checkCancelled();
+            runUnit(() -> kernel.run(startY, endY));
+            worked(endY - startY);
+        });
+        checkCancelled();
+    }
+
+    private void runUnit(Runnable unit) {
+        OperationProbe current = probe;
+        if (current == null) {
+            unit.run();
+        } else {
+            current.measureUnit(unit);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.image.imageapp;
+
+public record OrientOperation(Orientation orientation) implements GlobalOperation, InvertibleOperation {
+
+    @Override
+    public String getName() {
+        return orientation.toString();
+    }
+
+    @Override
+    public ImageOperation inverse() {
+        return new OrientOperation(orientation.inverse());
+    }
+
+    @Override
+    public boolean invertsInPlace(int width, int height) {
+        return !orientation.transposes() || width == height;
+    }
+
+    @Override
+    public ArgbRaster apply(ArgbRaster source, TileExecutor executor) {
+        int width = orientation.width(source.getWidth(), source.getHeight());
+        int height = orientation.height(source.getWidth(), source.getHeight());
+        ArgbRaster result = new ArgbRaster(width, height);
+        executor.forEachTile(width, height, tile -> ImageKernels.orient(source, result, orientation, tile));
+        return result;
+    }
+
+    @Override
+    public ArgbRaster applyInPlace(ArgbRaster source, TileExecutor executor) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int[] pixels = source.getPixels();
+        boolean flipX = orientation.flipsX();
+        boolean flipY = orientation.flipsY();
+        if (orientation.transposes()) {
+            if (width != height) {
+                return apply(source, executor);
+            }
+            executor.forEachRows(ImageKernels.blockCount(width), width * 64,
+                    (start, end) -> ImageKernels.transposeInPlace(pixels, width, start, end));
+            flipX = orientation.flipsY();
+            flipY = orientation.flipsX();
+        }
+        if (flipX || flipY) {
+            boolean x = flipX;
+            boolean y = flipY;
+            executor.forEachRows(y ? (height + 1) / 2 : height, width,
+                    (start, end) -> ImageKernels.flipInPlace(pixels, width, height, x, y, start, end));
+        }
+        return source;
+    }
+}
@@ -0,0 +1,132 @@
+package com.image.imageapp;
+
+/**
+ * The eight axis-aligned orientations of a raster. Each one maps a destination pixel to its
+ * source pixel by an optional transpose followed by optional flips of the source axes, which
+ * makes composing two orientations a matter of combining three flags.
+ */
+public enum Orientation {
+    IDENTITY("Bez zmian", false, false, false),
+    ROTATE_90("Obrót o 90°", true, false, true),
+    ROTATE_180("Obrót o 180°", false, true, true),
+    ROTATE_270("Obrót o -90°", true, true, false),
+    FLIP_HORIZONTAL("Odbicie poziome", false, true, false),
+    FLIP_VERTICAL("Odbicie pionowe", false, false, true),
+    TRANSPOSE("Transpozycja", true, false, false),
+    TRANSVERSE("Transpozycja poprzeczna", true, true, true);
+
+    private final String label;
+    private final boolean transposes;
+    private final boolean flipsX;
+    private final boolean flipsY;
+
+    Orientation(String label, boolean transposes, boolean flipsX, boolean flipsY) {
+        this.label = label;
+        this.transposes = transposes;
+        this.flipsX = flipsX;
+        this.flipsY = flipsY;
+    }
+
+    public static Orientation rotation(int angleDegrees) {
+        switch (Math.floorMod(angleDegrees, 360)) {
+            case 0: return IDENTITY;
+            case 90: return ROTATE_90;
+            case 180: return ROTATE_180;
+            case 270: return ROTATE_270;
+            default: throw new IllegalArgumentException("Nieobsługiwany kąt obrotu: " + angleDegrees);
+        }
+    }
+
+    public boolean transposes() {
+        return transposes;
+    }
+
+    public boolean flipsX() {
+        return flipsX;
+    }
+
+    public boolean flipsY() {
+        return flipsY;
+    }
+
+    /** Orientation equivalent to applying this one and then {@code next}. */
+    public Orientation then(Orientation next) {
+        boolean x = flipsX ^ (transposes ? next.flipsY : next.flipsX);
+        boolean y = flipsY ^ (transposes ? next.flipsX : next.flipsY);
+        return of(transposes ^ next.transposes, x, y);
+    }
+
+    public Orientation inverse() {
+        for (Orientation candidate : values()) {
+            if (then(candidate) == IDENTITY) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    public int width(int sourceWidth, int sourceHeight) {
+        return transposes ? sourceHeight : sourceWidth;
+    }
+
+    public int height(int sourceWidth, int sourceHeight) {
+        return transposes ? sourceWidth : sourceHeight;
+    }
+
+    public int sourceIndex(int x, int y, int sourceWidth, int sourceHeight) {
+        int u = transposes ? y : x;
+        int v = transposes ? x : y;
+        int sx = flipsX ? sourceWidth - 1 - u : u;
+        int sy = flipsY ? sourceHeight - 1 - v : v;
+        return sy * sourceWidth + sx;
+    }
+
+    /** Region of the oriented raster holding the pixels of {@code region} of the source. */
+    public Tile map(Tile region, int sourceWidth, int sourceHeight) {
+        int width = width(sourceWidth, sourceHeight);
+        int height = height(sourceWidth, sourceHeight);
+        Orientation inverse = inverse();
+        int first = inverse.sourceIndex(region.x(), region.y(), width, height);
+        int last = inverse.sourceIndex(region.endX() - 1, region.endY() - 1, width, height);
+        int x = Math.min(first % width, last % width);
+        int y = Math.min(first / width, last / width);
+        return new Tile(x, y, Math.abs(first % width - last % width) + 1, Math.abs(first / width - last / width) + 1);
+    }
+
+    /** Change of {@link #sourceIndex} when the destination x grows by one. */
+    public int sourceStep(int sourceWidth) {
+        if (transposes) {
+            return flipsY ? -sourceWidth : sourceWidth;
+        }
+        return flipsX ? -1 : 1;
+    }
+
+    /** Clockwise rotation that, applied after {@link #isMirrored() mirroring}, displays this orientation. */
+    public int displayRotation() {
+        for (int angle = 0; angle < 360; angle += 90) {
+            Orientation rotation = rotation(angle);
+            if (rotation == this || (isMirrored() && FLIP_HORIZONTAL.then(rotation) == this)) {
+                return angle;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    public boolean isMirrored() {
+        return transposes == (flipsX == flipsY);
+    }
+
+    private static Orientation of(boolean transposes, boolean flipsX, boolean flipsY) {
+        for (Orientation candidate : values()) {
+            if (candidate.transposes == transposes && candidate.flipsX == flipsX && candidate.flipsY == flipsY) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,229 @@
+package com.image.imageapp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ordered chain of operations executed with as few passes over the image as possible. Runs of
+ * point and neighbourhood stages form one segment that is evaluated tile by tile: the tile and
+ * the halo its neighbourhood stages need are read once, pushed through every stage in a
+ * tile-local buffer and written once. Consecutive {@link ToneOperation}s are composed into one
+ * lookup table beforehand, so a chain of tone adjustments costs a single lookup per pixel. Only
+ * global stages (rotation, scaling) see whole rasters.
+ */
+public final class Pipeline {
+    private static final ThreadLocal<int[][]> SCRATCH = ThreadLocal.withInitial(() -> new int[2][0]);
+
+    private final List<ImageOperation> stages;
+    private final List<ImageOperation> passes;
+
+    public Pipeline(List<ImageOperation> stages) {
+        if (stages.isEmpty()) {
+            throw new IllegalArgumentException("Potok nie zawiera żadnych operacji.");
+        }
+        this.stages = List.copyOf(stages);
+        this.passes = composeTones(this.stages);
+    }
+
+    public List<ImageOperation> getStages() {
+        return stages;
+    }
+
+    /**
+     * Whether {@link #inverse()} exists and runs in place on the output of a {@code width}×{@code height}
+     * input, so undo needs neither a saved copy nor a second full-size raster.
+     */
+    public boolean isInvertibleInPlace(int width, int height) {
+        for (ImageOperation stage : stages) {
+            if (!(stage instanceof InvertibleOperation invertible) || !invertible.invertsInPlace(width, height)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Pipeline that undoes this one; only valid when every stage is an {@link InvertibleOperation}. */
+    public Pipeline inverse() {
+        List<ImageOperation> inverted = new ArrayList<>();
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            if (!(stages.get(i) instanceof InvertibleOperation invertible)) {
+                throw new IllegalStateException("Operacji nie można odwrócić: " + stages.get(i).getName());
+            }
+            inverted.add(invertible.inverse());
+        }
+        return new Pipeline(inverted);
+    }
+
+    public String describe() {
+        List<String> names = new ArrayList<>();
+        for (ImageOperation stage : stages) {
+            names.add(stage.getName());
+        }
+        return String.join(" → ", names);
+    }
+
+    public ArgbRaster run(ArgbRaster source, TileExecutor executor) {
+        return run(source, executor, false);
+    }
+
+    /** Like {@link #run} but may overwrite {@code source}, which the caller no longer needs. */
+    public ArgbRaster runInPlace(ArgbRaster source, TileExecutor executor) {
+        return run(source, executor, true);
+    }
+
+    /**
+     * Runs the stages over {@code region} only. Pixels around the region are read as the halo of
+     * neighbourhood stages but left as they are; the result shares every tile outside the region
+     * with {@code source}. Global stages cannot be limited to a region and are rejected.
+     */
+    public TiledRaster runRegion(TiledRaster source, Tile region, TileExecutor executor) {
+        int halo = 0;
+        for (ImageOperation stage : passes) {
+            if (stage instanceof NeighbourhoodOperation neighbourhood) {
+                halo += neighbourhood.getHalo();
+            } else if (!(stage instanceof PointOperation)) {
+                throw new IllegalArgumentException("Operacji nie można ograniczyć do obszaru: " + stage.getName());
+            }
+        }
+        int imageWidth = source.getWidth();
+        int imageHeight = source.getHeight();
+        int totalHalo = halo;
+        TiledRaster result = source.copyOnWrite(region);
+        executor.forEachTile(region.width(), region.height(), local -> {
+            Tile tile = new Tile(region.x() + local.x(), region.y() + local.y(), local.width(), local.height());
+            int[][] scratch = SCRATCH.get();
+            Tile bounds = tile.grow(totalHalo, imageWidth, imageHeight);
+            RasterWindow input = source.read(bounds, buffer(scratch, 0, bounds));
+            result.write(runStages(input, passes, totalHalo, tile, imageWidth, imageHeight, scratch), tile);
+        });
+        return result;
+    }
+
+    private ArgbRaster run(ArgbRaster source, TileExecutor executor, boolean owned) {
+        ArgbRaster current = source;
+        List<ImageOperation> segment = new ArrayList<>();
+        for (ImageOperation stage : passes) {
+            if (stage instanceof GlobalOperation global) {
+                current = runSegment(current, segment, executor, owned || current != source);
+                segment.clear();
+                current = owned || current != source ? global.applyInPlace(current, executor) : global.apply(current, executor);
+            } else if (stage instanceof PointOperation || stage instanceof NeighbourhoodOperation) {
+                segment.add(stage);
+            } else {
+                throw new IllegalArgumentException("Nieobsługiwany typ operacji: " + stage.getName());
+            }
+        }
+        return runSegment(current, segment, executor, owned || current != source);
+    }
+
+    private static List<ImageOperation> composeTones(List<ImageOperation> stages) {
+        List<ImageOperation> passes = new ArrayList<>();
+        List<ToneOperation> run = new ArrayList<>();
+        for (ImageOperation stage : stages) {
+            if (stage instanceof ToneOperation tone) {
+                run.add(tone);
+                continue;
+            }
+            addTones(passes, run);
+            passes.add(stage);
+        }
+        addTones(passes, run);
+        return List.copyOf(passes);
+    }
+
+    private static void addTones(List<ImageOperation> passes, List<ToneOperation> run) {
+        if (run.size() == 1 && run.get(0).hasKernel()) {
+            passes.add(run.get(0));
+        } else if (!run.isEmpty()) {
+            passes.add(LookupOperation.of(run));
+        }
+        run.clear();
+    }
+
+    private static ArgbRaster runSegment(ArgbRaster source, List<ImageOperation> segment, TileExecutor executor,
+                                         boolean owned) {
+        if (segment.isEmpty()) {
+            return source;
+        }
+        List<ImageOperation> stages = List.copyOf(segment);
+        int halo = 0;
+        for (ImageOperation stage : stages) {
+            if (stage instanceof NeighbourhoodOperation neighbourhood) {
+                halo += neighbourhood.getHalo();
+            }
+        }
+        if (halo == 0 && owned) {
+            executor.forEachTile(source.getWidth(), source.getHeight(), tile -> runPointTile(source, source, stages, tile));
+            return source;
+        }
+        ArgbRaster result = new ArgbRaster(source.getWidth(), source.getHeight());
+        if (halo == 0) {
+            executor.forEachTile(source.getWidth(), source.getHeight(), tile -> runPointTile(source, result, stages, tile));
+        } else {
+            int totalHalo = halo;
+            executor.forEachTile(source.getWidth(), source.getHeight(), tile -> runTile(source, result, stages, totalHalo, tile));
+        }
+        return result;
+    }
+
+    private static void runPointTile(ArgbRaster source, ArgbRaster result, List<ImageOperation> stages, Tile tile) {
+        int width = source.getWidth();
+        int[] in = source.getPixels();
+        int[] out = result.getPixels();
+        for (int y = tile.y(); y < tile.endY(); y++) {
+            int offset = y * width + tile.x();
+            int[] from = in;
+            for (ImageOperation stage : stages) {
+                ((PointOperation) stage).apply(from, offset, out, offset, tile.width());
+                from = out;
+            }
+        }
+    }
+
+    private static void runTile(ArgbRaster source, ArgbRaster result, List<ImageOperation> stages, int halo, Tile tile) {
+        int imageWidth = source.getWidth();
+        int imageHeight = source.getHeight();
+        int[][] scratch = SCRATCH.get();
+        Tile bounds = tile.grow(halo, imageWidth, imageHeight);
+        RasterWindow input = new RasterWindow(buffer(scratch, 0, bounds), bounds);
+        int[] in = source.getPixels();
+        for (int y = bounds.y(); y < bounds.endY(); y++) {
+            System.arraycopy(in, y * imageWidth + bounds.x(), input.pixels(), input.index(bounds.x(), y), bounds.width());
+        }
+
+        RasterWindow current = runStages(input, stages, halo, tile, imageWidth, imageHeight, scratch);
+        int[] out = result.getPixels();
+        for (int y = tile.y(); y < tile.endY(); y++) {
+            System.arraycopy(current.pixels(), current.index(tile.x(), y), out, y * imageWidth + tile.x(), tile.width());
+        }
+    }
+
+    private static RasterWindow runStages(RasterWindow current, List<ImageOperation> stages, int halo, Tile tile,
+                                          int imageWidth, int imageHeight, int[][] scratch) {
+        int remaining = halo;
+        int slot = 1;
+        for (ImageOperation stage : stages) {
+            if (stage instanceof PointOperation point) {
+                int length = current.bounds().width() * current.bounds().height();
+                point.apply(current.pixels(), 0, current.pixels(), 0, length);
+            } else {
+                NeighbourhoodOperation neighbourhood = (NeighbourhoodOperation) stage;
+                remaining -= neighbourhood.getHalo();
+                Tile next = tile.grow(remaining, imageWidth, imageHeight);
+                RasterWindow output = new RasterWindow(buffer(scratch, slot, next), next);
+                neighbourhood.apply(current, output, imageWidth, imageHeight);
+                current = output;
+                slot ^= 1;
+            }
+        }
+        return current;
+    }
+
+    private static int[] buffer(int[][] scratch, int slot, Tile bounds) {
+        int size = bounds.width() * bounds.height();
+        if (scratch[slot].length < size) {
+            scratch[slot] = new int[size];
+        }
+        return scratch[slot];
+    }
+}
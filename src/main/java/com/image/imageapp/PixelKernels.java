@@ -0,0 +1,41 @@
+package com.image.imageapp;
+
+/**
+ * Innermost per-pixel loops of the point and neighbourhood operations. {@link ImageKernels} uses
+ * the Vector API implementation when the {@code jdk.incubator.vector} module is present (started
+ * with {@code --add-modules jdk.incubator.vector}) and the scalar one otherwise; both produce
+ * bit-identical results. {@code -Dimageapp.vector=false} forces the scalar kernels.
+ */
+public interface PixelKernels {
+
+    String getName();
+
+    void negative(int[] in, int inOffset, int[] out, int outOffset, int length);
+
+    void threshold(int[] in, int inOffset, int[] out, int outOffset, int length, int threshold);
+
+    /** Brightness in the sense of {@link ImageKernels#brightness(int)} of each pixel. */
+    void brightness(int[] in, int inOffset, int[] out, int outOffset, int length);
+
+    /**
+     * Contour value of {@code width} pixels from the brightness of their row ({@code width + 1}
+     * values, the last one being the right neighbour) and of the row below.
+     */
+    void gradient(int[] current, int[] below, int[] out, int outOffset, int width);
+
+    static PixelKernels scalar() {
+        return ScalarKernels.INSTANCE;
+    }
+
+    /** The Vector API kernels, or {@code null} if the incubator module is not available. */
+    static PixelKernels vector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (PixelKernels) Class.forName("com.image.imageapp.VectorKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.image.imageapp;
+
+/**
+ * Operation whose output pixel depends only on the input pixel at the same position. Consecutive
+ * point operations are fused by {@link Pipeline} into one pass; {@code in} and {@code out} may be
+ * the same array.
+ */
+public interface PointOperation extends ImageOperation {
+
+    void apply(int[] in, int inOffset, int[] out, int outOffset, int length);
+}
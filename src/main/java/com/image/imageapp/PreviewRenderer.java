@@ -0,0 +1,59 @@
+package com.image.imageapp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders operations on a proxy of the image downsampled to the size it is displayed at, so a
+ * result can be shown before the full-resolution pass has finished. Scale stages are replaced by
+ * scales to their target size fitted into the same bounds, which keeps the proxy result's aspect
+ * ratio equal to the final one.
+ */
+public final class PreviewRenderer {
+    private final int maxWidth;
+    private final int maxHeight;
+
+    public PreviewRenderer(int maxWidth, int maxHeight) {
+        this.maxWidth = Math.max(1, maxWidth);
+        this.maxHeight = Math.max(1, maxHeight);
+    }
+
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    public ArgbRaster proxy(ArgbRaster source, TileExecutor executor) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        if (width <= maxWidth && height <= maxHeight) {
+            return source.copy();
+        }
+        double factor = Math.min((double) maxWidth / width, (double) maxHeight / height);
+        int proxyWidth = Math.max(1, (int) Math.round(width * factor));
+        int proxyHeight = Math.max(1, (int) Math.round(height * factor));
+        return new Resampler(width, height, proxyWidth, proxyHeight, ResampleFilter.BOX).resample(source, executor);
+    }
+
+    public ArgbRaster render(ArgbRaster proxy, Orientation orientation, Pipeline pipeline, TileExecutor executor) {
+        ArgbRaster oriented = new OrientOperation(orientation).apply(proxy, executor);
+        return adapt(pipeline).runInPlace(oriented, executor);
+    }
+
+    Pipeline adapt(Pipeline pipeline) {
+        List<ImageOperation> stages = new ArrayList<>();
+        for (ImageOperation stage : pipeline.getStages()) {
+            if (stage instanceof ScaleOperation scale && (scale.width() > maxWidth || scale.height() > maxHeight)) {
+                double factor = Math.min((double) maxWidth / scale.width(), (double) maxHeight / scale.height());
+                stages.add(new ScaleOperation(Math.max(1, (int) Math.round(scale.width() * factor)),
+                        Math.max(1, (int) Math.round(scale.height() * factor)), scale.filter()));
+            } else {
+                stages.add(stage);
+            }
+        }
+        return new Pipeline(stages);
+    }
+}
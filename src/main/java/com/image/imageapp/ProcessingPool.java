@@ -0,0 +1,144 @@
+package com.image.imageapp;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application-wide work-stealing pool for pixel work. Work is split recursively down to tiles of
+ * roughly {@link #TILE_PIXELS} pixels, so idle workers steal the remaining tiles of a slow band.
+ * Both entry points return only after every tile has completed; the join establishes a
+ * happens-before edge, so the caller may publish the output buffer without further synchronisation.
+ * The application uses the {@link #shared()} instance; separately sized pools exist for benchmarks.
+ */
+public final class ProcessingPool implements TileExecutor, AutoCloseable {
+    private static final int TILE_PIXELS = 1 << 16;
+    private static final ProcessingPool SHARED = new ProcessingPool(Runtime.getRuntime().availableProcessors());
+    private static final ExecutorService COORDINATOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "image-task");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @FunctionalInterface
+    public interface RowTask {
+        void run(int startY, int endY);
+    }
+
+    @FunctionalInterface
+    public interface TileTask {
+        void run(Tile tile);
+    }
+
+    private final ForkJoinPool pool;
+
+    public ProcessingPool(int parallelism) {
+        pool = new ForkJoinPool(parallelism, owner -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(owner);
+            thread.setName("image-worker-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    public static ProcessingPool shared() {
+        return SHARED;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void forEachRows(int height, int width, RowTask task) {
+        int grain = Math.max(1, TILE_PIXELS / Math.max(1, width));
+        if (height <= grain) {
+            task.run(0, height);
+            return;
+        }
+        pool.invoke(new RowAction(task, 0, height, grain));
+    }
+
+    @Override
+    public void forEachTile(int width, int height, TileTask task) {
+        List<Tile> tiles = Tile.grid(width, height, Tile.DEFAULT_SIZE);
+        if (tiles.size() == 1) {
+            task.run(tiles.get(0));
+            return;
+        }
+        pool.invoke(new TileAction(task, tiles, 0, tiles.size()));
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+        try {
+            pool.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void runTask(Runnable task) {
+        COORDINATOR.execute(task);
+    }
+
+    public static void shutdown() {
+        COORDINATOR.shutdownNow();
+        SHARED.close();
+    }
+
+    @SuppressWarnings("serial")
+    private static final class RowAction extends RecursiveAction {
+        private final RowTask task;
+        private final int startY;
+        private final int endY;
+        private final int grain;
+
+        RowAction(RowTask task, int startY, int endY, int grain) {
+            this.task = task;
+            this.startY = startY;
+            this.endY = endY;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (endY - startY <= grain) {
+                task.run(startY, endY);
+                return;
+            }
+            int mid = (startY + endY) >>> 1;
+            invokeAll(new RowAction(task, startY, mid, grain), new RowAction(task, mid, endY, grain));
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class TileAction extends RecursiveAction {
+        private final TileTask task;
+        private final List<Tile> tiles;
+        private final int from;
+        private final int to;
+
+        TileAction(TileTask task, List<Tile> tiles, int from, int to) {
+            this.task = task;
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                task.run(tiles.get(from));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new TileAction(task, tiles, from, mid), new TileAction(task, tiles, mid, to));
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.image.imageapp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Local HTTP endpoint started with {@code --serve}. {@code POST /process?ops=...} takes a JPEG body,
+ * runs the operations, given as in the batch mode, through {@link TiledProcessor} and answers with
+ * the encoded result. The body is decoded while it arrives and the result is encoded straight into
+ * a chunked response, so neither is held in memory as a whole.
+ * <p>
+ * Every exchange runs on its own virtual thread, which costs nothing while it waits for the network.
+ * The pixel work runs on {@link ProcessingPool#shared()}, and at most {@code --jobs} images are in
+ * flight at once; further requests wait for a slot before their body is read, which leaves the
+ * upload to TCP flow control. The server only listens on the loopback interface.
+ * <p>
+ * Bodies that do not start with the JPEG signature are refused with 415 before anything is
+ * decoded, so no other image format can reach the streaming decoder.
+ */
+public final class ProcessingServer implements AutoCloseable {
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Użycie: --serve [--port N] [--jobs N] [--max-upload-mb N]",
+            "  --port           port na interfejsie lokalnym (domyślnie 8080, 0 - dowolny wolny)",
+            "  --jobs           liczba obrazów przetwarzanych jednocześnie (domyślnie liczba procesorów)",
+            "  --max-upload-mb  największy przyjmowany plik (domyślnie 256)",
+            "Żądanie: POST /process?ops=negative,threshold=128,rotate=90[&quality=0.9] z plikiem JPEG w treści");
+    public static final String PATH = "/process";
+    /** Start of image marker followed by the first marker of the header. */
+    private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore slots;
+    private final long maxUploadBytes;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private ProcessingServer(int port, int jobs, long maxUploadBytes) throws IOException {
+        this.slots = new Semaphore(jobs, true);
+        this.maxUploadBytes = maxUploadBytes;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(PATH, this::handle);
+        server.setExecutor(handlers);
+    }
+
+    public static ProcessingServer start(int port, int jobs, long maxUploadBytes) throws IOException {
+        ProcessingServer processingServer = new ProcessingServer(port, jobs, maxUploadBytes);
+        processingServer.server.start();
+        return processingServer;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** Serves until the process is stopped. Returns 2 for invalid arguments and 1 if the port cannot be opened. */
+    public static int run(String[] args) {
+        int port = 8080;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        long maxUploadMb = 256;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--port" -> port = parseInt(args, ++i, arg, 0);
+                    case "--jobs" -> jobs = parseInt(args, ++i, arg, 1);
+                    case "--max-upload-mb" -> maxUploadMb = parseInt(args, ++i, arg, 1);
+                    default -> throw new IllegalArgumentException("Nieznany argument: " + arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Błąd: " + e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+        ProcessingServer processingServer;
+        try {
+            processingServer = start(port, jobs, maxUploadMb << 20);
+        } catch (IOException e) {
+            System.err.println("Błąd: nie można uruchomić serwera: " + e.getMessage());
+            return 1;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(processingServer::close, "image-server-shutdown"));
+        System.out.println("Serwer nasłuchuje: http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                + processingServer.getPort() + PATH);
+        AppLogger.log(AppLogger.Level.INFO, "Serwer HTTP uruchomiony na porcie " + processingServer.getPort());
+        try {
+            processingServer.stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        handlers.close();
+        if (stopped.getCount() > 0) {
+            AppLogger.log(AppLogger.Level.INFO, "Serwer HTTP zatrzymany");
+            stopped.countDown();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestURI().getPath().equals(PATH)) {
+                reject(exchange, 404, "Nieznana ścieżka: " + exchange.getRequestURI().getPath());
+                return;
+            }
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                reject(exchange, 405, "Obsługiwana jest tylko metoda POST.");
+                return;
+            }
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            if (length != null && parseLength(length) > maxUploadBytes) {
+                reject(exchange, 413, tooLarge());
+                return;
+            }
+            Pipeline pipeline;
+            float quality;
+            try {
+                Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+                String ops = query.get("ops");
+                if (ops == null) {
+                    throw new IllegalArgumentException("Brak parametru ops.");
+                }
+                pipeline = OperationParser.parse(ops);
+                quality = parseQuality(query.getOrDefault("quality", String.valueOf(JpegWriter.DEFAULT_QUALITY)));
+            } catch (IllegalArgumentException e) {
+                reject(exchange, 400, e.getMessage());
+                return;
+            }
+            try {
+                slots.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.getResponseHeaders().set("Connection", "close");
+                reply(exchange, 503, "Serwer jest zatrzymywany.");
+                return;
+            }
+            try {
+                process(exchange, pipeline, quality);
+            } finally {
+                slots.release();
+            }
+        }
+    }
+
+    private void process(HttpExchange exchange, Pipeline pipeline, float quality) throws IOException {
+        long start = System.nanoTime();
+        LimitedInput body = new LimitedInput(exchange.getRequestBody(), maxUploadBytes);
+        PushbackInputStream input = new PushbackInputStream(body, JPEG_SIGNATURE.length);
+        byte[] signature = input.readNBytes(JPEG_SIGNATURE.length);
+        if (!Arrays.equals(signature, JPEG_SIGNATURE)) {
+            reject(exchange, 415, "Obsługiwane są tylko pliki JPEG.");
+            return;
+        }
+        input.unread(signature);
+        ResponseBody response = new ResponseBody(exchange);
+        try {
+            TiledProcessor.process(input, response, pipeline, ProcessingPool.shared(), quality);
+            response.close();
+        } catch (IOException | RuntimeException e) {
+            AppLogger.log(AppLogger.Level.ERROR, "Serwer HTTP — błąd przetwarzania: " + e.getMessage());
+            if (response.started) {
+                // the status is already sent; the client sees a truncated image
+                throw e;
+            }
+            if (body.exceeded) {
+                reject(exchange, 413, tooLarge());
+            } else if (e instanceof IllegalArgumentException) {
+                reject(exchange, 400, e.getMessage());
+            } else {
+                reject(exchange, 422, "Nie udało się przetworzyć obrazu: " + e.getMessage());
+            }
+            return;
+        }
+        AppLogger.log(AppLogger.Level.ACTION, "Serwer HTTP — przetworzono obraz (" + pipeline.describe() + ") w "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private String tooLarge() {
+        return "Plik jest większy niż " + (maxUploadBytes >> 20) + " MB.";
+    }
+
+    private static long parseLength(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Error reply to a request whose body may not have been read. Up to another
+     * {@code --max-upload-mb} of the upload is read and discarded first: the server resets a
+     * connection that still has unread data, and the client would never see the reply.
+     */
+    private void reject(HttpExchange exchange, int status, String message) throws IOException {
+        try {
+            new LimitedInput(exchange.getRequestBody(), maxUploadBytes).transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            exchange.getResponseHeaders().set("Connection", "close");
+        }
+        reply(exchange, status, message);
+    }
+
+    private static void reply(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> values = new HashMap<>();
+        if (rawQuery == null) return values;
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) continue;
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            values.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private static float parseQuality(String value) {
+        float quality;
+        try {
+            quality = Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nieprawidłowa jakość: " + value);
+        }
+        if (quality < 0.1f || quality > 1.0f) {
+            throw new IllegalArgumentException("Jakość musi mieścić się w zakresie 0.1-1.0.");
+        }
+        return quality;
+    }
+
+    private static int parseInt(String[] args, int index, String flag, int min) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Brak wartości dla " + flag);
+        }
+        try {
+            int value = Integer.parseInt(args[index]);
+            if (value < min) {
+                throw new IllegalArgumentException("Wartość " + flag + " musi wynosić co najmniej " + min + ".");
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nieprawidłowa wartość dla " + flag + ": " + args[index]);
+        }
+    }
+
+    /**
+     * Request body that fails once more than the allowed number of bytes has been read. Only uploads
+     * without a Content-Length get this far; if the image has already started streaming back, the
+     * response is cut off instead of answered with 413.
+     */
+    private static final class LimitedInput extends FilterInputStream {
+        private final long limit;
+        private long remaining;
+        private volatile boolean exceeded;
+
+        LimitedInput(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) count(1);
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) count(read);
+            return read;
+        }
+
+        private void count(int read) throws IOException {
+            remaining -= read;
+            if (remaining < 0) {
+                exceeded = true;
+                throw new IOException("Przekroczono limit " + limit + " bajtów.");
+            }
+        }
+    }
+
+    /** Sends the success status with the first byte of the image, so earlier failures can still be reported. */
+    private static final class ResponseBody extends OutputStream {
+        private static final int BUFFER = 64 << 10;
+        private final HttpExchange exchange;
+        private OutputStream out;
+        private boolean started;
+
+        ResponseBody(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            start().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            start().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out != null) out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            start().close();
+        }
+
+        private OutputStream start() throws IOException {
+            if (out == null) {
+                exchange.getResponseHeaders().set("Content-Type", "image/jpeg");
+                exchange.sendResponseHeaders(200, 0);
+                started = true;
+                out = new BufferedOutputStream(exchange.getResponseBody(), BUFFER);
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.image.imageapp;
+
+@FunctionalInterface
+public interface ProgressListener {
+    ProgressListener NONE = (done, total) -> {
+    };
+
+    void progress(long done, long total);
+}
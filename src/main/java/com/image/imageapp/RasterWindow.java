@@ -0,0 +1,20 @@
+package com.image.imageapp;
+
+/**
+ * Pixels of the rectangle {@code bounds}, given in image coordinates and stored row by row with a
+ * stride equal to the bounds width. Used for tile-local buffers that never cover the whole image.
+ */
+public record RasterWindow(int[] pixels, Tile bounds) {
+
+    public int index(int x, int y) {
+        return (y - bounds.y()) * bounds.width() + (x - bounds.x());
+    }
+
+    public int getArgb(int x, int y) {
+        return pixels[index(x, y)];
+    }
+
+    public void setArgb(int x, int y, int argb) {
+        pixels[index(x, y)] = argb;
+    }
+}
@@ -0,0 +1,51 @@
+package com.image.imageapp;
+
+public enum ResampleFilter {
+    NEAREST("Najbliższy sąsiad", 0.0),
+    BOX("Uśrednianie obszaru", 0.5),
+    BILINEAR("Dwuliniowa", 1.0),
+    BICUBIC("Dwusześcienna", 2.0),
+    LANCZOS3("Lanczos", 3.0);
+
+    private final String label;
+    private final double support;
+
+    ResampleFilter(String label, double support) {
+        this.label = label;
+        this.support = support;
+    }
+
+    public double getSupport() {
+        return support;
+    }
+
+    public double weight(double x) {
+        double ax = Math.abs(x);
+        switch (this) {
+            case BOX:
+                return (x >= -0.5 && x < 0.5) ? 1.0 : 0.0;
+            case BILINEAR:
+                return ax < 1.0 ? 1.0 - ax : 0.0;
+            case BICUBIC:
+                if (ax < 1.0) return (1.5 * ax - 2.5) * ax * ax + 1.0;
+                if (ax < 2.0) return ((-0.5 * ax + 2.5) * ax - 4.0) * ax + 2.0;
+                return 0.0;
+            case LANCZOS3:
+                if (ax >= 3.0) return 0.0;
+                return sinc(ax) * sinc(ax / 3.0);
+            default:
+                return 0.0;
+        }
+    }
+
+    private static double sinc(double x) {
+        if (x == 0.0) return 1.0;
+        double px = Math.PI * x;
+        return Math.sin(px) / px;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,183 @@
+package com.image.imageapp;
+
+/**
+ * Separable image resampler. Source positions and filter weights are computed once per output
+ * column and once per output row; the horizontal and the vertical pass then only do integer
+ * multiply-adds on packed ARGB values with 14-bit fixed-point weights. When shrinking, the filter
+ * is widened by the scale factor, so {@link ResampleFilter#BOX} becomes exact area averaging.
+ */
+public final class Resampler {
+    private static final int PRECISION_BITS = 14;
+    private static final int ROUNDING = 1 << (PRECISION_BITS - 1);
+
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final int width;
+    private final int height;
+    private final ResampleFilter filter;
+    private final Contributions horizontal;
+    private final Contributions vertical;
+
+    public Resampler(int sourceWidth, int sourceHeight, int width, int height, ResampleFilter filter) {
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.width = width;
+        this.height = height;
+        this.filter = filter;
+        this.horizontal = new Contributions(sourceWidth, width, filter);
+        this.vertical = new Contributions(sourceHeight, height, filter);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public ArgbRaster resample(ArgbRaster source, TileExecutor executor) {
+        ArgbRaster result = new ArgbRaster(width, height);
+        int[] src = source.getPixels();
+        int[] dst = result.getPixels();
+        if (filter == ResampleFilter.NEAREST) {
+            executor.forEachRows(height, width, (startY, endY) -> {
+                for (int y = startY; y < endY; y++) {
+                    resampleRow(src, vertical.start[y] * sourceWidth, dst, y * width);
+                }
+            });
+            return result;
+        }
+        int[] rows = new int[width * sourceHeight];
+        executor.forEachRows(sourceHeight, width, (startY, endY) -> {
+            for (int y = startY; y < endY; y++) {
+                resampleRow(src, y * sourceWidth, rows, y * width);
+            }
+        });
+        executor.forEachRows(height, width, (startY, endY) -> {
+            for (int y = startY; y < endY; y++) {
+                combineRows(y, rows, 0, dst, y * width);
+            }
+        });
+        return result;
+    }
+
+    public int firstSourceRow(int y) {
+        return vertical.start[y];
+    }
+
+    public int endSourceRow(int y) {
+        return vertical.start[y] + vertical.count[y];
+    }
+
+    public void resampleRow(int[] src, int srcOffset, int[] dst, int dstOffset) {
+        int[] start = horizontal.start;
+        if (filter == ResampleFilter.NEAREST) {
+            for (int x = 0; x < width; x++) {
+                dst[dstOffset + x] = src[srcOffset + start[x]];
+            }
+            return;
+        }
+        int[] count = horizontal.count;
+        int[] weights = horizontal.weights;
+        int stride = horizontal.stride;
+        for (int x = 0; x < width; x++) {
+            int a = ROUNDING, r = ROUNDING, g = ROUNDING, b = ROUNDING;
+            int p = srcOffset + start[x];
+            int w = x * stride;
+            for (int k = 0, n = count[x]; k < n; k++) {
+                int argb = src[p + k];
+                int weight = weights[w + k];
+                a += (argb >>> 24) * weight;
+                r += ((argb >> 16) & 0xFF) * weight;
+                g += ((argb >> 8) & 0xFF) * weight;
+                b += (argb & 0xFF) * weight;
+            }
+            dst[dstOffset + x] = pack(a, r, g, b);
+        }
+    }
+
+    /**
+     * Vertical pass for output row {@code y}. {@code rows} holds horizontally resampled rows of
+     * this resampler's output width, starting with source row {@code firstRow}.
+     */
+    public void combineRows(int y, int[] rows, int firstRow, int[] dst, int dstOffset) {
+        int first = (vertical.start[y] - firstRow) * width;
+        int n = vertical.count[y];
+        int w = y * vertical.stride;
+        int[] weights = vertical.weights;
+        for (int x = 0; x < width; x++) {
+            int a = ROUNDING, r = ROUNDING, g = ROUNDING, b = ROUNDING;
+            for (int k = 0, p = first + x; k < n; k++, p += width) {
+                int argb = rows[p];
+                int weight = weights[w + k];
+                a += (argb >>> 24) * weight;
+                r += ((argb >> 16) & 0xFF) * weight;
+                g += ((argb >> 8) & 0xFF) * weight;
+                b += (argb & 0xFF) * weight;
+            }
+            dst[dstOffset + x] = pack(a, r, g, b);
+        }
+    }
+
+    private static int pack(int a, int r, int g, int b) {
+        return clamp(a >> PRECISION_BITS) << 24 | clamp(r >> PRECISION_BITS) << 16
+                | clamp(g >> PRECISION_BITS) << 8 | clamp(b >> PRECISION_BITS);
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : Math.min(value, 255);
+    }
+
+    private static final class Contributions {
+        final int[] start;
+        final int[] count;
+        final int[] weights;
+        final int stride;
+
+        Contributions(int sourceSize, int size, ResampleFilter filter) {
+            start = new int[size];
+            count = new int[size];
+            double scale = (double) sourceSize / size;
+            if (filter == ResampleFilter.NEAREST) {
+                for (int i = 0; i < size; i++) {
+                    start[i] = (int) (i * scale);
+                    count[i] = 1;
+                }
+                weights = new int[0];
+                stride = 0;
+                return;
+            }
+            double filterScale = Math.max(scale, 1.0);
+            double support = filter.getSupport() * filterScale;
+            stride = (int) Math.ceil(support) * 2 + 1;
+            weights = new int[size * stride];
+            double[] raw = new double[stride];
+            for (int i = 0; i < size; i++) {
+                double center = (i + 0.5) * scale;
+                int min = Math.max(0, (int) (center - support + 0.5));
+                int max = Math.min(sourceSize, (int) (center + support + 0.5));
+                double total = 0;
+                for (int j = min; j < max; j++) {
+                    raw[j - min] = filter.weight((j - center + 0.5) / filterScale);
+                    total += raw[j - min];
+                }
+                if (total == 0) {
+                    min = Math.min(sourceSize - 1, (int) center);
+                    max = min + 1;
+                    raw[0] = total = 1;
+                }
+                start[i] = min;
+                count[i] = max - min;
+                int sum = 0, largest = 0;
+                for (int j = 0; j < max - min; j++) {
+                    int weight = (int) Math.round(raw[j] / total * (1 << PRECISION_BITS));
+                    weights[i * stride + j] = weight;
+                    sum += weight;
+                    if (weight > weights[i * stride + largest]) largest = j;
+                }
+                weights[i * stride + largest] += (1 << PRECISION_BITS) - sum;
+            }
+        }
+    }
+}
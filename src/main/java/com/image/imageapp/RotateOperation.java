@@ -0,0 +1,44 @@
+package com.image.imageapp;
+
+public record RotateOperation(int angleDegrees) implements GlobalOperation, InvertibleOperation {
+
+    public RotateOperation {
+        if (angleDegrees != 90 && angleDegrees != -90 && angleDegrees != 180) {
+            throw new IllegalArgumentException("Nieobsługiwany kąt obrotu: " + angleDegrees);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Obrót o " + angleDegrees + "°";
+    }
+
+    @Override
+    public String getCategory() {
+        return "Obrót";
+    }
+
+    @Override
+    public ImageOperation inverse() {
+        return new RotateOperation(angleDegrees == 180 ? 180 : -angleDegrees);
+    }
+
+    @Override
+    public boolean invertsInPlace(int width, int height) {
+        return new OrientOperation(orientation()).invertsInPlace(width, height);
+    }
+
+    public Orientation orientation() {
+        return Orientation.rotation(angleDegrees);
+    }
+
+    @Override
+    public ArgbRaster apply(ArgbRaster source, TileExecutor executor) {
+        return new OrientOperation(orientation()).apply(source, executor);
+    }
+
+    @Override
+    public ArgbRaster applyInPlace(ArgbRaster source, TileExecutor executor) {
+        return new OrientOperation(orientation()).applyInPlace(source, executor);
+    }
+}
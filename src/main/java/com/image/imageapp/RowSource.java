@@ -0,0 +1,20 @@
+package com.image.imageapp;
+
+import java.io.IOException;
+
+/**
+ * Image delivered in rows. Implementations may be sequential: callers then have to request rows
+ * in increasing order without gaps, which is how the streaming decoder and encoder work.
+ */
+public interface RowSource extends AutoCloseable {
+
+    int getWidth();
+
+    int getHeight();
+
+    void readRows(int y, int count, int[] dst, int offset) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
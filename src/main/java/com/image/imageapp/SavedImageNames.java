@@ -0,0 +1,59 @@
+package com.image.imageapp;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Naming rules for saved images: the name has {@value #MIN_LENGTH}-{@value #MAX_LENGTH} characters,
+ * the file gets the {@code .jpg} extension and an existing file is never overwritten.
+ */
+public final class SavedImageNames {
+    public static final int MIN_LENGTH = 3;
+    public static final int MAX_LENGTH = 100;
+
+    private SavedImageNames() {
+    }
+
+    public static Path picturesDirectory() {
+        return Paths.get(System.getProperty("user.home"), "Pictures");
+    }
+
+    /** Reason why {@code name} cannot be used, or {@code null} if it follows the rules. */
+    public static String check(String name) {
+        if (name.length() < MIN_LENGTH) {
+            return "Wpisz co najmniej " + MIN_LENGTH + " znaki";
+        }
+        if (name.length() > MAX_LENGTH) {
+            return "Nazwa może mieć najwyżej " + MAX_LENGTH + " znaków";
+        }
+        return null;
+    }
+
+    public static Path target(Path directory, String name) {
+        return directory.resolve(name + ".jpg");
+    }
+
+    /**
+     * Creates an empty file in {@code directory} named after {@code stem}, shortened or extended
+     * with {@code -2}, {@code -3}, ... until the name follows the rules and is not taken. Creating
+     * the file reserves the name, so concurrent callers never get the same one.
+     */
+    public static Path reserve(Path directory, String stem) throws IOException {
+        String base = stem.isBlank() ? "obraz" : stem.strip();
+        for (int attempt = 1; ; attempt++) {
+            String name = base.length() > MAX_LENGTH ? base.substring(0, MAX_LENGTH) : base;
+            if (attempt > 1 || name.length() < MIN_LENGTH) {
+                String suffix = "-" + attempt;
+                name = name.substring(0, Math.min(name.length(), MAX_LENGTH - suffix.length())) + suffix;
+            }
+            try {
+                return Files.createFile(target(directory, name));
+            } catch (FileAlreadyExistsException e) {
+                // taken, try the next suffix
+            }
+        }
+    }
+}
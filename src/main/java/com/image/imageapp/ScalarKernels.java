@@ -0,0 +1,51 @@
+package com.image.imageapp;
+
+final class ScalarKernels implements PixelKernels {
+    static final ScalarKernels INSTANCE = new ScalarKernels();
+
+    private static final int OPAQUE_BLACK = 0xFF000000;
+    private static final int OPAQUE_WHITE = 0xFFFFFFFF;
+
+    private ScalarKernels() {
+    }
+
+    @Override
+    public String getName() {
+        return "skalarne";
+    }
+
+    @Override
+    public void negative(int[] in, int inOffset, int[] out, int outOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            int argb = in[inOffset + i];
+            out[outOffset + i] = (argb & 0xFF000000) | (~argb & 0x00FFFFFF);
+        }
+    }
+
+    @Override
+    public void threshold(int[] in, int inOffset, int[] out, int outOffset, int length, int threshold) {
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = (ImageKernels.brightness(in[inOffset + i]) >= threshold) ? OPAQUE_WHITE : OPAQUE_BLACK;
+        }
+    }
+
+    @Override
+    public void brightness(int[] in, int inOffset, int[] out, int outOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = ImageKernels.brightness(in[inOffset + i]);
+        }
+    }
+
+    @Override
+    public void gradient(int[] current, int[] below, int[] out, int outOffset, int width) {
+        gradient(current, below, 0, width, out, outOffset);
+    }
+
+    static void gradient(int[] current, int[] below, int from, int to, int[] out, int outOffset) {
+        for (int i = from; i < to; i++) {
+            int level = current[i];
+            int edge = Math.abs(level - current[i + 1]) + Math.abs(level - below[i]);
+            out[outOffset + i] = OPAQUE_BLACK | (Math.min(255, edge) * 0x010101);
+        }
+    }
+}
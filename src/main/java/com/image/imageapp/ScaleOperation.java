@@ -0,0 +1,30 @@
+package com.image.imageapp;
+
+public record ScaleOperation(int width, int height, ResampleFilter filter) implements GlobalOperation {
+    /** Largest width or height a JPEG file can store; processing in tiles has no lower limit. */
+    public static final int MAX_SIZE = 65_535;
+
+    public ScaleOperation(int width, int height) {
+        this(width, height, ResampleFilter.NEAREST);
+    }
+
+    @Override
+    public String getName() {
+        String name = "Skalowanie do " + width + "x" + height;
+        return filter == ResampleFilter.NEAREST ? name : name + " (" + filter + ")";
+    }
+
+    @Override
+    public String getCategory() {
+        return "Skalowanie (" + filter + ")";
+    }
+
+    @Override
+    public ArgbRaster apply(ArgbRaster source, TileExecutor executor) {
+        return resampler(source.getWidth(), source.getHeight()).resample(source, executor);
+    }
+
+    public Resampler resampler(int sourceWidth, int sourceHeight) {
+        return new Resampler(sourceWidth, sourceHeight, width, height, filter);
+    }
+}
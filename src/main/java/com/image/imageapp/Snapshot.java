@@ -0,0 +1,242 @@
+package com.image.imageapp;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Saved raster of an {@link EditHistory} step. It starts as the raster itself and can be moved
+ * down to a deflated copy on the heap or to a {@link MappedRaster} scratch file. Rasters that do
+ * not shrink to three quarters of their size are spilled instead of being kept packed.
+ */
+final class Snapshot {
+    private static final int BAND_PIXELS = 1 << 18;
+    private static final int MAX_PACKED_PERCENT = 75;
+
+    private final int width;
+    private final int height;
+    private final int bandRows;
+    private ArgbRaster raw;
+    private byte[][] packed;
+    private MappedRaster spilled;
+
+    Snapshot(ArgbRaster raster) {
+        this.width = raster.getWidth();
+        this.height = raster.getHeight();
+        this.bandRows = Math.max(1, BAND_PIXELS / width);
+        this.raw = raster;
+    }
+
+    synchronized long heapBytes() {
+        if (raw != null) return 4L * width * height;
+        if (packed == null) return 0;
+        long bytes = 0;
+        for (byte[] band : packed) {
+            bytes += band.length;
+        }
+        return bytes;
+    }
+
+    synchronized boolean isRaw() {
+        return raw != null;
+    }
+
+    synchronized boolean isPacked() {
+        return packed != null;
+    }
+
+    /**
+     * The returned raster may be the saved one itself and must not be modified. Packed bands are
+     * inflated in parallel on {@code executor}.
+     */
+    synchronized ArgbRaster restore(TileExecutor executor) throws IOException {
+        if (raw != null) {
+            return raw;
+        }
+        ArgbRaster raster = new ArgbRaster(width, height);
+        if (packed != null) {
+            unpack(raster.getPixels(), executor);
+        } else {
+            spilled.readRows(0, height, raster.getPixels(), 0);
+        }
+        return raster;
+    }
+
+    /** Moves the raw raster to a packed copy, or to the scratch file when it does not pack well. */
+    synchronized void compact() throws IOException {
+        if (raw == null) {
+            return;
+        }
+        byte[][] result = pack(raw.getPixels(), 4L * width * height * MAX_PACKED_PERCENT / 100);
+        if (result != null) {
+            packed = result;
+        } else {
+            spill(raw.getPixels());
+        }
+        raw = null;
+    }
+
+    synchronized void spill() throws IOException {
+        if (packed == null) {
+            return;
+        }
+        int[] pixels = new int[width * height];
+        for (int band = 0; band < packed.length; band++) {
+            unpackBand(band, pixels);
+        }
+        spill(pixels);
+        packed = null;
+    }
+
+    /** Brings a packed or spilled raster back to the heap, so that the next restore copies nothing. */
+    synchronized void load() throws IOException {
+        if (raw != null) {
+            return;
+        }
+        ArgbRaster raster = new ArgbRaster(width, height);
+        if (packed != null) {
+            for (int band = 0; band < packed.length; band++) {
+                unpackBand(band, raster.getPixels());
+            }
+        } else {
+            spilled.readRows(0, height, raster.getPixels(), 0);
+        }
+        release();
+        raw = raster;
+    }
+
+    synchronized void release() {
+        raw = null;
+        packed = null;
+        if (spilled != null) {
+            try {
+                spilled.close();
+            } catch (IOException e) {
+                AppLogger.log(AppLogger.Level.ERROR, "Nie udało się usunąć pliku historii: " + e.getMessage());
+            }
+            spilled = null;
+        }
+    }
+
+    private void spill(int[] pixels) throws IOException {
+        MappedRaster file = new MappedRaster(width, height);
+        file.writeRows(0, height, pixels, 0);
+        spilled = file;
+    }
+
+    /**
+     * Deflates the raster in bands of whole rows so that they can be inflated in parallel. Each
+     * band is stored as four planes, alpha, red, green and blue, holding the difference of every
+     * channel value from its left neighbour: smooth areas of a photo become runs of small values
+     * that deflate well. Returns {@code null} once the output grows beyond {@code limit} bytes.
+     */
+    private byte[][] pack(int[] pixels, long limit) {
+        byte[][] bands = new byte[(height + bandRows - 1) / bandRows][];
+        byte[] planes = new byte[4 * bandRows * width];
+        byte[] buffer = new byte[planes.length];
+        long total = 0;
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            for (int band = 0; band < bands.length; band++) {
+                int start = band * bandRows;
+                int count = (Math.min(height, start + bandRows) - start) * width;
+                deltaEncode(pixels, start * width, count, planes);
+                deflater.reset();
+                deflater.setInput(planes, 0, 4 * count);
+                deflater.finish();
+                int length = 0;
+                while (!deflater.finished()) {
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+                    }
+                    length += deflater.deflate(buffer, length, buffer.length - length);
+                }
+                total += length;
+                if (total > limit) {
+                    return null;
+                }
+                bands[band] = Arrays.copyOf(buffer, length);
+            }
+        } finally {
+            deflater.end();
+        }
+        return bands;
+    }
+
+    private void unpack(int[] pixels, TileExecutor executor) throws IOException {
+        IOException[] failure = new IOException[1];
+        executor.forEachRows(packed.length, BAND_PIXELS, (start, end) -> {
+            for (int band = start; band < end; band++) {
+                try {
+                    unpackBand(band, pixels);
+                } catch (IOException e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                }
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    private void unpackBand(int band, int[] pixels) throws IOException {
+        int start = band * bandRows;
+        int count = (Math.min(height, start + bandRows) - start) * width;
+        byte[] planes = new byte[4 * count];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(packed[band]);
+            int length = 0;
+            while (length < planes.length && !inflater.finished()) {
+                int read = inflater.inflate(planes, length, planes.length - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += read;
+            }
+            if (length != planes.length) {
+                throw new IOException("Uszkodzony zapis historii zmian.");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Uszkodzony zapis historii zmian.", e);
+        } finally {
+            inflater.end();
+        }
+        deltaDecode(planes, count, pixels, start * width);
+    }
+
+    private void deltaEncode(int[] pixels, int offset, int count, byte[] planes) {
+        for (int plane = 0; plane < 4; plane++) {
+            int shift = 24 - 8 * plane;
+            int base = plane * count;
+            for (int row = 0; row < count; row += width) {
+                int previous = 0;
+                for (int x = 0; x < width; x++) {
+                    int value = pixels[offset + row + x] >>> shift & 0xFF;
+                    planes[base + row + x] = (byte) (value - previous);
+                    previous = value;
+                }
+            }
+        }
+    }
+
+    private void deltaDecode(byte[] planes, int count, int[] pixels, int offset) {
+        for (int row = 0; row < count; row += width) {
+            int a = 0;
+            int r = 0;
+            int g = 0;
+            int b = 0;
+            for (int x = row; x < row + width; x++) {
+                a = a + planes[x] & 0xFF;
+                r = r + planes[count + x] & 0xFF;
+                g = g + planes[2 * count + x] & 0xFF;
+                b = b + planes[3 * count + x] & 0xFF;
+                pixels[offset + x] = a << 24 | r << 16 | g << 8 | b;
+            }
+        }
+    }
+}
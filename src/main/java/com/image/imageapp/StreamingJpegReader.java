@@ -0,0 +1,311 @@
+package com.image.imageapp;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Sequential {@link RowSource} over a JPEG file that never holds the decoded image in memory.
+ * The ImageIO reader decodes into a destination whose data buffer forwards every finished scanline
+ * to a small bounded queue of bands; the reader thread blocks when the consumer falls behind.
+ * Progressive JPEGs are the exception: the decoder needs the whole image for them anyway, so
+ * they are decoded in full and then handed out row by row.
+ */
+public final class StreamingJpegReader implements RowSource {
+    private static final int BAND_ROWS = 32;
+    private static final int QUEUED_BANDS = 4;
+    private static final int[] END = new int[0];
+
+    private final ImageInputStream stream;
+    private final ImageReader reader;
+    private final int width;
+    private final int height;
+    private final BlockingQueue<int[]> bands = new ArrayBlockingQueue<>(QUEUED_BANDS);
+    private final Thread decoder;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+
+    private int[] band = END;
+    private int bandStart;
+    private int nextRow;
+
+    public StreamingJpegReader(Path path) throws IOException {
+        this(open(path), path.getFileName().toString());
+    }
+
+    /**
+     * Decodes a JPEG read from {@code in}; closing this reader does not close {@code in}. The
+     * reader only seeks forward, so the stream cache can drop the input that has been decoded.
+     */
+    public StreamingJpegReader(InputStream in) throws IOException {
+        this(new MemoryCacheImageInputStream(in), "strumień wejściowy");
+    }
+
+    private StreamingJpegReader(ImageInputStream stream, String name) throws IOException {
+        this.stream = stream;
+        reader = jpegReader(stream, name);
+        reader.setInput(stream, true, true);
+        width = reader.getWidth(0);
+        height = reader.getHeight(0);
+        if ((long) width * height * 3 > Integer.MAX_VALUE) {
+            close();
+            throw new IIOException("Obraz jest zbyt duży: " + width + "x" + height);
+        }
+        decoder = new Thread(this::decode, "image-decoder");
+        decoder.setDaemon(true);
+        decoder.start();
+    }
+
+    /**
+     * Only the JPEG reader is accepted: it writes every scanline once and in order, which the
+     * sink relies on. Bottom-up or interlaced formats would revisit rows that are already emitted.
+     */
+    private static ImageReader jpegReader(ImageInputStream stream, String name) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+        if (!readers.hasNext()) {
+            stream.close();
+            throw new IIOException("Nieobsługiwany format pliku: " + name);
+        }
+        while (readers.hasNext()) {
+            ImageReader candidate = readers.next();
+            if (candidate.getOriginatingProvider() != null && isJpeg(candidate.getOriginatingProvider().getFormatNames())) {
+                return candidate;
+            }
+            candidate.dispose();
+        }
+        stream.close();
+        throw new IIOException("Obsługiwane są tylko pliki JPEG: " + name);
+    }
+
+    private static boolean isJpeg(String[] formatNames) {
+        for (String formatName : formatNames) {
+            if (formatName.equalsIgnoreCase("jpeg")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ImageInputStream open(Path path) throws IOException {
+        ImageInputStream stream = ImageIO.createImageInputStream(path.toFile());
+        if (stream == null) {
+            throw new IIOException("Nie można otworzyć pliku: " + path);
+        }
+        return stream;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void readRows(int y, int count, int[] dst, int offset) throws IOException {
+        if (y != nextRow) {
+            throw new IllegalStateException("Wiersze muszą być odczytywane po kolei: oczekiwano " + nextRow + ", otrzymano " + y);
+        }
+        int copied = 0;
+        while (copied < count) {
+            int bandRows = band.length / width;
+            if (nextRow >= bandStart + bandRows) {
+                bandStart += bandRows;
+                band = nextBand();
+                continue;
+            }
+            int rows = Math.min(count - copied, bandStart + bandRows - nextRow);
+            System.arraycopy(band, (nextRow - bandStart) * width, dst, offset + copied * width, rows * width);
+            copied += rows;
+            nextRow += rows;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (decoder != null) {
+            reader.abort();
+            decoder.interrupt();
+            bands.clear();
+            try {
+                decoder.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        reader.dispose();
+        stream.close();
+    }
+
+    private int[] nextBand() throws IOException {
+        try {
+            int[] next = bands.take();
+            if (next == END) {
+                Throwable cause = failure;
+                throw (cause != null)
+                        ? new IOException("Błąd dekodowania obrazu: " + cause.getMessage(), cause)
+                        : new IOException("Nieoczekiwany koniec obrazu.");
+            }
+            return next;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Przerwano dekodowanie obrazu.", e);
+        }
+    }
+
+    private void decode() {
+        try {
+            ImageTypeSpecifier type = reader.getImageTypes(0).next();
+            if (!(type.getSampleModel() instanceof ComponentSampleModel layout)
+                    || layout.getDataType() != DataBuffer.TYPE_BYTE
+                    || (layout.getNumBands() != 3 && layout.getNumBands() != 1)) {
+                throw new IIOException("Nieobsługiwany układ kolorów obrazu.");
+            }
+            ComponentSampleModel sampleModel = (ComponentSampleModel) type.getSampleModel(width, height);
+            ScanlineSink sink = new ScanlineSink(sampleModel);
+            ImageReadParam param = reader.getDefaultReadParam();
+            if (isProgressive()) {
+                // every scan of a progressive file rewrites the whole image, so it is decoded in full first
+                WritableRaster raster = Raster.createWritableRaster(sampleModel, null);
+                param.setDestination(new BufferedImage(type.getColorModel(), raster, false, null));
+                reader.read(0, param);
+                sink.emitAll(((DataBufferByte) raster.getDataBuffer()).getData());
+            } else {
+                WritableRaster raster = Raster.createWritableRaster(sampleModel, sink, null);
+                param.setDestination(new BufferedImage(type.getColorModel(), raster, false, null));
+                reader.read(0, param);
+                sink.finish();
+            }
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            if (!closed) {
+                try {
+                    bands.put(END);
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private boolean isProgressive() throws IOException {
+        IIOMetadata metadata = reader.getImageMetadata(0);
+        if (metadata == null || metadata.getNativeMetadataFormatName() == null) {
+            return false;
+        }
+        Node tree = metadata.getAsTree(metadata.getNativeMetadataFormatName());
+        NodeList frames = ((Element) tree).getElementsByTagName("sof");
+        return frames.getLength() > 0 && "2".equals(((Element) frames.item(0)).getAttribute("process"));
+    }
+
+    private final class ScanlineSink extends DataBuffer {
+        private final int scanlineStride;
+        private final int pixelStride;
+        private final int[] bandOffsets;
+        private final byte[] scanline;
+        private int row;
+        private int[] pending;
+        private int pendingRows;
+
+        ScanlineSink(ComponentSampleModel sampleModel) {
+            super(DataBuffer.TYPE_BYTE, sampleModel.getScanlineStride() * height);
+            scanlineStride = sampleModel.getScanlineStride();
+            pixelStride = sampleModel.getPixelStride();
+            bandOffsets = sampleModel.getBandOffsets();
+            scanline = new byte[scanlineStride];
+            pending = new int[BAND_ROWS * width];
+        }
+
+        @Override
+        public int getElem(int bank, int i) {
+            int r = i / scanlineStride;
+            checkNotEmitted(r);
+            return (r == row) ? scanline[i - r * scanlineStride] & 0xFF : 0;
+        }
+
+        @Override
+        public void setElem(int bank, int i, int val) {
+            int r = i / scanlineStride;
+            checkNotEmitted(r);
+            while (r > row) {
+                emitRow();
+            }
+            scanline[i - r * scanlineStride] = (byte) val;
+        }
+
+        private void checkNotEmitted(int r) {
+            if (r < row) {
+                throw new IllegalStateException("Dekoder odwołał się do wiersza " + r + ", który został już przekazany dalej.");
+            }
+        }
+
+        void emitAll(byte[] data) {
+            for (int r = 0; r < height; r++) {
+                System.arraycopy(data, r * scanlineStride, scanline, 0, scanlineStride);
+                emitRow();
+            }
+        }
+
+        void finish() {
+            while (row < height) {
+                emitRow();
+            }
+        }
+
+        private void emitRow() {
+            int base = pendingRows * width;
+            if (bandOffsets.length == 3) {
+                for (int x = 0, p = 0; x < width; x++, p += pixelStride) {
+                    pending[base + x] = 0xFF000000
+                            | (scanline[p + bandOffsets[0]] & 0xFF) << 16
+                            | (scanline[p + bandOffsets[1]] & 0xFF) << 8
+                            | (scanline[p + bandOffsets[2]] & 0xFF);
+                }
+            } else {
+                for (int x = 0, p = 0; x < width; x++, p += pixelStride) {
+                    pending[base + x] = 0xFF000000 | (scanline[p + bandOffsets[0]] & 0xFF) * 0x010101;
+                }
+            }
+            row++;
+            pendingRows++;
+            if (pendingRows == BAND_ROWS || row == height) {
+                int[] full = (pendingRows == BAND_ROWS) ? pending : Arrays.copyOf(pending, pendingRows * width);
+                try {
+                    bands.put(full);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Przerwano dekodowanie obrazu.", e);
+                }
+                pending = new int[BAND_ROWS * width];
+                pendingRows = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.image.imageapp;
+
+public record ThresholdOperation(int threshold) implements ToneOperation {
+
+    @Override
+    public String getName() {
+        return "Progowanie (próg " + threshold + ")";
+    }
+
+    @Override
+    public String getCategory() {
+        return "Progowanie";
+    }
+
+    @Override
+    public ToneMap toneMap() {
+        return ToneMap.threshold(threshold);
+    }
+
+    @Override
+    public boolean hasKernel() {
+        return true;
+    }
+
+    @Override
+    public void apply(int[] in, int inOffset, int[] out, int outOffset, int length) {
+        ImageKernels.threshold(in, inOffset, out, outOffset, length, threshold);
+    }
+}
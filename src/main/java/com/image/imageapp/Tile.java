@@ -0,0 +1,41 @@
+package com.image.imageapp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rectangular region of a raster owned by exactly one worker. Tiles of a grid never overlap, so
+ * kernels write their tile of the output buffer without any locking.
+ */
+public record Tile(int x, int y, int width, int height) {
+    public static final int DEFAULT_SIZE = 256;
+
+    public int endX() {
+        return x + width;
+    }
+
+    public int endY() {
+        return y + height;
+    }
+
+    public Tile grow(int margin, int imageWidth, int imageHeight) {
+        int gx = Math.max(0, x - margin);
+        int gy = Math.max(0, y - margin);
+        return new Tile(gx, gy, Math.min(imageWidth, endX() + margin) - gx, Math.min(imageHeight, endY() + margin) - gy);
+    }
+
+    public static int count(int imageWidth, int imageHeight, int tileSize) {
+        return ((imageWidth + tileSize - 1) / tileSize) * ((imageHeight + tileSize - 1) / tileSize);
+    }
+
+    public static List<Tile> grid(int imageWidth, int imageHeight, int tileSize) {
+        List<Tile> tiles = new ArrayList<>();
+        for (int ty = 0; ty < imageHeight; ty += tileSize) {
+            int th = Math.min(tileSize, imageHeight - ty);
+            for (int tx = 0; tx < imageWidth; tx += tileSize) {
+                tiles.add(new Tile(tx, ty, Math.min(tileSize, imageWidth - tx), th));
+            }
+        }
+        return tiles;
+    }
+}
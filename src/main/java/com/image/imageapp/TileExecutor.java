@@ -0,0 +1,8 @@
+package com.image.imageapp;
+
+public interface TileExecutor {
+
+    void forEachTile(int width, int height, ProcessingPool.TileTask task);
+
+    void forEachRows(int height, int width, ProcessingPool.RowTask task);
+}
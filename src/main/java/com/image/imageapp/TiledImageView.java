@@ -0,0 +1,274 @@
+package com.image.imageapp;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Affine;
+import javafx.scene.transform.NonInvertibleTransformException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Image view drawing a {@link MipPyramid} tile by tile. Only the tiles of the level matching the
+ * zoom that intersect the viewport become textures, so no texture is larger than a tile and a huge
+ * image costs what the window shows. A pending orientation is part of the drawing transform.
+ * Scrolling zooms around the cursor, dragging with the secondary or middle button pans, and a
+ * double click fits the image to the view again.
+ */
+public final class TiledImageView extends Region {
+    private static final int CACHED_TILES = 256;
+    private static final double MAX_SCALE = 16;
+
+    private record TextureKey(int level, int column, int row) {
+    }
+
+    private final Canvas canvas = new Canvas();
+    private final Map<TextureKey, WritableImage> textures = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TextureKey, WritableImage> eldest) {
+            return size() > CACHED_TILES;
+        }
+    };
+    private final int[] buffer = new int[Tile.DEFAULT_SIZE * Tile.DEFAULT_SIZE];
+    private MipPyramid pyramid;
+    private Orientation orientation = Orientation.IDENTITY;
+    private Image preview;
+    private Orientation previewOrientation = Orientation.IDENTITY;
+    private Tile selection;
+    private boolean fitted = true;
+    private double scale = 1;
+    private double centerX;
+    private double centerY;
+    private double dragX;
+    private double dragY;
+
+    public TiledImageView() {
+        getChildren().add(canvas);
+        setMinSize(100, 100);
+        addEventHandler(ScrollEvent.SCROLL, e -> {
+            if (pyramid == null || preview != null || e.getDeltaY() == 0) return;
+            zoom(Math.pow(1.0015, e.getDeltaY()), e.getX(), e.getY());
+            e.consume();
+        });
+        addEventHandler(MouseEvent.MOUSE_PRESSED, e -> {
+            dragX = e.getX();
+            dragY = e.getY();
+        });
+        addEventHandler(MouseEvent.MOUSE_DRAGGED, e -> {
+            if (pyramid == null || preview != null || !(e.isSecondaryButtonDown() || e.isMiddleButtonDown())) return;
+            centerX -= (e.getX() - dragX) / scale;
+            centerY -= (e.getY() - dragY) / scale;
+            dragX = e.getX();
+            dragY = e.getY();
+            fitted = false;
+            redraw();
+        });
+        addEventHandler(MouseEvent.MOUSE_CLICKED, e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) fit();
+        });
+    }
+
+    /** Shows a new image; the view is fitted to it when its size differs from the current one. */
+    public void setPyramid(MipPyramid pyramid) {
+        boolean resized = this.pyramid == null || pyramid == null || this.pyramid.getWidth() != pyramid.getWidth()
+                || this.pyramid.getHeight() != pyramid.getHeight();
+        this.pyramid = pyramid;
+        textures.clear();
+        if (resized) fitted = true;
+        redraw();
+    }
+
+    /** Shows {@code pyramid}, which differs from the current one only inside {@code dirty}. */
+    public void updatePyramid(MipPyramid pyramid, Tile dirty) {
+        MipPyramid previous = this.pyramid;
+        if (previous == null || previous.getWidth() != pyramid.getWidth() || previous.getHeight() != pyramid.getHeight()
+                || previous.getLevelCount() != pyramid.getLevelCount()) {
+            setPyramid(pyramid);
+            return;
+        }
+        this.pyramid = pyramid;
+        textures.keySet().removeIf(key -> {
+            Tile region = pyramid.region(dirty, 0, key.level());
+            int size = Tile.DEFAULT_SIZE;
+            return key.column() * size < region.endX() && (key.column() + 1) * size > region.x()
+                    && key.row() * size < region.endY() && (key.row() + 1) * size > region.y();
+        });
+        redraw();
+    }
+
+    public void setOrientation(Orientation orientation) {
+        this.orientation = orientation;
+        fitted = true;
+        redraw();
+    }
+
+    /**
+     * Shows {@code image} fitted to the view instead of the pyramid until {@link #clearPreview()}.
+     * {@code orientation} is the one still to be applied to the preview.
+     */
+    public void showPreview(Image image, Orientation orientation) {
+        preview = image;
+        previewOrientation = orientation;
+        redraw();
+    }
+
+    public void clearPreview() {
+        preview = null;
+        redraw();
+    }
+
+    public void setSelection(Tile selection) {
+        this.selection = selection;
+        redraw();
+    }
+
+    public void fit() {
+        fitted = true;
+        redraw();
+    }
+
+    /** Point of the image, before the pending orientation, shown at {@code (x, y)} of this view. */
+    public Point2D imagePoint(double x, double y) {
+        if (pyramid == null) return null;
+        try {
+            return viewTransform().inverseTransform(x, y);
+        } catch (NonInvertibleTransformException e) {
+            return null;
+        }
+    }
+
+    @Override
+    protected void layoutChildren() {
+        if (canvas.getWidth() != getWidth() || canvas.getHeight() != getHeight()) {
+            canvas.setWidth(getWidth());
+            canvas.setHeight(getHeight());
+            redraw();
+        }
+    }
+
+    private void zoom(double factor, double x, double y) {
+        Point2D anchor = orientedPoint(x, y);
+        double fitScale = fitScale();
+        scale = Math.clamp(scale * factor, Math.min(fitScale, 1) / 2, MAX_SCALE);
+        centerX = anchor.getX() - (x - canvas.getWidth() / 2) / scale;
+        centerY = anchor.getY() - (y - canvas.getHeight() / 2) / scale;
+        fitted = false;
+        redraw();
+    }
+
+    private Point2D orientedPoint(double x, double y) {
+        return new Point2D(centerX + (x - canvas.getWidth() / 2) / scale, centerY + (y - canvas.getHeight() / 2) / scale);
+    }
+
+    private double fitScale() {
+        int width = orientation.width(pyramid.getWidth(), pyramid.getHeight());
+        int height = orientation.height(pyramid.getWidth(), pyramid.getHeight());
+        return Math.min(canvas.getWidth() / width, canvas.getHeight() / height);
+    }
+
+    /** Maps image coordinates to the view: orientation about the image centre, then zoom and pan. */
+    private Affine viewTransform() {
+        int width = pyramid.getWidth();
+        int height = pyramid.getHeight();
+        if (fitted) {
+            scale = fitScale();
+            centerX = orientation.width(width, height) / 2.0;
+            centerY = orientation.height(width, height) / 2.0;
+        }
+        Affine transform = new Affine();
+        transform.appendTranslation(canvas.getWidth() / 2, canvas.getHeight() / 2);
+        transform.appendScale(scale, scale);
+        transform.appendTranslation(orientation.width(width, height) / 2.0 - centerX, orientation.height(width, height) / 2.0 - centerY);
+        transform.appendRotation(orientation.displayRotation());
+        transform.appendScale(orientation.isMirrored() ? -1 : 1, 1);
+        transform.appendTranslation(-width / 2.0, -height / 2.0);
+        return transform;
+    }
+
+    private void redraw() {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.setTransform(new Affine());
+        g.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (canvas.getWidth() < 1 || canvas.getHeight() < 1) return;
+        if (preview != null) {
+            drawPreview(g);
+            return;
+        }
+        if (pyramid == null) return;
+        Affine transform = viewTransform();
+        int level = pyramid.levelFor(scale);
+        TiledRaster raster = pyramid.level(level);
+        Bounds visible;
+        try {
+            visible = transform.inverseTransform(new BoundingBox(0, 0, canvas.getWidth(), canvas.getHeight()));
+        } catch (NonInvertibleTransformException e) {
+            return;
+        }
+        int factor = 1 << level;
+        int size = Tile.DEFAULT_SIZE;
+        int firstColumn = Math.max(0, (int) Math.floor(visible.getMinX() / factor / size));
+        int firstRow = Math.max(0, (int) Math.floor(visible.getMinY() / factor / size));
+        int lastColumn = Math.min((raster.getWidth() - 1) / size, (int) Math.floor(visible.getMaxX() / factor / size));
+        int lastRow = Math.min((raster.getHeight() - 1) / size, (int) Math.floor(visible.getMaxY() / factor / size));
+        g.setTransform(transform);
+        g.setImageSmoothing(scale < 2);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                WritableImage texture = texture(raster, level, column, row);
+                g.drawImage(texture, column * size * factor, row * size * factor,
+                        texture.getWidth() * factor, texture.getHeight() * factor);
+            }
+        }
+        if (selection != null) {
+            g.setStroke(Color.DODGERBLUE);
+            g.setLineWidth(1.5 / scale);
+            g.setLineDashes(6 / scale, 4 / scale);
+            g.setFill(Color.rgb(30, 144, 255, 0.2));
+            g.fillRect(selection.x(), selection.y(), selection.width(), selection.height());
+            g.strokeRect(selection.x(), selection.y(), selection.width(), selection.height());
+            g.setLineDashes();
+        }
+    }
+
+    private void drawPreview(GraphicsContext g) {
+        double width = preview.getWidth();
+        double height = preview.getHeight();
+        double fit = Math.min(canvas.getWidth() / previewOrientation.width((int) width, (int) height),
+                canvas.getHeight() / previewOrientation.height((int) width, (int) height));
+        Affine transform = new Affine();
+        transform.appendTranslation(canvas.getWidth() / 2, canvas.getHeight() / 2);
+        transform.appendScale(fit, fit);
+        transform.appendRotation(previewOrientation.displayRotation());
+        transform.appendScale(previewOrientation.isMirrored() ? -1 : 1, 1);
+        g.setTransform(transform);
+        g.setImageSmoothing(true);
+        g.drawImage(preview, -width / 2, -height / 2);
+    }
+
+    private WritableImage texture(TiledRaster raster, int level, int column, int row) {
+        TextureKey key = new TextureKey(level, column, row);
+        WritableImage texture = textures.get(key);
+        if (texture == null) {
+            int size = Tile.DEFAULT_SIZE;
+            Tile tile = new Tile(column * size, row * size, Math.min(size, raster.getWidth() - column * size),
+                    Math.min(size, raster.getHeight() - row * size));
+            raster.read(tile, buffer);
+            texture = new WritableImage(tile.width(), tile.height());
+            texture.getPixelWriter().setPixels(0, 0, tile.width(), tile.height(), PixelFormat.getIntArgbPreInstance(),
+                    buffer, 0, tile.width());
+            textures.put(key, texture);
+        }
+        return texture;
+    }
+}
@@ -0,0 +1,316 @@
+package com.image.imageapp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Applies a {@link Pipeline} to a JPEG file without decoding it into memory. Rows stream from
+ * {@link StreamingJpegReader} through bands of {@link #BAND_ROWS} rows, each band processed in
+ * parallel with the halo its neighbourhood stages need, and straight into the JPEG encoder.
+ * Orientation changes and scaling need random access, so their input is first spilled to a {@link MappedRaster}.
+ */
+public final class TiledProcessor {
+    public static final int BAND_ROWS = 256;
+
+    private TiledProcessor() {
+    }
+
+    public static void process(Path input, Path output, Pipeline pipeline, TileExecutor executor,
+                               ProgressListener listener) throws IOException {
+        process(input, output, pipeline, executor, JpegWriter.DEFAULT_QUALITY, listener);
+    }
+
+    public static void process(Path input, Path output, Pipeline pipeline, TileExecutor executor, float quality,
+                               ProgressListener listener) throws IOException {
+        process(new StreamingJpegReader(input), pipeline, executor,
+                rows -> JpegWriter.write(new CountingRows(rows, listener), output, quality));
+    }
+
+    /** Like {@link #process(Path, Path, Pipeline, TileExecutor, float, ProgressListener)} on streams, which are left open. */
+    public static void process(InputStream input, OutputStream output, Pipeline pipeline, TileExecutor executor,
+                               float quality) throws IOException {
+        process(new StreamingJpegReader(input), pipeline, executor, rows -> JpegWriter.write(rows, output, quality));
+    }
+
+    private interface RowSink {
+        void write(RowSource rows) throws IOException;
+    }
+
+    private static void process(RowSource input, Pipeline pipeline, TileExecutor executor, RowSink sink) throws IOException {
+        Deque<RowSource> opened = new ArrayDeque<>();
+        try {
+            RowSource current = push(opened, input);
+            List<ImageOperation> segment = new ArrayList<>();
+            for (ImageOperation stage : pipeline.getStages()) {
+                if (stage instanceof RotateOperation rotate) {
+                    current = spill(opened, fuse(current, segment, executor));
+                    current = new OrientedRows((MappedRaster) current, rotate.orientation());
+                } else if (stage instanceof OrientOperation orient) {
+                    current = spill(opened, fuse(current, segment, executor));
+                    current = new OrientedRows((MappedRaster) current, orient.orientation());
+                } else if (stage instanceof ScaleOperation scale) {
+                    current = spill(opened, fuse(current, segment, executor));
+                    current = new ScaledRows((MappedRaster) current, scale);
+                } else if (stage instanceof GlobalOperation) {
+                    throw new IllegalArgumentException("Operacja nie jest obsługiwana w trybie kafelkowym: " + stage.getName());
+                } else {
+                    segment.add(stage);
+                }
+            }
+            current = fuse(current, segment, executor);
+            sink.write(current);
+        } finally {
+            IOException failure = null;
+            while (!opened.isEmpty()) {
+                try {
+                    opened.pop().close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private static RowSource push(Deque<RowSource> opened, RowSource source) {
+        opened.push(source);
+        return source;
+    }
+
+    private static RowSource fuse(RowSource source, List<ImageOperation> segment, TileExecutor executor) {
+        if (segment.isEmpty()) {
+            return source;
+        }
+        RowSource fused = new FusedRows(source, new Pipeline(segment), executor);
+        segment.clear();
+        return fused;
+    }
+
+    private static RowSource spill(Deque<RowSource> opened, RowSource source) throws IOException {
+        return push(opened, MappedRaster.copyOf(source, BAND_ROWS));
+    }
+
+    private static final class FusedRows implements RowSource {
+        private final RowSource source;
+        private final Pipeline pipeline;
+        private final TileExecutor executor;
+        private final int width;
+        private final int height;
+        private final int halo;
+        private int[] input = new int[0];
+        private int inputStart;
+        private int inputRows;
+        private int[] output = new int[0];
+        private int outputStart;
+        private int outputRows;
+
+        FusedRows(RowSource source, Pipeline pipeline, TileExecutor executor) {
+            this.source = source;
+            this.pipeline = pipeline;
+            this.executor = executor;
+            this.width = source.getWidth();
+            this.height = source.getHeight();
+            int total = 0;
+            for (ImageOperation stage : pipeline.getStages()) {
+                if (stage instanceof NeighbourhoodOperation neighbourhood) {
+                    total += neighbourhood.getHalo();
+                }
+            }
+            this.halo = total;
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public void readRows(int y, int count, int[] dst, int offset) throws IOException {
+            int copied = 0;
+            while (copied < count) {
+                int row = y + copied;
+                if (row < outputStart || row >= outputStart + outputRows) {
+                    computeBand(row);
+                }
+                int rows = Math.min(count - copied, outputStart + outputRows - row);
+                System.arraycopy(output, (row - outputStart) * width, dst, offset + copied * width, rows * width);
+                copied += rows;
+            }
+        }
+
+        private void computeBand(int start) throws IOException {
+            int end = Math.min(height, start + BAND_ROWS);
+            int from = Math.max(0, start - halo);
+            int to = Math.min(height, end + halo);
+            if (from < inputStart) {
+                throw new IllegalStateException("Wiersze muszą być odczytywane po kolei.");
+            }
+            int[] window = new int[(to - from) * width];
+            int kept = Math.max(0, inputStart + inputRows - from);
+            if (kept > 0) {
+                System.arraycopy(input, (from - inputStart) * width, window, 0, kept * width);
+            }
+            source.readRows(from + kept, to - from - kept, window, kept * width);
+            input = window;
+            inputStart = from;
+            inputRows = to - from;
+
+            ArgbRaster result = pipeline.run(new ArgbRaster(width, to - from, window), executor);
+            output = new int[(end - start) * width];
+            System.arraycopy(result.getPixels(), (start - from) * width, output, 0, output.length);
+            outputStart = start;
+            outputRows = end - start;
+        }
+    }
+
+    private static final class OrientedRows implements RowSource {
+        private static final int BLOCK_ROWS = 64;
+        private final MappedRaster source;
+        private final Orientation orientation;
+        private int[] block = new int[0];
+
+        OrientedRows(MappedRaster source, Orientation orientation) {
+            this.source = source;
+            this.orientation = orientation;
+        }
+
+        @Override
+        public int getWidth() {
+            return orientation.width(source.getWidth(), source.getHeight());
+        }
+
+        @Override
+        public int getHeight() {
+            return orientation.height(source.getWidth(), source.getHeight());
+        }
+
+        @Override
+        public void readRows(int y, int count, int[] dst, int offset) {
+            int sourceWidth = source.getWidth();
+            int sourceHeight = source.getHeight();
+            if (!orientation.transposes()) {
+                for (int row = y; row < y + count; row++) {
+                    int sourceRow = orientation.flipsY() ? sourceHeight - 1 - row : row;
+                    int base = offset + (row - y) * sourceWidth;
+                    source.readRows(sourceRow, 1, dst, base);
+                    if (orientation.flipsX()) {
+                        ImageKernels.reverse(dst, base, sourceWidth);
+                    }
+                }
+                return;
+            }
+            int column = orientation.flipsX() ? sourceWidth - y - count : y;
+            if (block.length < count * BLOCK_ROWS) {
+                block = new int[count * BLOCK_ROWS];
+            }
+            for (int sy = 0; sy < sourceHeight; sy += BLOCK_ROWS) {
+                int rows = Math.min(BLOCK_ROWS, sourceHeight - sy);
+                source.readBlock(column, sy, count, rows, block);
+                for (int r = 0; r < rows; r++) {
+                    int x = orientation.flipsY() ? sourceHeight - 1 - (sy + r) : sy + r;
+                    for (int c = 0; c < count; c++) {
+                        int row = orientation.flipsX() ? count - 1 - c : c;
+                        dst[offset + row * sourceHeight + x] = block[r * count + c];
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class ScaledRows implements RowSource {
+        private final MappedRaster source;
+        private final Resampler resampler;
+        private final boolean nearest;
+        private int[] sourceRows = new int[0];
+        private int[] resampledRows = new int[0];
+
+        ScaledRows(MappedRaster source, ScaleOperation scale) {
+            this.source = source;
+            this.resampler = scale.resampler(source.getWidth(), source.getHeight());
+            this.nearest = scale.filter() == ResampleFilter.NEAREST;
+        }
+
+        @Override
+        public int getWidth() {
+            return resampler.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return resampler.getHeight();
+        }
+
+        @Override
+        public void readRows(int y, int count, int[] dst, int offset) {
+            int width = resampler.getWidth();
+            if (nearest) {
+                if (sourceRows.length < source.getWidth()) {
+                    sourceRows = new int[source.getWidth()];
+                }
+                for (int row = y; row < y + count; row++) {
+                    source.readRows(resampler.firstSourceRow(row), 1, sourceRows, 0);
+                    resampler.resampleRow(sourceRows, 0, dst, offset + (row - y) * width);
+                }
+                return;
+            }
+            int first = resampler.firstSourceRow(y);
+            int rows = 0;
+            for (int row = y; row < y + count; row++) {
+                rows = Math.max(rows, resampler.endSourceRow(row) - first);
+            }
+            int sourceWidth = source.getWidth();
+            if (sourceRows.length < rows * sourceWidth) {
+                sourceRows = new int[rows * sourceWidth];
+                resampledRows = new int[rows * width];
+            }
+            source.readRows(first, rows, sourceRows, 0);
+            for (int row = 0; row < rows; row++) {
+                resampler.resampleRow(sourceRows, row * sourceWidth, resampledRows, row * width);
+            }
+            for (int row = y; row < y + count; row++) {
+                resampler.combineRows(row, resampledRows, first, dst, offset + (row - y) * width);
+            }
+        }
+    }
+
+    private static final class CountingRows implements RowSource {
+        private final RowSource source;
+        private final ProgressListener listener;
+        private long done;
+
+        CountingRows(RowSource source, ProgressListener listener) {
+            this.source = source;
+            this.listener = listener;
+        }
+
+        @Override
+        public int getWidth() {
+            return source.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return source.getHeight();
+        }
+
+        @Override
+        public void readRows(int y, int count, int[] dst, int offset) throws IOException {
+            source.readRows(y, count, dst, offset);
+            done += count;
+            listener.progress(done, source.getHeight());
+        }
+    }
+}
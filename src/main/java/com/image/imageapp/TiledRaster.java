@@ -0,0 +1,132 @@
+package com.image.imageapp;
+
+/**
+ * Copy-on-write image made of {@link Tile#DEFAULT_SIZE} tiles. Tiles that were never written read
+ * their pixels from the base raster, which must not be modified afterwards. Writing a region
+ * produces a new version that owns copies of the tiles under the region and shares every other
+ * tile with this one, so both work and memory follow the size of the region.
+ */
+public final class TiledRaster {
+    private static final int SIZE = Tile.DEFAULT_SIZE;
+
+    private final ArgbRaster base;
+    private final int[][] tiles;
+    private final int columns;
+
+    private TiledRaster(ArgbRaster base, int[][] tiles) {
+        this.base = base;
+        this.tiles = tiles;
+        this.columns = (base.getWidth() + SIZE - 1) / SIZE;
+    }
+
+    public static TiledRaster of(ArgbRaster base) {
+        return new TiledRaster(base, new int[Tile.count(base.getWidth(), base.getHeight(), SIZE)][]);
+    }
+
+    public int getWidth() {
+        return base.getWidth();
+    }
+
+    public int getHeight() {
+        return base.getHeight();
+    }
+
+    /** Number of tiles this version does not share with the base raster. */
+    public int getWrittenTiles() {
+        int written = 0;
+        for (int[] tile : tiles) {
+            if (tile != null) written++;
+        }
+        return written;
+    }
+
+    public ArgbRaster region(Tile region) {
+        ArgbRaster raster = new ArgbRaster(region.width(), region.height());
+        read(region, raster.getPixels());
+        return raster;
+    }
+
+    public ArgbRaster toRaster() {
+        return region(new Tile(0, 0, getWidth(), getHeight()));
+    }
+
+    /** Version of this raster with {@code region} replaced by {@code pixels}. */
+    public TiledRaster with(Tile region, ArgbRaster pixels) {
+        if (pixels.getWidth() != region.width() || pixels.getHeight() != region.height()) {
+            throw new IllegalArgumentException("Rozmiar pikseli nie odpowiada obszarowi.");
+        }
+        TiledRaster result = copyOnWrite(region);
+        result.write(new RasterWindow(pixels.getPixels(), region), region);
+        return result;
+    }
+
+    /** Copies {@code bounds} into {@code dst}, row by row with a stride equal to the bounds width. */
+    RasterWindow read(Tile bounds, int[] dst) {
+        check(bounds);
+        for (int row = bounds.y() / SIZE; row * SIZE < bounds.endY(); row++) {
+            for (int column = bounds.x() / SIZE; column * SIZE < bounds.endX(); column++) {
+                Tile tile = tile(column, row);
+                int[] pixels = tiles[row * columns + column];
+                int x0 = Math.max(bounds.x(), tile.x());
+                int x1 = Math.min(bounds.endX(), tile.endX());
+                for (int y = Math.max(bounds.y(), tile.y()); y < Math.min(bounds.endY(), tile.endY()); y++) {
+                    int offset = (y - bounds.y()) * bounds.width() + (x0 - bounds.x());
+                    if (pixels == null) {
+                        System.arraycopy(base.getPixels(), y * base.getWidth() + x0, dst, offset, x1 - x0);
+                    } else {
+                        System.arraycopy(pixels, (y - tile.y()) * tile.width() + (x0 - tile.x()), dst, offset, x1 - x0);
+                    }
+                }
+            }
+        }
+        return new RasterWindow(dst, bounds);
+    }
+
+    /**
+     * New version owning its own copies of the tiles under {@code region}. Only the thread that
+     * created it may {@link #write} into it, and only before it is published.
+     */
+    TiledRaster copyOnWrite(Tile region) {
+        check(region);
+        int[][] copy = tiles.clone();
+        TiledRaster result = new TiledRaster(base, copy);
+        for (int row = region.y() / SIZE; row * SIZE < region.endY(); row++) {
+            for (int column = region.x() / SIZE; column * SIZE < region.endX(); column++) {
+                Tile tile = tile(column, row);
+                int[] pixels = new int[tile.width() * tile.height()];
+                read(tile, pixels);
+                copy[row * columns + column] = pixels;
+            }
+        }
+        return result;
+    }
+
+    /** Writes the part of {@code window} inside {@code target} into tiles owned by this version. */
+    void write(RasterWindow window, Tile target) {
+        for (int row = target.y() / SIZE; row * SIZE < target.endY(); row++) {
+            for (int column = target.x() / SIZE; column * SIZE < target.endX(); column++) {
+                Tile tile = tile(column, row);
+                int[] pixels = tiles[row * columns + column];
+                int x0 = Math.max(target.x(), tile.x());
+                int x1 = Math.min(target.endX(), tile.endX());
+                for (int y = Math.max(target.y(), tile.y()); y < Math.min(target.endY(), tile.endY()); y++) {
+                    System.arraycopy(window.pixels(), window.index(x0, y), pixels,
+                            (y - tile.y()) * tile.width() + (x0 - tile.x()), x1 - x0);
+                }
+            }
+        }
+    }
+
+    private Tile tile(int column, int row) {
+        int x = column * SIZE;
+        int y = row * SIZE;
+        return new Tile(x, y, Math.min(SIZE, getWidth() - x), Math.min(SIZE, getHeight() - y));
+    }
+
+    private void check(Tile region) {
+        if (region.x() < 0 || region.y() < 0 || region.width() < 1 || region.height() < 1
+                || region.endX() > getWidth() || region.endY() > getHeight()) {
+            throw new IllegalArgumentException("Obszar wykracza poza obraz: " + region);
+        }
+    }
+}
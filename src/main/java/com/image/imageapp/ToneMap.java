@@ -0,0 +1,151 @@
+package com.image.imageapp;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Point operation expressed as 256-entry lookup tables. A map either transforms every channel
+ * through its own table, or first reduces the pixel to a single 8-bit value (weighted luminance or
+ * the brightest channel, each channel looked up in its own input table) and then looks up all
+ * three channels from that value. Both forms are closed under {@link #then}, so any chain of tone
+ * operations collapses into one map that gives exactly the result of applying them one by one.
+ */
+public final class ToneMap {
+    private static final int WEIGHT_ONE = 1 << 16;
+
+    private enum Reduce { NONE, SUM, MAX }
+
+    private final Reduce reduce;
+    private final int[] inRed;
+    private final int[] inGreen;
+    private final int[] inBlue;
+    private final int[] red;
+    private final int[] green;
+    private final int[] blue;
+    private final boolean opaque;
+
+    private ToneMap(Reduce reduce, int[] inRed, int[] inGreen, int[] inBlue, int[] red, int[] green, int[] blue,
+                    boolean opaque) {
+        this.reduce = reduce;
+        this.inRed = inRed;
+        this.inGreen = inGreen;
+        this.inBlue = inBlue;
+        this.red = red;
+        this.green = green;
+        this.blue = blue;
+        this.opaque = opaque;
+    }
+
+    public static ToneMap identity() {
+        return channels(IntUnaryOperator.identity());
+    }
+
+    /** The same curve for every channel; results are clamped to 0-255. */
+    public static ToneMap channels(IntUnaryOperator curve) {
+        int[] table = table(curve);
+        return channels(table, table, table);
+    }
+
+    public static ToneMap channels(int[] red, int[] green, int[] blue) {
+        return new ToneMap(Reduce.NONE, null, null, null, check(red), check(green), check(blue), false);
+    }
+
+    /**
+     * Gray pixels of the weighted luminance. The weights are 16-bit fixed point and must add up to
+     * {@code 65536}, so that gray pixels stay unchanged.
+     */
+    public static ToneMap luminance(int redWeight, int greenWeight, int blueWeight) {
+        if (redWeight < 0 || greenWeight < 0 || blueWeight < 0 || redWeight + greenWeight + blueWeight != WEIGHT_ONE) {
+            throw new IllegalArgumentException("Wagi luminancji muszą sumować się do " + WEIGHT_ONE + ".");
+        }
+        int[] identity = table(IntUnaryOperator.identity());
+        return new ToneMap(Reduce.SUM, table(i -> i * redWeight), table(i -> i * greenWeight), table(i -> i * blueWeight),
+                identity, identity, identity, false);
+    }
+
+    /** Opaque black or white depending on {@link ImageKernels#brightness(int)}, as Progowanie does. */
+    public static ToneMap threshold(int threshold) {
+        int[] identity = table(IntUnaryOperator.identity());
+        int[] levels = table(i -> i >= threshold ? 255 : 0);
+        return new ToneMap(Reduce.MAX, identity, identity, identity, levels, levels, levels, true);
+    }
+
+    /** Map applying this one and then {@code next}. */
+    public ToneMap then(ToneMap next) {
+        boolean bothOpaque = opaque || next.opaque;
+        if (next.reduce == Reduce.NONE) {
+            return new ToneMap(reduce, inRed, inGreen, inBlue, compose(red, next.red), compose(green, next.green),
+                    compose(blue, next.blue), bothOpaque);
+        }
+        if (reduce == Reduce.NONE) {
+            return new ToneMap(next.reduce, compose(red, next.inRed), compose(green, next.inGreen),
+                    compose(blue, next.inBlue), next.red, next.green, next.blue, bothOpaque);
+        }
+        // both reduce: the value next reduces to depends only on the value this one reduced to
+        int[] reduced = new int[256];
+        for (int i = 0; i < reduced.length; i++) {
+            reduced[i] = next.reduce(next.inRed[red[i]], next.inGreen[green[i]], next.inBlue[blue[i]]);
+        }
+        return new ToneMap(reduce, inRed, inGreen, inBlue, compose(reduced, next.red), compose(reduced, next.green),
+                compose(reduced, next.blue), bothOpaque);
+    }
+
+    public void apply(int[] in, int inOffset, int[] out, int outOffset, int length) {
+        int alpha = opaque ? 0xFF000000 : 0;
+        switch (reduce) {
+            case NONE -> {
+                for (int i = 0; i < length; i++) {
+                    int argb = in[inOffset + i];
+                    out[outOffset + i] = (argb & 0xFF000000) | alpha | red[(argb >> 16) & 0xFF] << 16
+                            | green[(argb >> 8) & 0xFF] << 8 | blue[argb & 0xFF];
+                }
+            }
+            case SUM -> {
+                for (int i = 0; i < length; i++) {
+                    int argb = in[inOffset + i];
+                    int value = (inRed[(argb >> 16) & 0xFF] + inGreen[(argb >> 8) & 0xFF] + inBlue[argb & 0xFF]
+                            + WEIGHT_ONE / 2) >>> 16;
+                    out[outOffset + i] = (argb & 0xFF000000) | alpha | red[value] << 16 | green[value] << 8 | blue[value];
+                }
+            }
+            case MAX -> {
+                for (int i = 0; i < length; i++) {
+                    int argb = in[inOffset + i];
+                    int value = Math.max(inRed[(argb >> 16) & 0xFF], Math.max(inGreen[(argb >> 8) & 0xFF], inBlue[argb & 0xFF]));
+                    out[outOffset + i] = (argb & 0xFF000000) | alpha | red[value] << 16 | green[value] << 8 | blue[value];
+                }
+            }
+        }
+    }
+
+    /** Values of {@code curve} for the inputs 0-255. */
+    public static int[] table(IntUnaryOperator curve) {
+        int[] table = new int[256];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = curve.applyAsInt(i);
+        }
+        return table;
+    }
+
+    private int reduce(int r, int g, int b) {
+        return reduce == Reduce.SUM ? (r + g + b + WEIGHT_ONE / 2) >>> 16 : Math.max(r, Math.max(g, b));
+    }
+
+    private static int[] compose(int[] first, int[] second) {
+        int[] composed = new int[256];
+        for (int i = 0; i < composed.length; i++) {
+            composed[i] = second[first[i]];
+        }
+        return composed;
+    }
+
+    private static int[] check(int[] table) {
+        if (table.length != 256) {
+            throw new IllegalArgumentException("Tablica przekodowania musi mieć 256 pozycji.");
+        }
+        int[] copy = table.clone();
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = Math.clamp(copy[i], 0, 255);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,24 @@
+package com.image.imageapp;
+
+/**
+ * Point operation that can be expressed as a {@link ToneMap}. {@link Pipeline} replaces every run
+ * of consecutive tone operations with a single lookup pass over their composed map, so the tables
+ * are built once per run rather than on each {@link #apply} call.
+ */
+public interface ToneOperation extends PointOperation {
+
+    ToneMap toneMap();
+
+    /**
+     * Whether {@link #apply} uses a dedicated kernel that is faster than a table lookup. Such an
+     * operation is only replaced by its map when it can be merged with a neighbouring one.
+     */
+    default boolean hasKernel() {
+        return false;
+    }
+
+    @Override
+    default void apply(int[] in, int inOffset, int[] out, int outOffset, int length) {
+        toneMap().apply(in, inOffset, out, outOffset, length);
+    }
+}
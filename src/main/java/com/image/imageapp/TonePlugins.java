@@ -0,0 +1,160 @@
+package com.image.imageapp;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/** Dialogs of the tone operations built on {@link ToneMap}. */
+public final class TonePlugins {
+
+    private TonePlugins() {
+    }
+
+    public static List<OperationPlugin> all() {
+        return List.of(grayscale(), gamma(), brightnessContrast(), levels(), curves());
+    }
+
+    private static OperationPlugin grayscale() {
+        return OperationPlugin.of("Skala szarości", (owner, use, onAccept) -> {
+            ComboBox<GrayscaleOperation.Standard> standardBox = new ComboBox<>();
+            standardBox.getItems().addAll(GrayscaleOperation.Standard.values());
+            standardBox.setValue(GrayscaleOperation.Standard.BT601);
+            showDialog(owner, "Skala szarości", use, () -> new GrayscaleOperation(standardBox.getValue()), onAccept,
+                    new Label("Współczynniki luminancji:"), standardBox);
+        });
+    }
+
+    private static OperationPlugin gamma() {
+        return OperationPlugin.of("Korekcja gamma", (owner, use, onAccept) -> {
+            Spinner<Double> gammaSpinner = doubleSpinner(GammaOperation.MIN_GAMMA, GammaOperation.MAX_GAMMA, 1);
+            showDialog(owner, "Korekcja gamma", use, () -> new GammaOperation(gammaSpinner.getValue()), onAccept,
+                    new Label("Współczynnik gamma (powyżej 1 rozjaśnia):"), gammaSpinner);
+        });
+    }
+
+    private static OperationPlugin brightnessContrast() {
+        return OperationPlugin.of("Jasność i kontrast", (owner, use, onAccept) -> {
+            Spinner<Integer> brightnessSpinner = new Spinner<>(-255, 255, 0);
+            brightnessSpinner.setEditable(true);
+            Spinner<Double> contrastSpinner = doubleSpinner(0, BrightnessContrastOperation.MAX_CONTRAST, 1);
+            showDialog(owner, "Jasność i kontrast", use,
+                    () -> new BrightnessContrastOperation(brightnessSpinner.getValue(), contrastSpinner.getValue()), onAccept,
+                    new Label("Jasność (-255-255):"), brightnessSpinner, new Label("Kontrast (1 bez zmian):"), contrastSpinner);
+        });
+    }
+
+    private static OperationPlugin levels() {
+        return OperationPlugin.of("Poziomy", (owner, use, onAccept) -> {
+            Spinner<Integer> blackSpinner = new Spinner<>(0, 254, 0);
+            blackSpinner.setEditable(true);
+            Spinner<Integer> whiteSpinner = new Spinner<>(1, 255, 255);
+            whiteSpinner.setEditable(true);
+            Spinner<Double> gammaSpinner = doubleSpinner(GammaOperation.MIN_GAMMA, GammaOperation.MAX_GAMMA, 1);
+            showDialog(owner, "Poziomy", use,
+                    () -> new LevelsOperation(blackSpinner.getValue(), whiteSpinner.getValue(), gammaSpinner.getValue()), onAccept,
+                    new Label("Punkt czerni:"), blackSpinner, new Label("Punkt bieli:"), whiteSpinner,
+                    new Label("Gamma tonów średnich:"), gammaSpinner);
+        });
+    }
+
+    private static OperationPlugin curves() {
+        return OperationPlugin.of("Krzywe", (owner, use, onAccept) -> {
+            ComboBox<CurvesOperation.Channel> channelBox = new ComboBox<>();
+            channelBox.getItems().addAll(CurvesOperation.Channel.values());
+            channelBox.setValue(CurvesOperation.Channel.RGB);
+            TextField pointsField = new TextField("0:0/64:48/192:208/255:255");
+            Canvas curveCanvas = new Canvas(256, 256);
+            Supplier<ImageOperation> operation = () -> OperationParser.parseOperation(
+                    "curves" + switch (channelBox.getValue()) {
+                        case RGB -> "";
+                        case RED -> ":r";
+                        case GREEN -> ":g";
+                        case BLUE -> ":b";
+                    } + "=" + pointsField.getText().trim());
+            Runnable redraw = () -> {
+                try {
+                    drawCurve(curveCanvas, ((CurvesOperation) operation.get()).curve());
+                } catch (IllegalArgumentException e) {
+                    drawCurve(curveCanvas, null);
+                }
+            };
+            pointsField.textProperty().addListener((obs, oldV, newV) -> redraw.run());
+            redraw.run();
+            showDialog(owner, "Krzywe", use, operation, onAccept, curveCanvas, new Label("Kanał:"), channelBox,
+                    new Label("Punkty WEJŚCIE:WYJŚCIE oddzielone ukośnikiem:"), pointsField);
+        });
+    }
+
+    private static void showDialog(Window owner, String title, OperationPlugin.Use use, Supplier<ImageOperation> operation,
+                                   Consumer<ImageOperation> onAccept, Node... controls) {
+        Stage dialog = new Stage();
+        dialog.initOwner(owner);
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle(title);
+
+        Label errorLabel = new Label();
+        errorLabel.setTextFill(Color.RED);
+        errorLabel.setWrapText(true);
+        Button wykonaj = new Button(use == OperationPlugin.Use.PIPELINE ? "Dodaj do potoku" : "Zastosuj");
+        Button anuluj = new Button("Anuluj");
+        HBox buttonBox = new HBox(10, wykonaj, anuluj);
+        buttonBox.setAlignment(Pos.CENTER);
+
+        VBox layout = new VBox(10, controls);
+        layout.getChildren().addAll(errorLabel, buttonBox);
+        layout.setAlignment(Pos.CENTER);
+        layout.setPadding(new Insets(20));
+        dialog.setScene(new Scene(layout));
+        dialog.show();
+
+        anuluj.setOnAction(e -> dialog.close());
+        wykonaj.setOnAction(e -> {
+            ImageOperation created;
+            try {
+                created = operation.get();
+            } catch (IllegalArgumentException ex) {
+                errorLabel.setText(ex.getMessage());
+                return;
+            }
+            dialog.close();
+            onAccept.accept(created);
+        });
+    }
+
+    private static Spinner<Double> doubleSpinner(double min, double max, double initial) {
+        Spinner<Double> spinner = new Spinner<>(min, max, initial, 0.1);
+        spinner.setEditable(true);
+        return spinner;
+    }
+
+    private static void drawCurve(Canvas canvas, int[] curve) {
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.setFill(Color.WHITE);
+        g.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        g.setStroke(Color.LIGHTGRAY);
+        g.strokeLine(0, 255.5, 255.5, 0);
+        if (curve == null) return;
+        g.setStroke(Color.BLACK);
+        for (int x = 1; x < curve.length; x++) {
+            g.strokeLine(x - 0.5, 255.5 - curve[x - 1], x + 0.5, 255.5 - curve[x]);
+        }
+    }
+}
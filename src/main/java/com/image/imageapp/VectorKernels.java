@@ -0,0 +1,82 @@
+package com.image.imageapp;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernels. Each loop processes whole vectors of the preferred species and leaves the
+ * remainder to {@link ScalarKernels}. Only loaded through {@link PixelKernels#vector()}.
+ */
+final class VectorKernels implements PixelKernels {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int OPAQUE_BLACK = 0xFF000000;
+    private static final int OPAQUE_WHITE = 0xFFFFFFFF;
+
+    VectorKernels() {
+        if (SPECIES.length() < 4) {
+            throw new UnsupportedOperationException("Brak obsługi wektorów SIMD.");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Vector API (" + SPECIES.vectorBitSize() + " bit)";
+    }
+
+    @Override
+    public void negative(int[] in, int inOffset, int[] out, int outOffset, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, in, inOffset + i)
+                    .lanewise(VectorOperators.XOR, 0x00FFFFFF)
+                    .intoArray(out, outOffset + i);
+        }
+        ScalarKernels.INSTANCE.negative(in, inOffset + bound, out, outOffset + bound, length - bound);
+    }
+
+    @Override
+    public void threshold(int[] in, int inOffset, int[] out, int outOffset, int length, int threshold) {
+        IntVector black = IntVector.broadcast(SPECIES, OPAQUE_BLACK);
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            VectorMask<Integer> bright = brightness(IntVector.fromArray(SPECIES, in, inOffset + i))
+                    .compare(VectorOperators.GE, threshold);
+            black.blend(OPAQUE_WHITE, bright).intoArray(out, outOffset + i);
+        }
+        ScalarKernels.INSTANCE.threshold(in, inOffset + bound, out, outOffset + bound, length - bound, threshold);
+    }
+
+    @Override
+    public void brightness(int[] in, int inOffset, int[] out, int outOffset, int length) {
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            brightness(IntVector.fromArray(SPECIES, in, inOffset + i)).intoArray(out, outOffset + i);
+        }
+        ScalarKernels.INSTANCE.brightness(in, inOffset + bound, out, outOffset + bound, length - bound);
+    }
+
+    @Override
+    public void gradient(int[] current, int[] below, int[] out, int outOffset, int width) {
+        int bound = SPECIES.loopBound(width);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            IntVector level = IntVector.fromArray(SPECIES, current, i);
+            IntVector right = IntVector.fromArray(SPECIES, current, i + 1);
+            IntVector down = IntVector.fromArray(SPECIES, below, i);
+            level.sub(right).abs()
+                    .add(level.sub(down).abs())
+                    .min(255)
+                    .mul(0x010101)
+                    .or(OPAQUE_BLACK)
+                    .intoArray(out, outOffset + i);
+        }
+        ScalarKernels.gradient(current, below, bound, width, out, outOffset);
+    }
+
+    private static IntVector brightness(IntVector argb) {
+        IntVector red = argb.lanewise(VectorOperators.LSHR, 16).and(0xFF);
+        IntVector green = argb.lanewise(VectorOperators.LSHR, 8).and(0xFF);
+        return red.max(green).max(argb.and(0xFF));
+    }
+}
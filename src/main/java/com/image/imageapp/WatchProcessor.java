@@ -0,0 +1,466 @@
+package com.image.imageapp;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Headless watch-folder mode started with {@code --watch}. JPEG files appearing in the input
+ * directory are processed by {@link TiledProcessor} and saved under the {@link SavedImageNames}
+ * rules, by default to {@code ~/Pictures}. A file is taken once its size and modification time
+ * have stopped changing, so files still being copied are not read half-written.
+ * <p>
+ * Settled files go through a bounded queue to a fixed number of workers. When the queue is full
+ * the watching thread blocks, and workers wait before taking the next file while the output disk
+ * is short of space or the system load per processor is above the limit; events that pile up in the
+ * meantime are recovered by rescanning the directory. Processed files are appended to a journal
+ * in the input directory, so after a restart only new or changed files are processed.
+ * <p>
+ * Each result is encoded into a hidden temporary file in the output directory and moved under
+ * its final name only once complete, and only then journalled: a stop in the middle of a file
+ * leaves no truncated image, and the file is processed again after the restart.
+ */
+public final class WatchProcessor implements AutoCloseable {
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Użycie: --watch --input <katalog> --ops <operacje> [--output <katalog>]",
+            "                [--quality 0.1-1.0] [--jobs N] [--queue N] [--min-free-mb N] [--max-load X]",
+            "  --input        obserwowany katalog; przetwarzane są nowe pliki .jpg i .jpeg",
+            "  --ops          operacje jak w trybie wsadowym (--batch)",
+            "  --output       katalog na wyniki (domyślnie ~/Pictures)",
+            "  --quality      jakość JPEG (domyślnie " + JpegWriter.DEFAULT_QUALITY + ")",
+            "  --jobs         liczba plików przetwarzanych jednocześnie (domyślnie 2)",
+            "  --queue        liczba plików oczekujących w kolejce (domyślnie 2 x --jobs)",
+            "  --min-free-mb  wstrzymaj przetwarzanie, gdy na dysku wynikowym zostanie mniej miejsca (domyślnie 512)",
+            "  --max-load     wstrzymaj przetwarzanie, gdy obciążenie systemu na procesor przekroczy tę wartość",
+            "                 (domyślnie 1.5; 0 wyłącza)");
+    static final String JOURNAL = ".imageapp-processed";
+    private static final long POLL_MILLIS = 250;
+    private static final long SETTLE_MILLIS = 1000;
+    private static final long PAUSE_MILLIS = 1000;
+
+    private record Options(Path input, Path output, Pipeline pipeline, float quality, int jobs, int queue,
+                           long minFreeBytes, double maxLoad) {
+    }
+
+    /** Identity of an input file version; a file changed on disk is processed again. */
+    private record FileKey(String name, long size, long modified) {
+
+        static FileKey of(Path path, BasicFileAttributes attributes) {
+            return new FileKey(path.getFileName().toString(), attributes.size(), attributes.lastModifiedTime().toMillis());
+        }
+
+        String journalLine() {
+            return size + "\t" + modified + "\t" + name;
+        }
+
+        static FileKey parse(String line) {
+            String[] parts = line.split("\t", 3);
+            if (parts.length != 3) return null;
+            try {
+                return new FileKey(parts[2], Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private record Candidate(long size, long modified, long since) {
+    }
+
+    private final Options options;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final BlockingQueue<Path> queue;
+    private final Set<FileKey> done = ConcurrentHashMap.newKeySet();
+    private final Set<Path> taken = ConcurrentHashMap.newKeySet();
+    private final Set<Path> partials = ConcurrentHashMap.newKeySet();
+    private final Map<Path, Candidate> settling = new HashMap<>();
+    private final BufferedWriter journal;
+    private final ExecutorService workers;
+    private volatile boolean closed;
+    private volatile Thread watcher;
+
+    private WatchProcessor(Options options, PrintStream out, PrintStream err) throws IOException {
+        this.options = options;
+        this.out = out;
+        this.err = err;
+        this.queue = new ArrayBlockingQueue<>(options.queue());
+        Path journalPath = options.input().resolve(JOURNAL);
+        if (Files.exists(journalPath)) {
+            for (String line : Files.readAllLines(journalPath, StandardCharsets.UTF_8)) {
+                FileKey key = FileKey.parse(line);
+                if (key != null) done.add(key);
+            }
+        }
+        this.journal = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.workers = Executors.newFixedThreadPool(options.jobs(), runnable -> {
+            Thread thread = new Thread(runnable, "image-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Watches until the process is stopped. Returns 2 for invalid arguments and 1 if watching fails. */
+    public static int run(String[] args) {
+        return run(args, System.out, System.err);
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        WatchProcessor processor;
+        try {
+            Options options = parse(args);
+            if (!Files.isDirectory(options.input())) {
+                throw new IllegalArgumentException("Nie znaleziono katalogu: " + options.input());
+            }
+            Files.createDirectories(options.output());
+            if (Files.isSameFile(options.input(), options.output())) {
+                throw new IllegalArgumentException("Katalog wynikowy nie może być obserwowanym katalogiem.");
+            }
+            processor = new WatchProcessor(options, out, err);
+        } catch (IllegalArgumentException | IOException e) {
+            err.println("Błąd: " + e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        Thread hook = new Thread(processor::close, "image-watch-shutdown");
+        Runtime.getRuntime().addShutdownHook(hook);
+        try {
+            processor.watch();
+            return 0;
+        } catch (IOException e) {
+            err.println("Błąd: " + e.getMessage());
+            AppLogger.log(AppLogger.Level.ERROR, "Obserwowanie katalogu przerwane: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            processor.close();
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException e) {
+                // already shutting down
+            }
+        }
+    }
+
+    private void watch() throws IOException, InterruptedException {
+        watcher = Thread.currentThread();
+        for (int i = 0; i < options.jobs(); i++) {
+            workers.execute(this::work);
+        }
+        out.println("Obserwowanie katalogu " + options.input() + ", wyniki: " + options.output()
+                + ", potok: " + options.pipeline().describe());
+        AppLogger.log(AppLogger.Level.ACTION, "Obserwowanie katalogu " + options.input() + ", potok: " + options.pipeline().describe());
+        try (WatchService service = FileSystems.getDefault().newWatchService()) {
+            options.input().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            scan();
+            while (!closed) {
+                WatchKey key = service.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scan();
+                        } else {
+                            notice(options.input().resolve((Path) event.context()));
+                        }
+                    }
+                    if (!key.reset()) {
+                        throw new IOException("Katalog wejściowy przestał być dostępny: " + options.input());
+                    }
+                }
+                enqueueSettled();
+            }
+        }
+    }
+
+    private void scan() throws IOException {
+        try (Stream<Path> files = Files.list(options.input())) {
+            files.forEach(this::notice);
+        }
+    }
+
+    private void notice(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if ((name.endsWith(".jpg") || name.endsWith(".jpeg")) && !settling.containsKey(path)) {
+            settling.put(path, new Candidate(-1, -1, System.currentTimeMillis()));
+        }
+    }
+
+    /** Queues files whose size and modification time did not change for {@link #SETTLE_MILLIS}. */
+    private void enqueueSettled() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, Candidate>> entries = settling.entrySet().iterator();
+        while (entries.hasNext() && !closed) {
+            Map.Entry<Path, Candidate> entry = entries.next();
+            Path path = entry.getKey();
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (IOException e) {
+                entries.remove();
+                continue;
+            }
+            if (!attributes.isRegularFile()) {
+                entries.remove();
+                continue;
+            }
+            Candidate candidate = entry.getValue();
+            long modified = attributes.lastModifiedTime().toMillis();
+            if (candidate.size() != attributes.size() || candidate.modified() != modified) {
+                entry.setValue(new Candidate(attributes.size(), modified, now));
+                continue;
+            }
+            if (now - candidate.since() < SETTLE_MILLIS) continue;
+            entries.remove();
+            if (done.contains(FileKey.of(path, attributes)) || !taken.add(path)) continue;
+            queue.put(path);
+        }
+    }
+
+    private void work() {
+        try {
+            while (!closed) {
+                Path path = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (path == null) continue;
+                try {
+                    awaitCapacity();
+                    if (!closed) process(path);
+                } finally {
+                    taken.remove(path);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(Path input) {
+        long start = System.nanoTime();
+        FileKey key;
+        try {
+            key = FileKey.of(input, Files.readAttributes(input, BasicFileAttributes.class));
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            failed(input, e);
+            return;
+        }
+        if (done.contains(key)) return;
+        String name = input.getFileName().toString();
+        Path target;
+        try {
+            target = save(input, name.substring(0, name.lastIndexOf('.')));
+        } catch (IOException | RuntimeException e) {
+            // not retried until the file changes or the watcher restarts
+            done.add(key);
+            failed(input, e);
+            return;
+        }
+        try {
+            record(key);
+        } catch (IOException e) {
+            // the saved image is complete and stays; without the entry the file is processed again after a restart
+            failed(input, new IOException("zapisano " + target + ", ale nie udało się dopisać go do dziennika: " + e.getMessage(), e));
+            return;
+        }
+        out.printf(Locale.ROOT, "OK    %s -> %s (%d ms)%n", input, target, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Encodes into a temporary file in the output directory, then reserves the final name and
+     * atomically replaces the empty reservation with the complete file.
+     */
+    private Path save(Path input, String stem) throws IOException {
+        // not createTempFile, whose owner-only permissions would carry over to the result
+        Path partial = Files.createFile(options.output().resolve(".imageapp-" + UUID.randomUUID() + ".part"));
+        partials.add(partial);
+        Path target = null;
+        try {
+            TiledProcessor.process(input, partial, options.pipeline(), ProcessingPool.shared(), options.quality(),
+                    ProgressListener.NONE);
+            target = SavedImageNames.reserve(options.output(), stem);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(partial);
+            if (target != null) {
+                deleteQuietly(target);
+            }
+            throw e;
+        } finally {
+            partials.remove(partial);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // the failure that led here is the one worth reporting
+        }
+    }
+
+    private void failed(Path input, Exception e) {
+        err.println("BŁĄD  " + input + ": " + e.getMessage());
+        AppLogger.log(AppLogger.Level.ERROR, "Obserwowany katalog — błąd przetwarzania " + input + ": " + e.getMessage());
+    }
+
+    private void record(FileKey key) throws IOException {
+        done.add(key);
+        synchronized (journal) {
+            journal.write(key.journalLine());
+            journal.newLine();
+            journal.flush();
+        }
+    }
+
+    /** Blocks while the output disk is nearly full or the processors are saturated. */
+    private void awaitCapacity() throws InterruptedException {
+        String paused = null;
+        while (!closed) {
+            String reason = saturation();
+            if (reason == null) break;
+            if (!reason.equals(paused)) {
+                out.println("Wstrzymano przetwarzanie: " + reason);
+                AppLogger.log(AppLogger.Level.INFO, "Obserwowany katalog — wstrzymano przetwarzanie: " + reason);
+                paused = reason;
+            }
+            Thread.sleep(PAUSE_MILLIS);
+        }
+        if (paused != null && !closed) {
+            out.println("Wznowiono przetwarzanie");
+        }
+    }
+
+    private String saturation() {
+        try {
+            long free = Files.getFileStore(options.output()).getUsableSpace();
+            if (free < options.minFreeBytes()) {
+                return "na dysku wynikowym zostało " + (free >> 20) + " MB";
+            }
+        } catch (IOException e) {
+            return "nie można sprawdzić miejsca na dysku: " + e.getMessage();
+        }
+        double load = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+        int processors = Runtime.getRuntime().availableProcessors();
+        if (options.maxLoad() > 0 && load >= 0 && load / processors > options.maxLoad()) {
+            return String.format(Locale.ROOT, "obciążenie systemu %.1f na %d procesorów", load, processors);
+        }
+        return null;
+    }
+
+    /** Stops watching and waits for the files being processed; later calls wait for the first one. */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        Thread thread = watcher;
+        if (thread != null && thread != Thread.currentThread()) thread.interrupt();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        // files of workers that did not finish in time; their move then fails and nothing is journalled
+        for (Path partial : partials) {
+            deleteQuietly(partial);
+        }
+        synchronized (journal) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                AppLogger.log(AppLogger.Level.ERROR, "Nie udało się zamknąć dziennika przetworzonych plików: " + e.getMessage());
+            }
+        }
+        AppLogger.log(AppLogger.Level.INFO, "Zakończono obserwowanie katalogu " + options.input());
+    }
+
+    private static Options parse(String[] args) {
+        Path input = null;
+        Path output = SavedImageNames.picturesDirectory();
+        Pipeline pipeline = null;
+        float quality = JpegWriter.DEFAULT_QUALITY;
+        int jobs = 2;
+        int queue = 0;
+        long minFreeMb = 512;
+        double maxLoad = 1.5;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--input" -> input = Paths.get(value(args, ++i, arg));
+                case "--output" -> output = Paths.get(value(args, ++i, arg));
+                case "--ops" -> pipeline = OperationParser.parse(value(args, ++i, arg));
+                case "--quality" -> {
+                    quality = (float) parseNumber(value(args, ++i, arg), arg);
+                    if (quality < 0.1f || quality > 1.0f) {
+                        throw new IllegalArgumentException("Jakość musi mieścić się w zakresie 0.1-1.0.");
+                    }
+                }
+                case "--jobs" -> jobs = positive(parseNumber(value(args, ++i, arg), arg), arg);
+                case "--queue" -> queue = positive(parseNumber(value(args, ++i, arg), arg), arg);
+                case "--min-free-mb" -> minFreeMb = (long) parseNumber(value(args, ++i, arg), arg);
+                case "--max-load" -> maxLoad = parseNumber(value(args, ++i, arg), arg);
+                default -> throw new IllegalArgumentException("Nieznany argument: " + arg);
+            }
+        }
+        if (input == null || pipeline == null) {
+            throw new IllegalArgumentException("Wymagane są --input i --ops.");
+        }
+        return new Options(input, output, pipeline, quality, jobs, queue > 0 ? queue : 2 * jobs, Math.max(0, minFreeMb) << 20, maxLoad);
+    }
+
+    private static String value(String[] args, int index, String flag) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Brak wartości dla " + flag);
+        }
+        return args[index];
+    }
+
+    private static double parseNumber(String value, String flag) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nieprawidłowa wartość dla " + flag + ": " + value);
+        }
+    }
+
+    private static int positive(double value, String flag) {
+        if (value < 1) {
+            throw new IllegalArgumentException("Wartość " + flag + " musi być dodatnia.");
+        }
+        return (int) value;
+    }
+}
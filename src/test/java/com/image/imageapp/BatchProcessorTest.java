@@ -0,0 +1,65 @@
+package com.image.imageapp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchProcessorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void equalNamesInSubdirectoriesGetSeparateTargets() throws IOException {
+        Path input = directory.resolve("zdjecia");
+        Path output = directory.resolve("wyniki");
+        write(input.resolve("a/x.jpg"), 64, 48);
+        write(input.resolve("b/x.jpg"), 80, 60);
+        write(input.resolve("b/c/x.jpg"), 96, 72);
+
+        int status = run("--input", input + "/**/*.jpg", "--output", output.toString(), "--ops", "negative");
+
+        assertEquals(0, status);
+        assertEquals(64, width(output.resolve("a/x.jpg")));
+        assertEquals(80, width(output.resolve("b/x.jpg")));
+        assertEquals(96, width(output.resolve("b/c/x.jpg")));
+        assertFalse(Files.exists(output.resolve("x.jpg")));
+    }
+
+    @Test
+    void directoryInputKeepsFileNames() throws IOException {
+        Path input = directory.resolve("zdjecia");
+        Path output = directory.resolve("wyniki");
+        write(input.resolve("x.jpg"), 64, 48);
+
+        assertEquals(0, run("--input", input.toString(), "--output", output.toString(), "--ops", "negative"));
+        assertTrue(Files.isRegularFile(output.resolve("x.jpg")));
+        assertEquals(1, run("--input", input.toString(), "--output", output.toString(), "--ops", "negative"));
+    }
+
+    private static int run(String... args) {
+        PrintStream sink = new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8);
+        return BatchProcessor.run(args, sink, sink);
+    }
+
+    private static void write(Path file, int width, int height) throws IOException {
+        Files.createDirectories(file.getParent());
+        JpegWriter.write(ProcessingPoolTest.random(width, height), file, JpegWriter.DEFAULT_QUALITY, ProgressListener.NONE);
+    }
+
+    private static int width(Path file) throws IOException {
+        try (StreamingJpegReader reader = new StreamingJpegReader(file)) {
+            return reader.getWidth();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.image.imageapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class EditHistoryTest {
+    private static final Pipeline BLUR = new Pipeline(List.of(new BoxFilterOperation(1, BorderMode.CLAMP)));
+
+    @Test
+    void compactionKeepsSnapshotsWithinBudgetAndRestoresThem() throws IOException {
+        int width = 640;
+        int height = 480;
+        long raw = 4L * width * height;
+        // room for the newest snapshot unpacked plus the older ones packed
+        EditHistory history = new EditHistory(2 * raw, Runnable::run);
+        List<ArgbRaster> inputs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ArgbRaster input = SnapshotTest.photo(width, height + i);
+            inputs.add(input);
+            history.addPipeline(BLUR, "rozmycie " + i, input);
+            assertTrue(history.heapBytes() <= 2 * raw, "krok " + i);
+        }
+        try (ProcessingPool pool = new ProcessingPool(2)) {
+            for (int i = inputs.size() - 1; i >= 0; i--) {
+                EditHistory.PixelStep step = (EditHistory.PixelStep) history.peekUndo();
+                ArgbRaster restored = step.undo(() -> fail("krok ma zapisany obraz"), pool);
+                if (i == inputs.size() - 1) {
+                    assertSame(inputs.get(i), restored, "najnowszy krok nie powinien być kompresowany");
+                } else {
+                    assertNotSame(inputs.get(i), restored);
+                    assertArrayEquals(inputs.get(i).getPixels(), restored.getPixels(), "krok " + i);
+                }
+                history.undone(step);
+            }
+        }
+        assertEquals(null, history.peekUndo());
+    }
+
+    @Test
+    void compactionSpillsAllButNextUndoWhenOverBudget() throws IOException {
+        EditHistory history = new EditHistory(0, Runnable::run);
+        List<ArgbRaster> inputs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ArgbRaster input = SnapshotTest.photo(300 + i, 200);
+            inputs.add(input);
+            history.addPipeline(BLUR, "rozmycie " + i, input);
+        }
+        // only the snapshot of the next undo stays on the heap, the others are spilled
+        assertEquals(4L * 302 * 200, history.heapBytes());
+        try (ProcessingPool pool = new ProcessingPool(2)) {
+            for (int i = inputs.size() - 1; i >= 0; i--) {
+                EditHistory.PixelStep step = (EditHistory.PixelStep) history.peekUndo();
+                assertArrayEquals(inputs.get(i).getPixels(), step.undo(() -> fail("krok ma zapisany obraz"), pool).getPixels());
+                history.undone(step);
+                // the spilled snapshot of the step before is loaded back for the next undo
+                assertEquals(i == 0 ? 0 : 4L * (300 + i - 1) * 200, history.heapBytes(), "krok " + i);
+            }
+        }
+        history.clear();
+    }
+
+    @Test
+    void nonSquareTransposeKeepsSnapshotInsteadOfReplaying() throws IOException {
+        EditHistory history = new EditHistory(Long.MAX_VALUE, Runnable::run);
+        Pipeline pipeline = new Pipeline(List.of(new NegativeOperation(), new RotateOperation(90)));
+        ArgbRaster input = ProcessingPoolTest.random(37, 21);
+        history.addPipeline(pipeline, pipeline.describe(), input);
+        assertEquals(4L * 37 * 21, history.heapBytes());
+        try (ProcessingPool pool = new ProcessingPool(2)) {
+            EditHistory.PixelStep step = (EditHistory.PixelStep) history.peekUndo();
+            assertSame(input, step.undo(() -> fail("obrót niekwadratowego obrazu nie może być cofany w miejscu"), pool));
+        }
+    }
+
+    @Test
+    void squareTransposeIsUndoneByReplay() throws IOException {
+        EditHistory history = new EditHistory(Long.MAX_VALUE, Runnable::run);
+        Pipeline pipeline = new Pipeline(List.of(new NegativeOperation(), new RotateOperation(90)));
+        ArgbRaster input = ProcessingPoolTest.random(33, 33);
+        try (ProcessingPool pool = new ProcessingPool(2)) {
+            ArgbRaster output = pipeline.run(input, pool);
+            history.addPipeline(pipeline, pipeline.describe(), input);
+            assertEquals(0, history.heapBytes());
+            EditHistory.PixelStep step = (EditHistory.PixelStep) history.peekUndo();
+            ArgbRaster copy = new ArgbRaster(33, 33);
+            System.arraycopy(output.getPixels(), 0, copy.getPixels(), 0, copy.getPixels().length);
+            assertArrayEquals(input.getPixels(), step.undo(() -> copy, pool).getPixels());
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.image.imageapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Convolution, box, median and edge filters against naive per-pixel references that read every
+ * neighbour through {@link BorderMode#map} and apply the filter's definition directly.
+ */
+class FilterKernelsTest {
+
+    private record Case(NeighbourhoodOperation operation, UnaryOperator<ArgbRaster> reference) {
+    }
+
+    @Test
+    void filtersMatchReferenceAcrossTileEdges() {
+        // one and two pixel wide tiles along the right and bottom edges
+        ArgbRaster source = random(Tile.DEFAULT_SIZE + 1, Tile.DEFAULT_SIZE + 2);
+        for (BorderMode border : BorderMode.values()) {
+            for (int radius = 1; radius <= 3; radius++) {
+                for (Case c : cases(radius, border)) {
+                    assertArrayEquals(c.reference().apply(source).getPixels(), run(source, c.operation()).getPixels(),
+                            c.operation().getName() + ", " + border.name());
+                }
+            }
+        }
+    }
+
+    @Test
+    void filtersMatchReferenceOnImagesSmallerThanRadius() {
+        int[][] sizes = {{1, 1}, {1, 7}, {7, 1}, {3, 2}, {2, 3}, {12, 9}};
+        for (int[] size : sizes) {
+            ArgbRaster source = random(size[0], size[1]);
+            for (BorderMode border : BorderMode.values()) {
+                for (int radius : new int[] {1, 2, 5, 9}) {
+                    for (Case c : cases(radius, border)) {
+                        assertArrayEquals(c.reference().apply(source).getPixels(), run(source, c.operation()).getPixels(),
+                                c.operation().getName() + ", " + border.name() + ", " + size[0] + "x" + size[1]);
+                    }
+                }
+                ConvolutionKernel widest = ConvolutionKernel.gaussian(FilterType.MAX_RADIUS);
+                assertArrayEquals(convolve(source, widest, border).getPixels(),
+                        run(source, new ConvolutionOperation(widest, border)).getPixels(), border.name());
+            }
+        }
+    }
+
+    @Test
+    void kernelsFillAnyTileFromItsClippedHalo() {
+        int width = 37;
+        int height = 29;
+        ArgbRaster source = random(width, height);
+        List<Tile> tiles = List.of(new Tile(0, 0, width, height), new Tile(0, 0, 1, 1), new Tile(width - 1, height - 1, 1, 1),
+                new Tile(18, 14, 1, 1), new Tile(0, 0, 1, height), new Tile(width - 1, 0, 1, height),
+                new Tile(0, 0, width, 1), new Tile(0, height - 1, width, 1), new Tile(5, 7, 6, 3), new Tile(30, 25, 7, 4));
+        for (BorderMode border : BorderMode.values()) {
+            for (int radius : new int[] {1, 2, 4}) {
+                for (Case c : cases(radius, border)) {
+                    ArgbRaster expected = c.reference().apply(source);
+                    for (Tile tile : tiles) {
+                        RasterWindow in = window(source, tile.grow(c.operation().getHalo(), width, height));
+                        RasterWindow out = new RasterWindow(new int[tile.width() * tile.height()], tile);
+                        c.operation().apply(in, out, width, height);
+                        assertArrayEquals(window(expected, tile).pixels(), out.pixels(),
+                                c.operation().getName() + ", " + border.name() + ", " + tile);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void fusedChainMatchesReference() {
+        ArgbRaster source = random(Tile.DEFAULT_SIZE + 3, 70);
+        for (BorderMode border : BorderMode.values()) {
+            Pipeline pipeline = new Pipeline(List.of(new MedianFilterOperation(1, border),
+                    new ConvolutionOperation(ConvolutionKernel.gaussian(2), border), new BoxFilterOperation(2, border),
+                    new EdgeOperation(EdgeDetector.SOBEL, border)));
+            ArgbRaster expected = edges(box(convolve(median(source, 1, border), ConvolutionKernel.gaussian(2), border), 2, border),
+                    EdgeDetector.SOBEL, border);
+            try (ProcessingPool pool = new ProcessingPool(2)) {
+                assertArrayEquals(expected.getPixels(), pipeline.run(source, pool).getPixels(), border.name());
+            }
+        }
+    }
+
+    @Test
+    void borderModesMapOutsideCoordinates() {
+        int[] outside = {-7, -4, -3, -2, -1, 4, 5, 6, 7, 10};
+        assertArrayEquals(new int[] {1, 2, 3, 2, 1, 2, 1, 0, 1, 2}, map(BorderMode.REFLECT, outside, 4));
+        assertArrayEquals(new int[] {0, 0, 0, 0, 0, 3, 3, 3, 3, 3}, map(BorderMode.CLAMP, outside, 4));
+        assertArrayEquals(new int[] {-1, -1, -1, -1, -1, -1, -1, -1, -1, -1}, map(BorderMode.ZERO, outside, 4));
+        assertArrayEquals(new int[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0}, map(BorderMode.REFLECT, outside, 1));
+        assertArrayEquals(new int[] {1, 0, 1, 0, 1, 0, 1, 0, 1, 0}, map(BorderMode.REFLECT, outside, 2));
+    }
+
+    private static int[] map(BorderMode border, int[] coordinates, int size) {
+        int[] mapped = new int[coordinates.length];
+        for (int i = 0; i < coordinates.length; i++) {
+            mapped[i] = border.map(coordinates[i], size);
+        }
+        return mapped;
+    }
+
+    private static List<Case> cases(int radius, BorderMode border) {
+        List<Case> cases = new ArrayList<>();
+        ConvolutionKernel gaussian = ConvolutionKernel.gaussian(radius);
+        cases.add(new Case(new ConvolutionOperation(gaussian, border), s -> convolve(s, gaussian, border)));
+        cases.add(new Case(new BoxFilterOperation(radius, border), s -> box(s, radius, border)));
+        cases.add(new Case(new MedianFilterOperation(radius, border), s -> median(s, radius, border)));
+        if (radius == 1) {
+            cases.add(new Case(new ConvolutionOperation(ConvolutionKernel.SHARPEN, border),
+                    s -> convolve(s, ConvolutionKernel.SHARPEN, border)));
+            for (EdgeDetector detector : EdgeDetector.values()) {
+                cases.add(new Case(new EdgeOperation(detector, border), s -> edges(s, detector, border)));
+            }
+        }
+        return cases;
+    }
+
+    private static ArgbRaster run(ArgbRaster source, ImageOperation operation) {
+        try (ProcessingPool pool = new ProcessingPool(2)) {
+            return new Pipeline(List.of(operation)).run(source, pool);
+        }
+    }
+
+    private static int pixel(ArgbRaster source, int x, int y, BorderMode border) {
+        int sourceX = border.map(x, source.getWidth());
+        int sourceY = border.map(y, source.getHeight());
+        return sourceX < 0 || sourceY < 0 ? 0xFF000000 : source.getArgb(sourceX, sourceY);
+    }
+
+    private static int channel(int argb, int channel) {
+        return (argb >> (16 - 8 * channel)) & 0xFF;
+    }
+
+    private static ArgbRaster convolve(ArgbRaster source, ConvolutionKernel kernel, BorderMode border) {
+        int radius = kernel.getRadius();
+        int divisor = kernel.getDivisor();
+        ArgbRaster result = new ArgbRaster(source.getWidth(), source.getHeight());
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                int argb = source.getArgb(x, y) & 0xFF000000;
+                for (int c = 0; c < 3; c++) {
+                    int sum = 0;
+                    for (int dy = -radius; dy <= radius; dy++) {
+                        for (int dx = -radius; dx <= radius; dx++) {
+                            sum += kernel.getWeight(dx, dy) * channel(pixel(source, x + dx, y + dy, border), c);
+                        }
+                    }
+                    int value = Math.floorDiv(sum + divisor / 2, divisor);
+                    argb |= Math.min(255, Math.max(0, value)) << (16 - 8 * c);
+                }
+                result.setArgb(x, y, argb);
+            }
+        }
+        return result;
+    }
+
+    private static ArgbRaster edges(ArgbRaster source, EdgeDetector detector, BorderMode border) {
+        ArgbRaster result = new ArgbRaster(source.getWidth(), source.getHeight());
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                int edge = 0;
+                for (ConvolutionKernel kernel : new ConvolutionKernel[] {detector.getHorizontal(), detector.getVertical()}) {
+                    if (kernel == null) continue;
+                    int radius = kernel.getRadius();
+                    int sum = 0;
+                    for (int dy = -radius; dy <= radius; dy++) {
+                        for (int dx = -radius; dx <= radius; dx++) {
+                            sum += kernel.getWeight(dx, dy) * ImageKernels.brightness(pixel(source, x + dx, y + dy, border));
+                        }
+                    }
+                    edge += Math.abs(Math.floorDiv(sum, kernel.getDivisor()));
+                }
+                result.setArgb(x, y, 0xFF000000 | Math.min(255, edge) * 0x010101);
+            }
+        }
+        return result;
+    }
+
+    private static ArgbRaster box(ArgbRaster source, int radius, BorderMode border) {
+        return neighbourhood(source, radius, border, values -> {
+            int sum = 0;
+            for (int value : values) {
+                sum += value;
+            }
+            return (sum + values.length / 2) / values.length;
+        });
+    }
+
+    private static ArgbRaster median(ArgbRaster source, int radius, BorderMode border) {
+        return neighbourhood(source, radius, border, values -> {
+            Arrays.sort(values);
+            return values[values.length / 2];
+        });
+    }
+
+    private interface Reduction {
+        int apply(int[] values);
+    }
+
+    private static ArgbRaster neighbourhood(ArgbRaster source, int radius, BorderMode border, Reduction reduction) {
+        int size = 2 * radius + 1;
+        int[] values = new int[size * size];
+        ArgbRaster result = new ArgbRaster(source.getWidth(), source.getHeight());
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                int argb = source.getArgb(x, y) & 0xFF000000;
+                for (int c = 0; c < 3; c++) {
+                    int i = 0;
+                    for (int dy = -radius; dy <= radius; dy++) {
+                        for (int dx = -radius; dx <= radius; dx++) {
+                            values[i++] = channel(pixel(source, x + dx, y + dy, border), c);
+                        }
+                    }
+                    argb |= reduction.apply(values) << (16 - 8 * c);
+                }
+                result.setArgb(x, y, argb);
+            }
+        }
+        return result;
+    }
+
+    private static RasterWindow window(ArgbRaster source, Tile bounds) {
+        int[] pixels = new int[bounds.width() * bounds.height()];
+        for (int y = 0; y < bounds.height(); y++) {
+            System.arraycopy(source.getPixels(), (bounds.y() + y) * source.getWidth() + bounds.x(),
+                    pixels, y * bounds.width(), bounds.width());
+        }
+        return new RasterWindow(pixels, bounds);
+    }
+
+    /** Random colours with random alpha, which the colour filters must keep from the centre pixel. */
+    private static ArgbRaster random(int width, int height) {
+        SplittableRandom random = new SplittableRandom(width * 131L + height);
+        ArgbRaster raster = new ArgbRaster(width, height);
+        int[] pixels = raster.getPixels();
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        return raster;
+    }
+}
@@ -0,0 +1,127 @@
+package com.image.imageapp;
+
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Golden tests of the integer kernels against the Color-based code they replaced, which read
+ * every pixel as a JavaFX {@link Color}, compared {@code (int) (getBrightness() * 255)} with the
+ * threshold and wrote the contour through a {@code PixelWriter}, with black outside the image.
+ */
+class ImageKernelsTest {
+    private static final int WIDTH = 53;
+    private static final int HEIGHT = 31;
+
+    @Test
+    void brightnessMatchesColorForEveryColour() {
+        for (int rgb = 0; rgb <= 0xFFFFFF; rgb++) {
+            int argb = 0xFF000000 | rgb;
+            assertEquals((int) (color(argb).getBrightness() * 255), ImageKernels.brightness(argb),
+                    () -> "kolor " + Integer.toHexString(argb));
+        }
+    }
+
+    @Test
+    void thresholdMatchesColorReference() {
+        ArgbRaster source = golden();
+        for (int threshold : new int[] {0, 1, 127, 128, 254, 255, 256}) {
+            ArgbRaster actual = run(source, new ThresholdOperation(threshold));
+            assertArrayEquals(referenceThreshold(source, threshold).getPixels(), actual.getPixels(), "próg " + threshold);
+            assertArrayEquals(actual.getPixels(), plane(source, threshold).getPixels(), "płaszczyzna, próg " + threshold);
+        }
+    }
+
+    @Test
+    void contourMatchesColorReference() {
+        ArgbRaster source = golden();
+        ArgbRaster actual = run(source, new ContourOperation());
+        assertArrayEquals(referenceContour(source).getPixels(), actual.getPixels());
+    }
+
+    @Test
+    void contourBorderComparesWithBlack() {
+        ArgbRaster source = new ArgbRaster(3, 2);
+        Arrays.fill(source.getPixels(), 0xFFFFFFFF);
+        ArgbRaster actual = run(source, new ContourOperation());
+        // inner pixels see white neighbours, the last column and row see the black border
+        assertEquals(0xFF000000, actual.getArgb(0, 0));
+        assertEquals(0xFFFFFFFF, actual.getArgb(2, 0));
+        assertEquals(0xFFFFFFFF, actual.getArgb(0, 1));
+        assertEquals(0xFFFFFFFF, actual.getArgb(2, 1));
+        assertArrayEquals(referenceContour(source).getPixels(), actual.getPixels());
+    }
+
+    private static ArgbRaster run(ArgbRaster source, ImageOperation operation) {
+        try (ProcessingPool pool = new ProcessingPool(1)) {
+            return new Pipeline(List.of(operation)).run(source, pool);
+        }
+    }
+
+    private static ArgbRaster plane(ArgbRaster source, int threshold) {
+        try (ProcessingPool pool = new ProcessingPool(1)) {
+            return BrightnessPlane.of(source, pool).threshold(threshold, pool);
+        }
+    }
+
+    private static ArgbRaster referenceThreshold(ArgbRaster source, int threshold) {
+        ArgbRaster result = new ArgbRaster(source.getWidth(), source.getHeight());
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                int gray = (int) (color(source.getArgb(x, y)).getBrightness() * 255);
+                result.setArgb(x, y, argb(gray >= threshold ? Color.WHITE : Color.BLACK));
+            }
+        }
+        return result;
+    }
+
+    private static ArgbRaster referenceContour(ArgbRaster source) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        ArgbRaster result = new ArgbRaster(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Color current = color(source.getArgb(x, y));
+                Color right = (x + 1 < width) ? color(source.getArgb(x + 1, y)) : Color.BLACK;
+                Color down = (y + 1 < height) ? color(source.getArgb(x, y + 1)) : Color.BLACK;
+                double diffX = Math.abs(current.getBrightness() - right.getBrightness());
+                double diffY = Math.abs(current.getBrightness() - down.getBrightness());
+                double edge = Math.min(1.0, Math.max(0.0, diffX + diffY));
+                result.setArgb(x, y, argb(new Color(edge, edge, edge, 1.0)));
+            }
+        }
+        return result;
+    }
+
+    /** Non-square image of random colours with every 0/255 channel combination in the first row. */
+    private static ArgbRaster golden() {
+        ArgbRaster raster = ProcessingPoolTest.random(WIDTH, HEIGHT);
+        for (int i = 0; i < 8; i++) {
+            int r = (i & 4) != 0 ? 0xFF : 0;
+            int g = (i & 2) != 0 ? 0xFF : 0;
+            int b = (i & 1) != 0 ? 0xFF : 0;
+            raster.setArgb(i, 0, 0xFF000000 | r << 16 | g << 8 | b);
+        }
+        raster.setArgb(WIDTH - 1, HEIGHT - 1, 0xFFFFFFFF);
+        raster.setArgb(WIDTH - 2, HEIGHT - 1, 0xFF000000);
+        return raster;
+    }
+
+    private static Color color(int argb) {
+        return Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF, ((argb >>> 24) & 0xFF) / 255.0);
+    }
+
+    /** Channel rounding of {@code PixelWriter.setColor}. */
+    private static int argb(Color color) {
+        int a = (int) Math.round(color.getOpacity() * 255.0);
+        int r = (int) Math.round(color.getRed() * 255.0);
+        int g = (int) Math.round(color.getGreen() * 255.0);
+        int b = (int) Math.round(color.getBlue() * 255.0);
+        return a << 24 | r << 16 | g << 8 | b;
+    }
+}
@@ -0,0 +1,69 @@
+package com.image.imageapp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Runs the headless modes in a separate JVM without a display, as on a build server. */
+class LauncherTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void batchRunsWithoutDisplayOrJavaFx() throws Exception {
+        Path input = directory.resolve("zdjecia");
+        Path output = directory.resolve("wyniki");
+        Files.createDirectories(input);
+        JpegWriter.write(ProcessingPoolTest.random(64, 48), input.resolve("x.jpg"), JpegWriter.DEFAULT_QUALITY, ProgressListener.NONE);
+
+        Path classes = directory.resolve("classes.txt");
+        int status = launch(classes, "--batch", "--input", input.toString(), "--output", output.toString(), "--ops", "negative");
+
+        assertEquals(0, status, () -> read(directory.resolve("out.txt")));
+        assertTrue(Files.isRegularFile(output.resolve("x.jpg")));
+        assertFalse(read(classes).contains(" javafx."), "wczytano klasy JavaFX");
+    }
+
+    @Test
+    void invalidArgumentsExitWithUsageStatus() throws Exception {
+        for (String mode : List.of("--batch", "--watch", "--serve")) {
+            assertEquals(2, launch(directory.resolve("classes.txt"), mode, "--nieznany"), mode);
+        }
+    }
+
+    private int launch(Path classes, String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Djava.awt.headless=true",
+                "-Xlog:class+load=info:file=" + classes,
+                "-cp", System.getProperty("java.class.path"),
+                Launcher.class.getName()));
+        command.addAll(List.of(args));
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(directory.resolve("out.txt").toFile());
+        builder.environment().remove("DISPLAY");
+        builder.environment().remove("WAYLAND_DISPLAY");
+        return builder.start().waitFor();
+    }
+
+    private static String read(Path file) {
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.image.imageapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Every measured run ends its probe, whatever way the body leaves. */
+class OperationTaskTest {
+
+    @Test
+    void completedRunIsTimed() throws Exception {
+        OperationTask<String> task = new OperationTask<String>(t -> "gotowe").measured(new OperationProbe("test-ok", 10, 10));
+        assertEquals("gotowe", task.call());
+        assertCounts("test-ok", 1, 0, 0);
+    }
+
+    @Test
+    void failedRunIsCountedButNotTimed() {
+        OperationTask<String> task = new OperationTask<String>(t -> {
+            throw new IOException("brak pliku");
+        }).measured(new OperationProbe("test-błąd", 10, 10));
+        assertThrows(IOException.class, task::call);
+        OperationTask<String> crashing = new OperationTask<String>(t -> {
+            throw new IllegalStateException();
+        }).measured(new OperationProbe("test-błąd", 10, 10));
+        assertThrows(IllegalStateException.class, crashing::call);
+        assertCounts("test-błąd", 0, 2, 0);
+    }
+
+    @Test
+    void cancelledRunIsCountedButNotTimed() {
+        OperationTask<String> task = new OperationTask<String>(t -> {
+            throw new CancellationException();
+        }).measured(new OperationProbe("test-anulowanie", 10, 10));
+        assertThrows(CancellationException.class, task::call);
+        assertCounts("test-anulowanie", 0, 0, 1);
+    }
+
+    private static void assertCounts(String operation, long completed, long failed, long cancelled) {
+        OperationStats stats = OperationMetrics.stats(operation, 100);
+        assertEquals(completed, stats.getCount(), "zakończone");
+        assertEquals(failed, stats.getFailedCount(), "błędy");
+        assertEquals(cancelled, stats.getCancelledCount(), "anulowane");
+    }
+}
@@ -0,0 +1,110 @@
+package com.image.imageapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * The Vector API kernels must match the scalar ones bit for bit, for every length around the
+ * vector width and with the input and output not aligned to it. Needs
+ * {@code --add-modules jdk.incubator.vector}, which the surefire configuration passes.
+ */
+class PixelKernelsTest {
+    private static final int MAX_LENGTH = 300;
+    private static final int IN_OFFSET = 3;
+    private static final int OUT_OFFSET = 5;
+    private static final int[] THRESHOLDS = {0, 1, 64, 127, 128, 200, 255, 256};
+
+    private final PixelKernels scalar = PixelKernels.scalar();
+    private final PixelKernels vector = vectorKernels();
+    private final int[] in = random(IN_OFFSET + MAX_LENGTH + 1, 1);
+
+    @Test
+    void negativeMatchesScalar() {
+        for (int length = 0; length < MAX_LENGTH; length++) {
+            int[] expected = output(length);
+            int[] actual = output(length);
+            scalar.negative(in, IN_OFFSET, expected, OUT_OFFSET, length);
+            vector.negative(in, IN_OFFSET, actual, OUT_OFFSET, length);
+            assertArrayEquals(expected, actual, "długość " + length);
+        }
+    }
+
+    @Test
+    void thresholdMatchesScalar() {
+        for (int threshold : THRESHOLDS) {
+            for (int length = 0; length < MAX_LENGTH; length++) {
+                int[] expected = output(length);
+                int[] actual = output(length);
+                scalar.threshold(in, IN_OFFSET, expected, OUT_OFFSET, length, threshold);
+                vector.threshold(in, IN_OFFSET, actual, OUT_OFFSET, length, threshold);
+                assertArrayEquals(expected, actual, "próg " + threshold + ", długość " + length);
+            }
+        }
+    }
+
+    @Test
+    void brightnessMatchesScalar() {
+        for (int length = 0; length < MAX_LENGTH; length++) {
+            int[] expected = output(length);
+            int[] actual = output(length);
+            scalar.brightness(in, IN_OFFSET, expected, OUT_OFFSET, length);
+            vector.brightness(in, IN_OFFSET, actual, OUT_OFFSET, length);
+            assertArrayEquals(expected, actual, "długość " + length);
+        }
+    }
+
+    @Test
+    void gradientMatchesScalar() {
+        int[] current = levels(MAX_LENGTH + 1, 2);
+        int[] below = levels(MAX_LENGTH + 1, 3);
+        for (int width = 0; width < MAX_LENGTH; width++) {
+            int[] expected = output(width);
+            int[] actual = output(width);
+            scalar.gradient(current, below, expected, OUT_OFFSET, width);
+            vector.gradient(current, below, actual, OUT_OFFSET, width);
+            assertArrayEquals(expected, actual, "szerokość " + width);
+        }
+    }
+
+    private static PixelKernels vectorKernels() {
+        PixelKernels kernels = PixelKernels.vector();
+        assertNotNull(kernels, "moduł jdk.incubator.vector jest niedostępny");
+        return kernels;
+    }
+
+    /** Output with a marker around the written range, so writes past either end are caught. */
+    private static int[] output(int length) {
+        int[] out = new int[OUT_OFFSET + length + OUT_OFFSET];
+        Arrays.fill(out, 0x12345678);
+        return out;
+    }
+
+    private static int[] random(int length, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] values = new int[length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt();
+        }
+        // the extremes of every channel
+        values[IN_OFFSET] = 0x00000000;
+        values[IN_OFFSET + 1] = 0xFFFFFFFF;
+        values[IN_OFFSET + 2] = 0x80FF0000;
+        return values;
+    }
+
+    private static int[] levels(int length, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] values = new int[length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(256);
+        }
+        values[0] = 0;
+        values[1] = 255;
+        return values;
+    }
+}
@@ -0,0 +1,65 @@
+package com.image.imageapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The tiles of a multi-threaded run must give exactly the single-threaded result. The raster is
+ * not a multiple of {@link Tile#DEFAULT_SIZE} in either direction, so the last column and row of
+ * tiles are partial and the contour reads across every tile seam and the image border.
+ */
+class ProcessingPoolTest {
+    private static final int WIDTH = 1031;
+    private static final int HEIGHT = 777;
+    private static final int THREADS = 4;
+
+    @Test
+    void negativeIsIdenticalOnOneAndManyThreads() {
+        assertSameOutput(new Pipeline(List.of(new NegativeOperation())));
+    }
+
+    @Test
+    void thresholdIsIdenticalOnOneAndManyThreads() {
+        assertSameOutput(new Pipeline(List.of(new ThresholdOperation(128))));
+    }
+
+    @Test
+    void contourIsIdenticalOnOneAndManyThreads() {
+        assertSameOutput(new Pipeline(List.of(new ContourOperation())));
+    }
+
+    @Test
+    void fusedChainIsIdenticalOnOneAndManyThreads() {
+        assertSameOutput(new Pipeline(List.of(new NegativeOperation(), new ContourOperation(), new ThresholdOperation(40))));
+    }
+
+    private static void assertSameOutput(Pipeline pipeline) {
+        ArgbRaster source = random(WIDTH, HEIGHT);
+        int[] original = source.getPixels().clone();
+        ArgbRaster single;
+        ArgbRaster parallel;
+        try (ProcessingPool one = new ProcessingPool(1); ProcessingPool many = new ProcessingPool(THREADS)) {
+            single = pipeline.run(source, one);
+            parallel = pipeline.run(source, many);
+        }
+        assertArrayEquals(original, source.getPixels(), "źródło zostało zmienione");
+        assertEquals(WIDTH, parallel.getWidth());
+        assertEquals(HEIGHT, parallel.getHeight());
+        assertArrayEquals(single.getPixels(), parallel.getPixels());
+    }
+
+    static ArgbRaster random(int width, int height) {
+        ArgbRaster raster = new ArgbRaster(width, height);
+        int[] pixels = raster.getPixels();
+        SplittableRandom random = new SplittableRandom(width * 31L + height);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        return raster;
+    }
+}
@@ -0,0 +1,143 @@
+package com.image.imageapp;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the server on an ephemeral loopback port. Every refusal must reach the client as a status
+ * line, including when the request still carries an unread upload.
+ */
+class ProcessingServerTest {
+    private static final long MAX_UPLOAD = 1 << 20;
+
+    private static ProcessingServer server;
+    private static HttpClient client;
+
+    @BeforeAll
+    static void start() throws IOException {
+        server = ProcessingServer.start(0, 2, MAX_UPLOAD);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterAll
+    static void stop() {
+        server.close();
+        client.close();
+    }
+
+    @Test
+    void processesJpeg() throws Exception {
+        HttpResponse<byte[]> response = post("ops=negative,rotate=90", jpeg(64, 48));
+        assertEquals(200, response.statusCode());
+        assertEquals("image/jpeg", response.headers().firstValue("Content-Type").orElse(""));
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(response.body()));
+        assertEquals(48, image.getWidth());
+        assertEquals(64, image.getHeight());
+    }
+
+    @Test
+    void invalidParametersGet400() throws Exception {
+        byte[] body = jpeg(32, 32);
+        assertEquals(400, post("", body).statusCode());
+        assertEquals(400, post("ops=nieznana", body).statusCode());
+        assertEquals(400, post("ops=negative&quality=2", body).statusCode());
+    }
+
+    @Test
+    void unknownPathAndMethodAreRefused() throws Exception {
+        HttpRequest get = HttpRequest.newBuilder(uri(ProcessingServer.PATH, "ops=negative")).GET().build();
+        HttpResponse<byte[]> response = client.send(get, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(405, response.statusCode());
+        assertEquals("POST", response.headers().firstValue("Allow").orElse(""));
+        HttpRequest other = HttpRequest.newBuilder(uri("/process/inne", "ops=negative"))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(jpeg(16, 16))).build();
+        assertEquals(404, client.send(other, HttpResponse.BodyHandlers.ofByteArray()).statusCode());
+    }
+
+    @Test
+    void nonJpegBodyGets415() throws Exception {
+        byte[] png = new byte[600_000];
+        byte[] header = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+        System.arraycopy(header, 0, png, 0, header.length);
+        HttpResponse<byte[]> response = post("ops=negative", png);
+        assertEquals(415, response.statusCode());
+        assertTrue(text(response).contains("JPEG"), text(response));
+    }
+
+    @Test
+    void corruptJpegGets422() throws Exception {
+        byte[] body = new byte[200_000];
+        Arrays.fill(body, (byte) 0x55);
+        body[0] = (byte) 0xFF;
+        body[1] = (byte) 0xD8;
+        body[2] = (byte) 0xFF;
+        assertEquals(422, post("ops=negative", body).statusCode());
+    }
+
+    @Test
+    void uploadOverLimitGets413WithContentLength() throws Exception {
+        byte[] body = Arrays.copyOf(jpeg(16, 16), (int) MAX_UPLOAD + 1);
+        HttpResponse<byte[]> response = post("ops=negative", body);
+        assertEquals(413, response.statusCode());
+        assertTrue(text(response).contains("1 MB"), text(response));
+    }
+
+    @Test
+    void chunkedUploadOverLimitGets413() throws Exception {
+        // streamed without Content-Length; rotation needs the whole image, so nothing is sent before the limit
+        byte[] image = jpeg(1600, 1600);
+        assertTrue(image.length > MAX_UPLOAD);
+        HttpRequest request = HttpRequest.newBuilder(uri(ProcessingServer.PATH, "ops=rotate=90"))
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(image)))
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(413, response.statusCode(), () -> text(response));
+    }
+
+    @Test
+    void refusalsDrainTheUploadSoConnectionIsReused() throws Exception {
+        // each refusal leaves a large unread body; the next request must still get its answer
+        byte[] big = Arrays.copyOf(jpeg(16, 16), 900_000);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(400, post("ops=nieznana", big).statusCode());
+            assertEquals(415, post("ops=negative", new byte[900_000]).statusCode());
+            assertEquals(200, post("ops=negative", jpeg(32, 24)).statusCode());
+        }
+    }
+
+    private static HttpResponse<byte[]> post(String query, byte[] body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri(ProcessingServer.PATH, query))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static URI uri(String path, String query) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path + (query.isEmpty() ? "" : "?" + query));
+    }
+
+    private static String text(HttpResponse<byte[]> response) {
+        return new String(response.body(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(JpegWriter.toBufferedImage(ProcessingPoolTest.random(width, height)), "jpg", out);
+        return out.toByteArray();
+    }
+}
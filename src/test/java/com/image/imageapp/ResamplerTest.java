@@ -0,0 +1,135 @@
+package com.image.imageapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResamplerTest {
+
+    @Test
+    void sameSizeLeavesPixelsUnchanged() {
+        ArgbRaster source = random(53, 37);
+        for (ResampleFilter filter : ResampleFilter.values()) {
+            assertArrayEquals(source.getPixels(), resample(source, 53, 37, filter).getPixels(), filter.name());
+        }
+    }
+
+    @Test
+    void constantImageStaysConstantAtAnySize() {
+        int colour = 0x80C8641E;
+        ArgbRaster source = new ArgbRaster(97, 61);
+        Arrays.fill(source.getPixels(), colour);
+        int[][] sizes = {{1, 1}, {7, 5}, {48, 30}, {97, 61}, {98, 62}, {301, 199}, {1000, 3}};
+        for (ResampleFilter filter : ResampleFilter.values()) {
+            for (int[] size : sizes) {
+                int[] expected = new int[size[0] * size[1]];
+                Arrays.fill(expected, colour);
+                assertArrayEquals(expected, resample(source, size[0], size[1], filter).getPixels(),
+                        filter.name() + ", " + size[0] + "x" + size[1]);
+            }
+        }
+    }
+
+    @Test
+    void boxAveragesWholeBlocksExactlyOnPowerOfTwoDownscale() {
+        ArgbRaster source = random(64, 48);
+        int[][] factors = {{2, 2}, {4, 4}, {4, 2}, {1, 8}, {8, 16}};
+        for (int[] factor : factors) {
+            int width = source.getWidth() / factor[0];
+            int height = source.getHeight() / factor[1];
+            assertArrayEquals(blockAverage(source, factor[0], factor[1]).getPixels(),
+                    resample(source, width, height, ResampleFilter.BOX).getPixels(), factor[0] + "x" + factor[1]);
+        }
+    }
+
+    @Test
+    void boxAveragesWholeBlocksOnOtherIntegerDownscale() {
+        // weights such as 1/3 are not exact in 14-bit fixed point, so the result may be off by one
+        ArgbRaster source = random(60, 48);
+        int[][] factors = {{3, 3}, {1, 3}, {5, 2}, {6, 8}};
+        for (int[] factor : factors) {
+            int width = source.getWidth() / factor[0];
+            int height = source.getHeight() / factor[1];
+            int[] expected = blockAverage(source, factor[0], factor[1]).getPixels();
+            int[] actual = resample(source, width, height, ResampleFilter.BOX).getPixels();
+            for (int i = 0; i < expected.length; i++) {
+                for (int shift = 0; shift < 32; shift += 8) {
+                    int difference = Math.abs((expected[i] >>> shift & 0xFF) - (actual[i] >>> shift & 0xFF));
+                    assertTrue(difference <= 1, factor[0] + "x" + factor[1] + ", piksel " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void nearestPicksSourcePixelOfEachOutputPosition() {
+        ArgbRaster source = random(10, 7);
+        ArgbRaster result = resample(source, 4, 3, ResampleFilter.NEAREST);
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 4; x++) {
+                assertArrayEquals(new int[] {source.getArgb((int) (x * 2.5), (int) (y * 7.0 / 3))},
+                        new int[] {result.getArgb(x, y)}, x + ", " + y);
+            }
+        }
+    }
+
+    /**
+     * Mean of each {@code factorX}×{@code factorY} block, taken along rows first and rounded half
+     * up after each pass as the resampler does.
+     */
+    private static ArgbRaster blockAverage(ArgbRaster source, int factorX, int factorY) {
+        int width = source.getWidth() / factorX;
+        int height = source.getHeight() / factorY;
+        int[][] rows = new int[source.getHeight()][width * 4];
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < width; x++) {
+                for (int c = 0; c < 4; c++) {
+                    int sum = 0;
+                    for (int k = 0; k < factorX; k++) {
+                        sum += source.getArgb(x * factorX + k, y) >>> (24 - 8 * c) & 0xFF;
+                    }
+                    rows[y][x * 4 + c] = average(sum, factorX);
+                }
+            }
+        }
+        ArgbRaster result = new ArgbRaster(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int argb = 0;
+                for (int c = 0; c < 4; c++) {
+                    int sum = 0;
+                    for (int k = 0; k < factorY; k++) {
+                        sum += rows[y * factorY + k][x * 4 + c];
+                    }
+                    argb |= average(sum, factorY) << (24 - 8 * c);
+                }
+                result.setArgb(x, y, argb);
+            }
+        }
+        return result;
+    }
+
+    private static int average(int sum, int count) {
+        return (int) Math.floor((double) sum / count + 0.5);
+    }
+
+    private static ArgbRaster resample(ArgbRaster source, int width, int height, ResampleFilter filter) {
+        try (ProcessingPool pool = new ProcessingPool(2)) {
+            return new Resampler(source.getWidth(), source.getHeight(), width, height, filter).resample(source, pool);
+        }
+    }
+
+    private static ArgbRaster random(int width, int height) {
+        SplittableRandom random = new SplittableRandom(width * 17L + height);
+        ArgbRaster raster = new ArgbRaster(width, height);
+        int[] pixels = raster.getPixels();
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        return raster;
+    }
+}
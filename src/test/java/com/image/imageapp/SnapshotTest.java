@@ -0,0 +1,119 @@
+package com.image.imageapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotTest {
+
+    @Test
+    void rawSnapshotRestoresTheSavedRaster() throws IOException {
+        ArgbRaster raster = photo(40, 30);
+        Snapshot snapshot = new Snapshot(raster);
+        try (ProcessingPool pool = new ProcessingPool(2)) {
+            assertSame(raster, snapshot.restore(pool));
+        }
+        assertEquals(4L * 40 * 30, snapshot.heapBytes());
+    }
+
+    @Test
+    void photoPacksBelowThresholdAndUnpacksExactly() throws IOException {
+        // a partial last band, and bands of a single row each
+        int[][] sizes = {{613, 877}, {2049, 129}, {300_000, 2}};
+        for (int[] size : sizes) {
+            ArgbRaster raster = photo(size[0], size[1]);
+            int[] expected = raster.getPixels().clone();
+            Snapshot snapshot = new Snapshot(raster);
+            snapshot.compact();
+            String name = size[0] + "x" + size[1];
+            assertTrue(snapshot.isPacked(), name);
+            assertTrue(snapshot.heapBytes() <= 3L * expected.length, name);
+            try (ProcessingPool pool = new ProcessingPool(3)) {
+                ArgbRaster restored = snapshot.restore(pool);
+                assertNotSame(raster, restored, name);
+                assertArrayEquals(expected, restored.getPixels(), name);
+            }
+            snapshot.release();
+        }
+    }
+
+    @Test
+    void tinyRastersRoundTrip() throws IOException {
+        int[][] sizes = {{1, 1}, {1, 7}, {7, 1}, {3, 2}};
+        for (int[] size : sizes) {
+            ArgbRaster raster = ProcessingPoolTest.random(size[0], size[1]);
+            int[] expected = raster.getPixels().clone();
+            Snapshot snapshot = new Snapshot(raster);
+            snapshot.compact();
+            snapshot.spill();
+            try (ProcessingPool pool = new ProcessingPool(2)) {
+                assertArrayEquals(expected, snapshot.restore(pool).getPixels(), size[0] + "x" + size[1]);
+            }
+            snapshot.release();
+        }
+    }
+
+    @Test
+    void noiseIsSpilledInsteadOfPacked() throws IOException {
+        ArgbRaster raster = new ArgbRaster(257, 131);
+        int[] pixels = raster.getPixels();
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        int[] expected = raster.getPixels().clone();
+        Snapshot snapshot = new Snapshot(raster);
+        snapshot.compact();
+        assertFalse(snapshot.isRaw());
+        assertFalse(snapshot.isPacked());
+        assertEquals(0, snapshot.heapBytes());
+        try (ProcessingPool pool = new ProcessingPool(2)) {
+            assertArrayEquals(expected, snapshot.restore(pool).getPixels());
+        }
+        snapshot.release();
+    }
+
+    @Test
+    void packedSnapshotSpillsExactly() throws IOException {
+        ArgbRaster raster = photo(1001, 700);
+        int[] expected = raster.getPixels().clone();
+        Snapshot snapshot = new Snapshot(raster);
+        snapshot.compact();
+        assertTrue(snapshot.isPacked());
+        snapshot.spill();
+        assertFalse(snapshot.isPacked());
+        assertEquals(0, snapshot.heapBytes());
+        try (ProcessingPool pool = new ProcessingPool(2)) {
+            assertArrayEquals(expected, snapshot.restore(pool).getPixels());
+        }
+        snapshot.release();
+    }
+
+    /**
+     * Smooth gradients with a little noise and a translucent stripe, which compress about as well
+     * as a photograph rather than as a flat colour.
+     */
+    static ArgbRaster photo(int width, int height) {
+        SplittableRandom random = new SplittableRandom(width * 31L + height);
+        ArgbRaster raster = new ArgbRaster(width, height);
+        int[] pixels = raster.getPixels();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int red = (x * 255 / Math.max(1, width - 1) + random.nextInt(-3, 4)) & 0xFF;
+                int green = (y * 255 / Math.max(1, height - 1) + random.nextInt(-3, 4)) & 0xFF;
+                int blue = ((x + y) / 4 + random.nextInt(-2, 3)) & 0xFF;
+                int alpha = y % 97 < 5 ? 0x80 : 0xFF;
+                pixels[y * width + x] = alpha << 24 | red << 16 | green << 8 | blue;
+            }
+        }
+        return raster;
+    }
+}
@@ -0,0 +1,79 @@
+package com.image.imageapp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StreamingJpegReaderTest {
+    private static final int WIDTH = 301;
+    private static final int HEIGHT = 203;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void baselineJpegMatchesImageIo() throws IOException {
+        Path file = directory.resolve("baseline.jpg");
+        ImageIO.write(sample(), "jpg", file.toFile());
+        assertArrayEquals(imageIoPixels(file), streamedPixels(file));
+    }
+
+    @Test
+    void progressiveJpegMatchesImageIo() throws IOException {
+        Path file = directory.resolve("progressive.jpg");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(sample(), null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        assertArrayEquals(imageIoPixels(file), streamedPixels(file));
+    }
+
+    @Test
+    void otherFormatsAreRejected() throws IOException {
+        for (String format : new String[] {"bmp", "png", "gif"}) {
+            Path file = directory.resolve("image." + format);
+            ImageIO.write(sample(), format, file.toFile());
+            assertThrows(IIOException.class, () -> new StreamingJpegReader(file).close(), format);
+        }
+    }
+
+    private static int[] streamedPixels(Path file) throws IOException {
+        try (StreamingJpegReader reader = new StreamingJpegReader(file)) {
+            int[] pixels = new int[reader.getWidth() * reader.getHeight()];
+            reader.readRows(0, reader.getHeight(), pixels, 0);
+            return pixels;
+        }
+    }
+
+    private static int[] imageIoPixels(Path file) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    private static BufferedImage sample() {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, (x * 255 / WIDTH) << 16 | (y * 255 / HEIGHT) << 8 | ((x ^ y) & 0x3F));
+            }
+        }
+        return image;
+    }
+}
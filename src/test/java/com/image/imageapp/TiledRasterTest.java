@@ -0,0 +1,128 @@
+package com.image.imageapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Copy-on-write tiles against a plain raster edited the same way. */
+class TiledRasterTest {
+    private static final int SIZE = Tile.DEFAULT_SIZE;
+    // two full tile columns and a partial one, one full tile row and a partial one
+    private static final int WIDTH = 2 * SIZE + 37;
+    private static final int HEIGHT = SIZE + 5;
+    private static final List<Tile> REGIONS = List.of(
+            new Tile(0, 0, WIDTH, HEIGHT),
+            new Tile(SIZE - 3, SIZE - 2, 7, 5),
+            new Tile(SIZE - 1, 0, 2, HEIGHT),
+            new Tile(0, SIZE, WIDTH, 5),
+            new Tile(2 * SIZE, SIZE, 37, 5),
+            new Tile(2 * SIZE + 10, 3, 20, SIZE + 1),
+            new Tile(WIDTH - 1, HEIGHT - 1, 1, 1),
+            new Tile(0, 0, 1, 1),
+            new Tile(10, 20, 2 * SIZE, SIZE - 30));
+
+    @Test
+    void readCopiesAnyRegionAcrossTiles() {
+        ArgbRaster base = random(WIDTH, HEIGHT, 1);
+        TiledRaster raster = TiledRaster.of(base);
+        for (Tile region : REGIONS) {
+            assertArrayEquals(crop(base, region).getPixels(), raster.region(region).getPixels(), region.toString());
+        }
+    }
+
+    @Test
+    void withReplacesRegionAndLeavesPreviousVersionsUnchanged() {
+        ArgbRaster base = random(WIDTH, HEIGHT, 2);
+        int[] baseCopy = base.getPixels().clone();
+        TiledRaster previous = TiledRaster.of(base);
+        int[] previousPixels = baseCopy;
+        ArgbRaster expected = copy(base);
+        int seed = 10;
+        for (Tile region : REGIONS) {
+            ArgbRaster pixels = random(region.width(), region.height(), seed++);
+            TiledRaster next = previous.with(region, pixels);
+            paste(expected, pixels, region);
+
+            assertArrayEquals(expected.getPixels(), next.toRaster().getPixels(), region.toString());
+            assertArrayEquals(previousPixels, previous.toRaster().getPixels(), "zmieniono poprzednią wersję, " + region);
+            assertArrayEquals(baseCopy, base.getPixels(), "zmieniono obraz bazowy, " + region);
+            for (Tile bounds : REGIONS) {
+                assertArrayEquals(crop(expected, bounds).getPixels(), next.region(bounds).getPixels(), region + " / " + bounds);
+            }
+            previous = next;
+            previousPixels = expected.getPixels().clone();
+        }
+    }
+
+    @Test
+    void copyOnWriteOwnsOnlyTilesUnderRegion() {
+        TiledRaster raster = TiledRaster.of(random(WIDTH, HEIGHT, 3));
+        assertEquals(0, raster.getWrittenTiles());
+        assertEquals(4, raster.copyOnWrite(new Tile(SIZE - 3, SIZE - 2, 7, 5)).getWrittenTiles());
+        assertEquals(1, raster.copyOnWrite(new Tile(WIDTH - 1, HEIGHT - 1, 1, 1)).getWrittenTiles());
+        assertEquals(3, raster.copyOnWrite(new Tile(0, SIZE, WIDTH, 5)).getWrittenTiles());
+        assertEquals(6, raster.copyOnWrite(new Tile(0, 0, WIDTH, HEIGHT)).getWrittenTiles());
+
+        TiledRaster once = raster.with(new Tile(0, 0, 2, 2), random(2, 2, 4));
+        TiledRaster twice = once.with(new Tile(2 * SIZE, SIZE, 1, 1), random(1, 1, 5));
+        assertEquals(1, once.getWrittenTiles());
+        assertEquals(2, twice.getWrittenTiles());
+    }
+
+    @Test
+    void writeIntoCopyDoesNotReachSharedTiles() {
+        ArgbRaster base = random(WIDTH, HEIGHT, 6);
+        TiledRaster first = TiledRaster.of(base).with(new Tile(0, 0, WIDTH, HEIGHT), random(WIDTH, HEIGHT, 7));
+        int[] firstPixels = first.toRaster().getPixels();
+        Tile region = new Tile(SIZE - 10, SIZE - 1, 20, 3);
+        TiledRaster second = first.copyOnWrite(region);
+        second.write(new RasterWindow(random(region.width(), region.height(), 8).getPixels(), region), region);
+        assertArrayEquals(firstPixels, first.toRaster().getPixels());
+    }
+
+    @Test
+    void regionsOutsideImageAreRejected() {
+        TiledRaster raster = TiledRaster.of(random(WIDTH, HEIGHT, 9));
+        assertThrows(IllegalArgumentException.class, () -> raster.region(new Tile(WIDTH - 1, 0, 2, 1)));
+        assertThrows(IllegalArgumentException.class, () -> raster.region(new Tile(-1, 0, 1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> raster.with(new Tile(0, HEIGHT - 1, 1, 2), random(1, 2, 1)));
+        assertThrows(IllegalArgumentException.class, () -> raster.with(new Tile(0, 0, 2, 2), random(3, 2, 1)));
+    }
+
+    private static ArgbRaster crop(ArgbRaster source, Tile region) {
+        ArgbRaster result = new ArgbRaster(region.width(), region.height());
+        for (int y = 0; y < region.height(); y++) {
+            for (int x = 0; x < region.width(); x++) {
+                result.setArgb(x, y, source.getArgb(region.x() + x, region.y() + y));
+            }
+        }
+        return result;
+    }
+
+    private static void paste(ArgbRaster target, ArgbRaster pixels, Tile region) {
+        for (int y = 0; y < region.height(); y++) {
+            for (int x = 0; x < region.width(); x++) {
+                target.setArgb(region.x() + x, region.y() + y, pixels.getArgb(x, y));
+            }
+        }
+    }
+
+    private static ArgbRaster copy(ArgbRaster source) {
+        return crop(source, new Tile(0, 0, source.getWidth(), source.getHeight()));
+    }
+
+    private static ArgbRaster random(int width, int height, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        ArgbRaster raster = new ArgbRaster(width, height);
+        int[] pixels = raster.getPixels();
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        return raster;
+    }
+}
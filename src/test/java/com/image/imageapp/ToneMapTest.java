@@ -0,0 +1,133 @@
+package com.image.imageapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/** {@link ToneMap#then} must give exactly the result of applying the maps one by one. */
+class ToneMapTest {
+
+    @Test
+    void everyPairOfMapKindsComposesExactly() {
+        int[] pixels = new int[1 << 24];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (i * 0x9E3779B9 & 0xFF000000) | i;
+        }
+        SplittableRandom random = new SplittableRandom(1);
+        List<ToneMap> kinds = List.of(
+                ToneMap.channels(table(random), table(random), table(random)),
+                ToneMap.luminance(19595, 38470, 7471),
+                ToneMap.threshold(97));
+        for (int first = 0; first < kinds.size(); first++) {
+            for (int second = 0; second < kinds.size(); second++) {
+                List<ToneMap> chain = List.of(kinds.get(first), kinds.get(second));
+                assertArrayEquals(sequential(chain, pixels), composed(chain, pixels), first + " -> " + second);
+            }
+        }
+    }
+
+    @Test
+    void randomChainsMatchSequentialApplication() {
+        SplittableRandom random = new SplittableRandom(2);
+        int[] pixels = pixels(random);
+        for (int attempt = 0; attempt < 2000; attempt++) {
+            List<ToneMap> chain = new ArrayList<>();
+            int length = 2 + random.nextInt(4);
+            for (int i = 0; i < length; i++) {
+                chain.add(randomMap(random));
+            }
+            assertArrayEquals(sequential(chain, pixels), composed(chain, pixels), "łańcuch " + attempt);
+        }
+    }
+
+    @Test
+    void pipelineOfToneOperationsMatchesStages() {
+        List<ImageOperation> stages = List.of(
+                new NegativeOperation(),
+                new CurvesOperation(CurvesOperation.Channel.RED, List.of(new CurvesOperation.Point(0, 20),
+                        new CurvesOperation.Point(128, 90), new CurvesOperation.Point(255, 240))),
+                new GammaOperation(2.2),
+                new BrightnessContrastOperation(20, 1.3),
+                new GrayscaleOperation(GrayscaleOperation.Standard.BT709),
+                new LevelsOperation(10, 240, 0.8),
+                new ThresholdOperation(100),
+                new CurvesOperation(CurvesOperation.Channel.RGB, List.of(new CurvesOperation.Point(0, 30),
+                        new CurvesOperation.Point(255, 200))));
+        ArgbRaster source = ProcessingPoolTest.random(301, 203);
+        for (int from = 0; from < stages.size(); from++) {
+            for (int to = from + 1; to <= stages.size(); to++) {
+                List<ImageOperation> chain = stages.subList(from, to);
+                int[] expected = source.getPixels().clone();
+                for (ImageOperation stage : chain) {
+                    ((PointOperation) stage).apply(expected, 0, expected, 0, expected.length);
+                }
+                try (ProcessingPool pool = new ProcessingPool(1)) {
+                    assertArrayEquals(expected, new Pipeline(chain).run(source, pool).getPixels(), chain.toString());
+                }
+            }
+        }
+    }
+
+    private static ToneMap randomMap(SplittableRandom random) {
+        return switch (random.nextInt(5)) {
+            case 0 -> ToneMap.channels(table(random), table(random), table(random));
+            case 1 -> {
+                int gamma = 1 + random.nextInt(5);
+                yield ToneMap.channels(i -> (int) Math.round(255 * Math.pow(i / 255.0, gamma / 3.0)));
+            }
+            case 2 -> {
+                int red = random.nextInt(1 << 16);
+                int green = random.nextInt((1 << 16) - red + 1);
+                yield ToneMap.luminance(red, green, (1 << 16) - red - green);
+            }
+            case 3 -> random.nextBoolean() ? ToneMap.luminance(1 << 16, 0, 0) : ToneMap.luminance(13933, 46871, 4732);
+            default -> ToneMap.threshold(random.nextInt(257));
+        };
+    }
+
+    /** Random table; values outside 0-255 are clamped by {@link ToneMap#channels(int[], int[], int[])}. */
+    private static int[] table(SplittableRandom random) {
+        int[] table = new int[256];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = random.nextInt(-20, 276);
+        }
+        return table;
+    }
+
+    /** Every 0/255 channel combination, every gray and random colours with random alpha. */
+    private static int[] pixels(SplittableRandom random) {
+        int[] pixels = new int[8 + 256 + 4096];
+        for (int i = 0; i < 8; i++) {
+            pixels[i] = 0xFF000000 | ((i & 4) != 0 ? 0xFF0000 : 0) | ((i & 2) != 0 ? 0xFF00 : 0) | ((i & 1) != 0 ? 0xFF : 0);
+        }
+        for (int i = 0; i < 256; i++) {
+            pixels[8 + i] = 0x80000000 | i * 0x010101;
+        }
+        for (int i = 8 + 256; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        return pixels;
+    }
+
+    private static int[] sequential(List<ToneMap> chain, int[] pixels) {
+        int[] result = pixels.clone();
+        for (ToneMap map : chain) {
+            map.apply(result, 0, result, 0, result.length);
+        }
+        return result;
+    }
+
+    private static int[] composed(List<ToneMap> chain, int[] pixels) {
+        ToneMap map = chain.get(0);
+        for (int i = 1; i < chain.size(); i++) {
+            map = map.then(chain.get(i));
+        }
+        int[] result = new int[pixels.length];
+        map.apply(pixels, 0, result, 0, pixels.length);
+        return result;
+    }
+}